@@ -0,0 +1,69 @@
+package com.nixiedroid.petclinic.benchmark;
+
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.OwnerPlain;
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.PetPlain;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the entity to DTO mapping done for every owner and pet a response carries.
+ * <br>Owners have {@link #pets} pets each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"1", "10"})
+    public int pets;
+
+    private Owner owner;
+    private Pet pet;
+
+    @Setup
+    public void setUp() {
+        owner = Owner.builder()
+                .id(1L).firstName("George").lastName("Franklin")
+                .address("110 W. Liberty St.").city("Madison").telephone("6085551023")
+                .version(3L).pets(new ArrayList<>())
+                .build();
+        for (long i = 0; i < pets; i++) {
+            owner.getPets().add(Pet.builder()
+                    .id(i + 1).name("Leo " + i).type("cat").birthDate(LocalDate.of(2010, 9, 7))
+                    .version(1L).owner(owner)
+                    .build());
+        }
+        pet = owner.getPets().get(0);
+    }
+
+    @Benchmark
+    public List<PetPlain> petPlainCreate() {
+        return PetPlain.create(owner.getPets());
+    }
+
+    @Benchmark
+    public OwnerPlain ownerPlainCreate() {
+        return OwnerPlain.create(owner);
+    }
+
+    @Benchmark
+    public OwnerDTO ownerDtoCreate() {
+        return OwnerDTO.create(owner);
+    }
+
+    @Benchmark
+    public PetDTO petDtoCreate() {
+        return PetDTO.create(pet);
+    }
+}
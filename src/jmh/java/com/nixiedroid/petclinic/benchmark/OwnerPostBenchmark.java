@@ -0,0 +1,90 @@
+package com.nixiedroid.petclinic.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nixiedroid.petclinic.PetClinicApplication;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.OwnerPlain;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.service.OwnerService;
+import com.nixiedroid.petclinic.service.PetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code POST /owners} of a new owner listing {@link #pets} existing pets.
+ * <br>{@code PUT /owners/{id}} writes the owner with a single upsert and never resolves the listed pets,
+ * so the pet lookup of {@code OwnerService.fillEntity} is measured on the create path, which still runs it.
+ * <br>The application runs on the embedded H2 database; the pets are created once under another owner,
+ * which keeps them, and every invocation creates one more owner listing them. The listed pets are resolved
+ * by at most one query whatever their number, so the time should not grow with {@link #pets}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OwnerPostBenchmark {
+
+    @Param({"1", "50"})
+    public int pets;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest post;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = SpringApplication.run(PetClinicApplication.class,
+                "--server.port=0", "--spring.profiles.active=default", "--logging.level.root=WARN");
+        OwnerService ownerService = context.getBean(OwnerService.class);
+        PetService petService = context.getBean(PetService.class);
+        OwnerDTO owner = ownerService.saveOwner(OwnerDTO.builder()
+                .firstName("George").lastName("Franklin")
+                .address("110 W. Liberty St.").city("Madison").telephone("6085551023")
+                .build());
+        for (int i = 0; i < pets; i++) {
+            petService.savePet(PetDTO.builder()
+                    .name("Leo " + i).type("cat")
+                    .owner(OwnerPlain.builder().id(owner.id()).build())
+                    .build());
+        }
+        owner = ownerService.getOwnerById(owner.id()).orElseThrow();
+        if (owner.pets().size() != pets) {
+            throw new IllegalStateException("Expected " + pets + " pets, found " + owner.pets().size());
+        }
+        OwnerDTO created = OwnerDTO.builder()
+                .firstName("Betty").lastName("Davis")
+                .address("638 Cardinal Ave.").city("Sun Prairie").telephone("6085551749")
+                .pets(owner.pets())
+                .build();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newHttpClient();
+        post = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/owners"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(context.getBean(ObjectMapper.class).writeValueAsString(created)))
+                .build();
+        int status = postOwner();
+        if (status != 201) {
+            throw new IllegalStateException("POST answered " + status);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int postOwner() throws Exception {
+        return client.send(post, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,79 @@
+package com.nixiedroid.petclinic.benchmark;
+
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.OwnerPlain;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.repository.OwnerRepository;
+import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.PetDTOService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of a posted pet and the mapping of its errors to the response body.
+ * <br>The owner lookup is answered by an in-memory repository stub, so only the validation itself is measured;
+ * each validation gets a fresh {@link Errors}, as data binding creates one per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private PetDTOService dtoService;
+    private final ErrorMapper errorMapper = new ErrorMapper();
+    private PetDTO valid;
+    private PetDTO invalid;
+    private Errors errors;
+
+    @Setup
+    public void setUp() {
+        Optional<Owner> owner = Optional.of(Owner.builder().id(1L).firstName("A").lastName("B").build());
+        OwnerRepository owners = (OwnerRepository) Proxy.newProxyInstance(OwnerRepository.class.getClassLoader(),
+                new Class<?>[]{OwnerRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) {
+                        return Long.valueOf(1L).equals(args[0]) ? owner : Optional.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        dtoService = new PetDTOService(owners);
+        valid = PetDTO.builder()
+                .name("Leo").type("cat")
+                .owner(OwnerPlain.builder().id(1L).build())
+                .build();
+        invalid = PetDTO.builder()
+                .name("").type("cat")
+                .owner(OwnerPlain.builder().id(2L).build())
+                .build();
+        errors = validate(invalid);
+    }
+
+    @Benchmark
+    public Errors validateValid() {
+        return validate(valid);
+    }
+
+    @Benchmark
+    public Errors validateInvalid() {
+        return validate(invalid);
+    }
+
+    @Benchmark
+    public Map<String, String> errorMapperApply() {
+        return errorMapper.apply(errors);
+    }
+
+    private Errors validate(PetDTO dto) {
+        Errors result = new BeanPropertyBindingResult(dto, "petDTO");
+        dtoService.validate(dto, result);
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package com.nixiedroid.petclinic.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nixiedroid.petclinic.event.DtoCacheEvictor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Enables the in-process cache of owner and pet DTOs and of their serialized json.
+ * <br>Caches are bounded by size and time to live and record hit, miss and eviction statistics,
+ * see {@code spring.cache.caffeine.spec}. Entries are evicted on writes,
+ * see {@link DtoCacheEvictor}; the caches are {@link IndexedCaffeineCache}s, so the entries
+ * embedding a changed entity are found without scanning them.
+ * <br>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Cache of {@link com.nixiedroid.petclinic.model.OwnerDTO} by owner id
+     */
+    public static final String OWNERS = "owners";
+
+    /**
+     * Cache of {@link com.nixiedroid.petclinic.model.PetDTO} by pet id
+     */
+    public static final String PETS = "pets";
+
+    /**
+     * Cache of serialized owner json by owner id, used if {@code petclinic.cache.json.enabled} is set
+     *
+     * @see com.nixiedroid.petclinic.service.JsonCache
+     */
+    public static final String OWNER_JSON = "ownerJson";
+
+    /**
+     * Cache of serialized pet json by pet id, used if {@code petclinic.cache.json.enabled} is set
+     *
+     * @see com.nixiedroid.petclinic.service.JsonCache
+     */
+    public static final String PET_JSON = "petJson";
+
+    /**
+     * Creates the cache manager if {@code spring.cache.type} is {@code caffeine},
+     * otherwise caching is configured by Spring Boot, as in test slices disabling it.
+     *
+     * @param spec the Caffeine specification of every cache
+     * @param names the names of the caches
+     * @return the cache manager
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine")
+    public CaffeineCacheManager cacheManager(@Value("${spring.cache.caffeine.spec:}") String spec,
+                                             @Value("${spring.cache.cache-names:}") List<String> names) {
+        return indexedCacheManager(spec, names);
+    }
+
+    /**
+     * Creates a cache manager of {@link IndexedCaffeineCache}s indexed by {@link DtoCacheEvictor#relatedIds(Object)}.
+     *
+     * @param spec the Caffeine specification of every cache
+     * @param names the names of the caches
+     * @return the cache manager
+     */
+    public static CaffeineCacheManager indexedCacheManager(String spec, Collection<String> names) {
+        CaffeineCacheManager manager = new CaffeineCacheManager() {
+            @Override
+            protected Cache createCaffeineCache(String name) {
+                return IndexedCaffeineCache.create(name, spec.isEmpty() ? Caffeine.newBuilder() : Caffeine.from(spec),
+                        DtoCacheEvictor::relatedIds, isAllowNullValues());
+            }
+        };
+        manager.setCacheNames(names);
+        return manager;
+    }
+}
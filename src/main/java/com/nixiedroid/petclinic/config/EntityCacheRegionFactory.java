@@ -0,0 +1,42 @@
+package com.nixiedroid.petclinic.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Second-level cache region factory giving every session factory a cache manager of its own.
+ * <br>The JCache provider hands out one cache manager per configuration URI, so session factories configured
+ * with the same {@code hibernate.javax.cache.uri} would share their regions: entries loaded from one database
+ * would be served by a session factory reading another, and closing one session factory would destroy
+ * the regions of the others. Such is the case of the application contexts cached by the test framework.
+ * <br>Here the regions are still configured by {@code hibernate.javax.cache.uri}, but the cache manager
+ * is registered under a unique URI and closed along with its session factory.
+ */
+public class EntityCacheRegionFactory extends JCacheRegionFactory {
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map<String, Object> properties) {
+        URI config = getUri(settings, properties);
+        if (config == null) {
+            throw new CacheException("hibernate.javax.cache.uri must name the cache configuration");
+        }
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName(), getClass().getClassLoader());
+        try {
+            return provider.getCacheManager(URI.create("urn:petclinic:entity-cache:" + UUID.randomUUID()),
+                    new XmlConfiguration(config.toURL(), getClass().getClassLoader()));
+        } catch (MalformedURLException e) {
+            throw new CacheException("Unable to read the cache configuration " + config, e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.nixiedroid.petclinic.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Caffeine cache indexing its entries by the identifiers of the entities embedded in their values.
+ * <br>{@link #keysRelatedTo(Long)} tells which entries embed an entity without scanning the cache.
+ * The index is updated within the atomic operation that writes or removes an entry,
+ * size and expiry evictions included, so it lists exactly the entries present.
+ * <br>
+ */
+public class IndexedCaffeineCache extends CaffeineCache {
+
+    /**
+     * Keys of the entries by the identifiers their values embed
+     */
+    private static final class RelatedKeys {
+        private final Map<Long, Set<Object>> keys = new ConcurrentHashMap<>();
+        private final Function<Object, Collection<Long>> relatedOf;
+
+        private RelatedKeys(Function<Object, Collection<Long>> relatedOf) {
+            this.relatedOf = relatedOf;
+        }
+
+        private void link(Object key, @Nullable Object value) {
+            if (value != null) {
+                relatedOf.apply(value).forEach(id -> keys.compute(id, (i, linked) -> {
+                    Set<Object> set = linked == null ? ConcurrentHashMap.newKeySet() : linked;
+                    set.add(key);
+                    return set;
+                }));
+            }
+        }
+
+        private void unlink(Object key, @Nullable Object value) {
+            if (value != null) {
+                relatedOf.apply(value).forEach(id -> keys.computeIfPresent(id, (i, linked) -> {
+                    linked.remove(key);
+                    return linked.isEmpty() ? null : linked;
+                }));
+            }
+        }
+    }
+
+    private final RelatedKeys related;
+
+    private IndexedCaffeineCache(String name, Cache<Object, Object> cache, RelatedKeys related,
+                                 boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+        this.related = related;
+    }
+
+    /**
+     * Creates an indexed cache.
+     *
+     * @param name the name of the cache
+     * @param builder the builder of the native cache, without an eviction listener
+     * @param relatedOf the identifiers of the entities a cached value embeds
+     * @param allowNullValues whether null values are cached
+     * @return the new cache
+     */
+    public static IndexedCaffeineCache create(String name, Caffeine<Object, Object> builder,
+                                              Function<Object, Collection<Long>> relatedOf, boolean allowNullValues) {
+        RelatedKeys related = new RelatedKeys(relatedOf);
+        Cache<Object, Object> cache = builder
+                .evictionListener((key, value, cause) -> related.unlink(key, value))
+                .build();
+        return new IndexedCaffeineCache(name, cache, related, allowNullValues);
+    }
+
+    /**
+     * Lists the keys of the entries embedding an entity.
+     *
+     * @param id the identifier of the entity
+     * @return the keys of the entries whose values embed it
+     */
+    public List<Object> keysRelatedTo(Long id) {
+        return List.copyOf(related.keys.getOrDefault(id, Set.of()));
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        Object stored = toStoreValue(value);
+        getNativeCache().asMap().compute(key, (k, old) -> {
+            related.unlink(k, old);
+            related.link(k, stored);
+            return stored;
+        });
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        Object stored = toStoreValue(value);
+        Object[] existing = new Object[1];
+        getNativeCache().asMap().compute(key, (k, old) -> {
+            if (old != null) {
+                existing[0] = old;
+                return old;
+            }
+            related.link(k, stored);
+            return stored;
+        });
+        return existing[0] == null ? null : toValueWrapper(existing[0]);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) fromStoreValue(getNativeCache().asMap().computeIfAbsent(key, k -> {
+            Object stored;
+            try {
+                stored = toStoreValue(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            related.link(k, stored);
+            return stored;
+        }));
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean[] removed = new boolean[1];
+        getNativeCache().asMap().computeIfPresent(key, (k, old) -> {
+            related.unlink(k, old);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public void clear() {
+        invalidate();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean removed = false;
+        for (Object key : List.copyOf(getNativeCache().asMap().keySet())) {
+            removed |= evictIfPresent(key);
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,57 @@
+package com.nixiedroid.petclinic.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Reads the primary from within a transaction that may already read the replica.
+ * <br>The database of a transaction is chosen by its first statement, so the work runs in a read-only
+ * transaction of its own, see {@link ReadRouting}. Without a replica there is nothing to read again,
+ * see {@link #isReplicated()}.
+ */
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate template;
+    private final boolean replicated;
+
+    /**
+     * Constructs a new {@link PrimaryReads}.
+     *
+     * @param transactionManager the transaction manager starting the primary transactions
+     * @param replicated whether read-only transactions may read a replica
+     */
+    @Autowired
+    public PrimaryReads(PlatformTransactionManager transactionManager,
+                        @Value("${petclinic.replica.enabled:false}") boolean replicated) {
+        this.template = new TransactionTemplate(transactionManager);
+        this.template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.template.setReadOnly(true);
+        this.replicated = replicated;
+    }
+
+    /**
+     * Tells whether read-only transactions may read a replica lagging behind the primary.
+     *
+     * @return true if {@code petclinic.replica.enabled} is set
+     */
+    public boolean isReplicated() {
+        return replicated;
+    }
+
+    /**
+     * Runs work in a new read-only transaction reading the primary.
+     *
+     * @param work the work to run
+     * @return the result of the work
+     */
+    public <T> T read(Supplier<T> work) {
+        return ReadRouting.onPrimary(() -> template.execute(status -> work.get()));
+    }
+}
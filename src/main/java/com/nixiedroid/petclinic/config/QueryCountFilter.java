@@ -0,0 +1,45 @@
+package com.nixiedroid.petclinic.config;
+
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Reports the number of SQL statements executed while handling a request.
+ * <br>The count is stored in the {@link #ATTRIBUTE} request attribute and logged at debug level.
+ * Entities read by validators and services share the request-wide persistence context
+ * (open session in view), so an entity is expected to be read at most once per request.
+ * <br>
+ *
+ * @see QueryCounter
+ */
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the request attribute holding the statement count.
+     */
+    public static final String ATTRIBUTE = "petclinic.queryCount";
+
+    @Override
+    protected void doFilterInternal(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                                    @Nonnull FilterChain chain) throws ServletException, IOException {
+        QueryCounter.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long count = QueryCounter.get();
+            QueryCounter.clear();
+            request.setAttribute(ATTRIBUTE, count);
+            log.debug("{} {} executed {} statements", request.getMethod(), request.getRequestURI(), count);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.nixiedroid.petclinic.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements prepared by Hibernate on the current thread.
+ * <br>Registered through {@code hibernate.session_factory.statement_inspector};
+ * the statements themselves are passed through unchanged.
+ * <br>
+ *
+ * @see QueryCountFilter
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Starts counting from zero on the current thread.
+     */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * @return the number of statements prepared on the current thread since the last {@link #reset()}
+     */
+    public static long get() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * Stops counting on the current thread and releases the counter.
+     */
+    public static void clear() {
+        COUNT.remove();
+    }
+}
@@ -0,0 +1,107 @@
+package com.nixiedroid.petclinic.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.Nonnull;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Routes read-only transactions to a read replica, if {@code petclinic.replica.enabled} is set.
+ * <br>The primary pool is configured by {@code spring.datasource.*} as usual, the replica pool by
+ * {@code petclinic.replica.datasource.*} (Hikari properties such as {@code jdbc-url} and {@code maximum-pool-size}).
+ * The application data source hands out lazy connections that pick a pool at their first statement,
+ * see {@link ReadRoutingDataSource}.
+ * <br>With open session in view, Hibernate would otherwise keep the first connection of a request
+ * for all its transactions; here connections are released after each transaction, so a read followed
+ * by a write in the same request uses the replica, then the primary.
+ * <br>Caches are filled from the primary only: the DTO caches by loading on the primary,
+ * the second-level cache by not putting replica reads, see {@link ReadReplicaJpaDialect}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    /**
+     * Pool of the primary database, which takes all writes
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Pool of the read replica
+     */
+    @Bean
+    @ConfigurationProperties("petclinic.replica.datasource")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadRoutingDataSource readRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${petclinic.replica.retry-interval:PT10S}") Duration retryInterval) {
+        return new ReadRoutingDataSource(primary, replica, retryInterval);
+    }
+
+    /**
+     * Data source of the application: connections are requested from the {@link ReadRoutingDataSource}
+     * at their first statement, once the transaction is known to be read-only or not.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Keeps replica reads out of the second-level cache, see {@link ReadReplicaJpaDialect}.
+     * <br>The transaction manager takes the dialect of the entity manager factory when initialized,
+     * so the dialect is replaced afterwards.
+     */
+    @Bean
+    public static BeanPostProcessor replicaReadJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@Nonnull Object bean, @Nonnull String beanName) {
+                if (bean instanceof JpaTransactionManager transactionManager) {
+                    transactionManager.setJpaDialect(new ReadReplicaJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ReadRoutingFilter readRoutingFilter(@Value("${petclinic.replica.read-your-writes:PT5S}") Duration window) {
+        return new ReadRoutingFilter(window);
+    }
+}
@@ -0,0 +1,47 @@
+package com.nixiedroid.petclinic.config;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps the rows read from the replica out of the second-level cache.
+ * <br>Read-only transactions that may read the replica, see {@link ReadRoutingDataSource}, get entities from
+ * the cache but do not put any. Otherwise a row read from a lagging replica right after a write evicted it
+ * would be cached again and served to the transactions reading the primary.
+ */
+public class ReadReplicaJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object data = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || ReadRouting.isPrimaryRequired()) {
+            return data;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previous = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaRead(data, session, previous);
+    }
+
+    /**
+     * Restores the cache mode of the session, which outlives the transaction with open session in view.
+     */
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaRead read) {
+            read.session().setCacheMode(read.previous());
+            super.cleanupTransaction(read.data());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record ReplicaRead(Object data, Session session, CacheMode previous) {
+    }
+}
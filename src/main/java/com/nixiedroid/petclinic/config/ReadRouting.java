@@ -0,0 +1,88 @@
+package com.nixiedroid.petclinic.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Tells the {@link ReadRoutingDataSource} whether the read-only transactions of the current thread
+ * may read the replica.
+ * <br>Requests that write, and requests made within the read-your-writes window of a write,
+ * read the primary, see {@link ReadRoutingFilter}. So do tasks that must see every committed change,
+ * such as loading the in-memory indexes and counters that writes keep up to date.
+ * <br>Without a replica the flag has no effect.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * @return true if reads of the current thread must go to the primary
+     */
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY.get());
+    }
+
+    /**
+     * Sends the reads of the current thread to the primary until {@link #clear()}.
+     */
+    public static void requirePrimary() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    /**
+     * Lets the read-only transactions of the current thread read the replica again.
+     */
+    public static void clear() {
+        PRIMARY.remove();
+    }
+
+    /**
+     * Runs work reading the primary.
+     * <br>The database is chosen by the first statement of a transaction, so the work may be
+     * the body of a {@code @Transactional(readOnly = true)} method.
+     *
+     * @param work the work to run
+     */
+    public static void runOnPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Computes a result reading the primary, see {@link #runOnPrimary(Runnable)}.
+     *
+     * @param work the work to run
+     * @return the result of the work
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Carries the choice of the current thread over to work run on another thread.
+     *
+     * @param work the work to hand over
+     * @return the work, reading the primary if the current thread does
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        return isPrimaryRequired() ? () -> onPrimary(work) : work;
+    }
+
+    private static void restore(Boolean previous) {
+        if (previous == null) {
+            PRIMARY.remove();
+        } else {
+            PRIMARY.set(previous);
+        }
+    }
+}
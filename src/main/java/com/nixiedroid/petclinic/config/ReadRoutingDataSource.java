@@ -0,0 +1,93 @@
+package com.nixiedroid.petclinic.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends the connections of read-only transactions to the replica and all others to the primary.
+ * <br>The replica is skipped when the current thread requires the primary, see {@link ReadRouting}.
+ * If no replica connection can be obtained, the primary serves the transaction, and all reads go to the
+ * primary for {@code retryInterval} before the replica is tried again. A replica failing during
+ * a transaction is not retried on the primary.
+ * <br>The transaction must be known when the connection is requested, so this data source is used
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which requests
+ * it at the first statement, see {@link ReadReplicaConfig}.
+ */
+@Slf4j
+public class ReadRoutingDataSource extends AbstractDataSource implements MeterBinder {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long retryNanos;
+    private volatile long replicaDownUntil = System.nanoTime();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * Constructs a new {@link ReadRoutingDataSource}.
+     *
+     * @param primary       the pool of the primary database
+     * @param replica       the pool of the replica
+     * @param retryInterval how long reads stay on the primary after the replica failed
+     */
+    public ReadRoutingDataSource(DataSource primary, DataSource replica, Duration retryInterval) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryNanos = retryInterval.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadRouting.isPrimaryRequired()) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        if (System.nanoTime() - replicaDownUntil < 0) {
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaConnections.increment();
+            return connection;
+        } catch (SQLException e) {
+            replicaDownUntil = System.nanoTime() + retryNanos;
+            fallbacks.increment();
+            log.warn("Replica unavailable, reading the primary for {} ms: {}", retryNanos / 1_000_000, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Credentials are configured per pool");
+    }
+
+    /**
+     * Publishes the connections handed out by database and the reads that fell back to the primary.
+     */
+    @Override
+    public void bindTo(@Nonnull MeterRegistry registry) {
+        FunctionCounter.builder("petclinic.datasource.connections", primaryConnections, LongAdder::sum)
+                .tag("target", "primary")
+                .description("Connections handed out by database").register(registry);
+        FunctionCounter.builder("petclinic.datasource.connections", replicaConnections, LongAdder::sum)
+                .tag("target", "replica")
+                .description("Connections handed out by database").register(registry);
+        FunctionCounter.builder("petclinic.datasource.replica.fallbacks", fallbacks, LongAdder::sum)
+                .description("Read-only transactions served by the primary because the replica was unavailable")
+                .register(registry);
+    }
+}
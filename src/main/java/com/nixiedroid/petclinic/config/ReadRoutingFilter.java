@@ -0,0 +1,75 @@
+package com.nixiedroid.petclinic.config;
+
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Keeps the reads of a client on the primary while its writes may not have reached the replica.
+ * <br>Requests other than GET, HEAD and OPTIONS read the primary, and their response carries the
+ * {@link #HEADER} header: the time, in epoch milliseconds, until which the replica may lag behind the write.
+ * Requests sending the header back before that time read the primary too; times later than
+ * the window from now are ignored.
+ */
+public class ReadRoutingFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the header holding the end of the read-your-writes window.
+     */
+    public static final String HEADER = "X-Primary-Until";
+
+    private static final Set<String> READS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final long windowMillis;
+
+    /**
+     * Constructs a new {@link ReadRoutingFilter}.
+     *
+     * @param window the expected maximum replication lag
+     */
+    public ReadRoutingFilter(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response,
+                                    @Nonnull FilterChain chain) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        if (!READS.contains(request.getMethod())) {
+            ReadRouting.requirePrimary();
+            response.setHeader(HEADER, Long.toString(now + windowMillis));
+        } else if (isWithinWindow(request.getHeader(HEADER), now)) {
+            ReadRouting.requirePrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.clear();
+        }
+    }
+
+    /**
+     * Tells whether a header value is a read-your-writes window still open.
+     * <br>Values further ahead than a write could have set are ignored, so a client cannot
+     * keep its reads on the primary by sending a time far in the future.
+     */
+    private boolean isWithinWindow(String header, long now) {
+        if (header == null) {
+            return false;
+        }
+        long until;
+        try {
+            until = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return now < until && until <= now + windowMillis;
+    }
+}
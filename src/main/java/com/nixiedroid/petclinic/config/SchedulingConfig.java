@@ -0,0 +1,13 @@
+package com.nixiedroid.petclinic.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background tasks, such as the reconciliation of the clinic statistics,
+ * see {@link com.nixiedroid.petclinic.service.ClinicStatsCounter#reconcile()}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,143 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.JsonBody;
+import com.nixiedroid.petclinic.service.EntityTags;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shared conditional request handling of the single resource endpoints.
+ * <br>Responses carry a strong {@code ETag}, see {@link EntityTags}.
+ * A request with an {@code If-None-Match} header is checked against the current tag first,
+ * and answered with 304 Not Modified before the DTO is built or serialized if it matches.
+ * <br>The asynchronous endpoints answer off the request thread, so they read the header beforehand
+ * and pass its value instead of the request.
+ */
+final class Conditional {
+
+    private Conditional() {
+    }
+
+    /**
+     * Answers a GET request for a single resource
+     *
+     * @param request the current request
+     * @param tag     computes the current tag of the resource, empty if it does not exist
+     * @param body    loads the resource, empty if it does not exist
+     * @param tagOf   computes the tag of a loaded resource
+     * @return 304 if the tag matches, json object with its tag if found, 404 otherwise
+     */
+    static <T> ResponseEntity<T> get(WebRequest request, Supplier<Optional<String>> tag,
+                                     Supplier<Optional<T>> body, Function<T, String> tagOf) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> current = tag.get();
+            if (current.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            if (request.checkNotModified(current.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get()).build();
+            }
+        }
+        return body.get().map(b -> ResponseEntity.ok().eTag(tagOf.apply(b)).body(b))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Answers a GET request for a single resource from its serialized json
+     * <br>The json is written to the response as is, without going through Jackson.
+     *
+     * @param request the current request
+     * @param body    loads the serialized resource, empty if it does not exist
+     * @return 304 if the tag matches, json object with its tag if found, 404 otherwise
+     */
+    static ResponseEntity<?> getJson(WebRequest request, Supplier<Optional<JsonBody>> body) {
+        Optional<JsonBody> json = body.get();
+        if (json.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (request.checkNotModified(json.get().tag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(json.get().tag()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(json.get().tag())
+                .body(json.get().json());
+    }
+
+    /**
+     * Answers a GET request for a single resource, off the request thread
+     *
+     * @param ifNoneMatch the {@code If-None-Match} header of the request, may be null
+     * @param tag         computes the current tag of the resource, empty if it does not exist
+     * @param body        loads the resource, empty if it does not exist
+     * @param tagOf       computes the tag of a loaded resource
+     * @return 304 if the tag matches, json object with its tag if found, 404 otherwise
+     * @see #get(WebRequest, Supplier, Supplier, Function)
+     */
+    static <T> ResponseEntity<T> get(String ifNoneMatch, Supplier<Optional<String>> tag,
+                                     Supplier<Optional<T>> body, Function<T, String> tagOf) {
+        if (ifNoneMatch != null) {
+            Optional<String> current = tag.get();
+            if (current.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            if (matches(ifNoneMatch, current.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get()).build();
+            }
+        }
+        return body.get().map(b -> ResponseEntity.ok().eTag(tagOf.apply(b)).body(b))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Answers a GET request for a single resource from its serialized json, off the request thread
+     *
+     * @param ifNoneMatch the {@code If-None-Match} header of the request, may be null
+     * @param body        loads the serialized resource, empty if it does not exist
+     * @return 304 if the tag matches, json object with its tag if found, 404 otherwise
+     * @see #getJson(WebRequest, Supplier)
+     */
+    static ResponseEntity<?> getJson(String ifNoneMatch, Supplier<Optional<JsonBody>> body) {
+        Optional<JsonBody> json = body.get();
+        if (json.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (matches(ifNoneMatch, json.get().tag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(json.get().tag()).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(json.get().tag())
+                .body(json.get().json());
+    }
+
+    /**
+     * Compares an {@code If-None-Match} header with a tag, weakly as required for GET requests
+     *
+     * @param ifNoneMatch the header value, may be null
+     * @param tag         the quoted current tag
+     * @return true if the header lists the tag or is {@code *}
+     */
+    static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,6 +1,7 @@
 package com.nixiedroid.petclinic.controller;
 
 import jakarta.annotation.Nonnull;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -8,6 +9,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Global error handling controller for the application.
  * <br>This controller handles exceptions thrown by any controller and provides appropriate responses.
@@ -56,4 +59,16 @@ public class ErrorController {
     public ResponseEntity<?> methodNotAllowed() {
         return new ResponseEntity<>(HttpStatus.METHOD_NOT_ALLOWED);
     }
-}
\ No newline at end of file
+
+    /**
+     * Handles {@link RejectedExecutionException} exceptions, thrown when the database executor queue is full.
+     * <br>Returns a response entity with HTTP status 503 (Service Unavailable) asking the client to retry.
+     *
+     * @return a ResponseEntity with status 503 and a {@code Retry-After} header
+     * @see com.nixiedroid.petclinic.service.DatabaseExecutor
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> overloaded() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+}
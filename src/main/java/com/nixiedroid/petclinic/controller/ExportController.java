@@ -0,0 +1,55 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Controller class for the <a href="/owners/stream">/owners/stream</a>
+ * and <a href="/pets/stream">/pets/stream</a> endpoints
+ * <br>Both endpoints return the whole table as newline delimited JSON.
+ * The response is written on an async thread while rows are read,
+ * so the client starts receiving data immediately.
+ *
+ * @see ExportService
+ */
+@RestController
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Listens for GET requests at <a href="/owners/stream">/owners/stream</a>
+     *
+     * @return ndjson stream of {@link OwnerDTO}
+     */
+    @GetMapping(value = "/owners/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOwners() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportService::exportOwners);
+    }
+
+    /**
+     * Listens for GET requests at <a href="/pets/stream">/pets/stream</a>
+     *
+     * @return ndjson stream of {@link PetDTO}
+     */
+    @GetMapping(value = "/pets/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPets() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportService::exportPets);
+    }
+}
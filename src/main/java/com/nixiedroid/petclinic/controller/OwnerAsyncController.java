@@ -0,0 +1,128 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.service.DatabaseExecutor;
+import com.nixiedroid.petclinic.service.EntityTags;
+import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.JsonCache;
+import com.nixiedroid.petclinic.service.OwnerService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.Errors;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controller class for  <a href="/async/owners">/async/owners</a> endpoint
+ * <br>Asynchronous variant of {@link OwnerController}: the same requests get the same responses,
+ * but the service calls run on the {@link DatabaseExecutor} and the request thread is released meanwhile.
+ * Requests exceeding the executor queue are answered with 503.
+ * <br>Writes are handled by the same {@link OwnerWrites} as in {@link OwnerController}.
+ *
+ * @see Owner
+ * @see OwnerDTO
+ */
+@RestController
+@RequestMapping("/async/owners")
+public class OwnerAsyncController {
+
+    private final OwnerService ownerService;
+    private final JsonCache jsonCache;
+    private final DatabaseExecutor db;
+    private final OwnerWrites writes;
+
+    @Autowired
+    public OwnerAsyncController(OwnerService ownerService, ErrorMapper mapper, JsonCache jsonCache,
+                                DatabaseExecutor db) {
+        this.ownerService = ownerService;
+        this.jsonCache = jsonCache;
+        this.db = db;
+        this.writes = new OwnerWrites(ownerService, mapper);
+    }
+
+    /**
+     * Listens for GET requests at <a href="/async/owners">/async/owners</a>
+     *
+     * @see OwnerController#getAllOwners(Long, int)
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<List<OwnerDTO>>> getAllOwners(
+            @RequestParam(defaultValue = Paging.FIRST_CURSOR) Long after,
+            @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        int size = Paging.clamp(limit);
+        return db.supply(() -> Paging.toResponse(ownerService.getOwners(after, size), EntityTags::ofOwners));
+    }
+
+    /**
+     * Listens for GET requests at <a href="/async/owners/search">/async/owners/search</a>
+     *
+     * @see OwnerController#searchOwners(String, int)
+     */
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<?>> searchOwners(
+            @RequestParam(required = false) String lastName,
+            @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        if (lastName == null || lastName.isBlank()) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(Map.of("lastName", "Last name must not be blank"), HttpStatus.BAD_REQUEST));
+        }
+        int size = Paging.clamp(limit);
+        return db.supply(() -> {
+            List<OwnerDTO> owners = ownerService.searchOwners(lastName, size);
+            return ResponseEntity.ok().eTag(EntityTags.ofOwners(owners)).body(owners);
+        });
+    }
+
+    /**
+     * Listens for GET requests at <a href="/async/owners/{id}">/async/owners/{id}</a>
+     *
+     * @see OwnerController#getOwnerById(Long, org.springframework.web.context.request.WebRequest)
+     */
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<?>> getOwnerById(
+            @PathVariable Long id, @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (jsonCache.isEnabled()) {
+            return db.supply(() -> Conditional.getJson(ifNoneMatch, () -> jsonCache.getOwner(id)));
+        }
+        return db.supply(() -> Conditional.get(ifNoneMatch, () -> ownerService.getOwnerTag(id),
+                () -> ownerService.getOwnerById(id), EntityTags::of));
+    }
+
+    /**
+     * Listens for POST requests at <a href="/async/owners">/async/owners</a>
+     *
+     * @see OwnerController#createOwner(OwnerDTO, Errors)
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<?>> createOwner(@Valid @RequestBody OwnerDTO dto, Errors errors) {
+        return db.supply(() -> writes.create(dto, errors));
+    }
+
+    /**
+     * Listens for PUT requests at <a href="/async/owners/{id}">/async/owners/{id}</a>
+     *
+     * @see OwnerController#putOwner(Long, OwnerDTO, Errors)
+     */
+    @PutMapping("/{id}")
+    public CompletableFuture<ResponseEntity<?>> putOwner(@PathVariable Long id, @Valid @RequestBody OwnerDTO dto,
+                                                         Errors errors) {
+        return db.supply(() -> writes.put(id, dto, errors));
+    }
+
+    /**
+     * Listens for DELETE requests at <a href="/async/owners/{id}">/async/owners/{id}</a>
+     *
+     * @see OwnerController#deleteOwner(Long)
+     */
+    @DeleteMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Void>> deleteOwner(@PathVariable Long id) {
+        return db.supply(() -> writes.delete(id));
+    }
+}
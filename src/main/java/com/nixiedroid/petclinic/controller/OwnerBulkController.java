@@ -0,0 +1,71 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.nixiedroid.petclinic.model.BulkItemResult;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.service.OwnerBulkService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller class for  <a href="/owners/_bulk">/owners/_bulk</a> endpoint
+ * <br>Accepts either a json array or newline delimited json of {@link OwnerDTO} with nested pets
+ * and answers with one {@link BulkItemResult} per item, in request order.
+ *
+ * @see OwnerBulkService
+ */
+@RestController
+@RequestMapping("/owners/_bulk")
+public class OwnerBulkController {
+
+    private final OwnerBulkService bulkService;
+    private final ObjectReader ndjsonReader;
+
+    @Autowired
+    public OwnerBulkController(OwnerBulkService bulkService, ObjectMapper objectMapper) {
+        this.bulkService = bulkService;
+        this.ndjsonReader = objectMapper.readerFor(OwnerDTO.class);
+    }
+
+    /**
+     * Listens for POST requests of json arrays at <a href="/owners/_bulk">/owners/_bulk</a>
+     * and creates Owner objects accordingly
+     *
+     * @return json list of {@link BulkItemResult}
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkItemResult>> createOwners(@RequestBody List<OwnerDTO> owners) {
+        return new ResponseEntity<>(bulkService.createOwners(owners), HttpStatus.OK);
+    }
+
+    /**
+     * Listens for POST requests of newline delimited json at <a href="/owners/_bulk">/owners/_bulk</a>
+     * and creates Owner objects accordingly
+     *
+     * @return json list of {@link BulkItemResult}, or field error map if a line is malformed
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> createOwnersNdjson(InputStream body) throws IOException {
+        List<OwnerDTO> owners;
+        try (MappingIterator<OwnerDTO> lines = ndjsonReader.readValues(body)) {
+            owners = lines.readAll();
+        } catch (JsonProcessingException e) {
+            return new ResponseEntity<>(Map.of("body", e.getOriginalMessage()), HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(bulkService.createOwners(owners), HttpStatus.OK);
+    }
+}
@@ -2,7 +2,9 @@ package com.nixiedroid.petclinic.controller;
 
 import com.nixiedroid.petclinic.model.Owner;
 import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.service.EntityTags;
 import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.JsonCache;
 import com.nixiedroid.petclinic.service.OwnerService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,10 +12,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Map;
 
 /**
  * Controller class for  <a href="/owners">/owners</a> endpoint
@@ -26,34 +28,64 @@ import java.util.Optional;
 public class OwnerController {
 
     private final OwnerService ownerService;
-    private final ErrorMapper mapper;
+    private final JsonCache jsonCache;
+    private final OwnerWrites writes;
 
     @Autowired
-    public OwnerController(OwnerService ownerService, ErrorMapper mapper) {
+    public OwnerController(OwnerService ownerService, ErrorMapper mapper, JsonCache jsonCache) {
         this.ownerService = ownerService;
-        this.mapper = mapper;
+        this.jsonCache = jsonCache;
+        this.writes = new OwnerWrites(ownerService, mapper);
     }
 
     /**
      * Listens for GET requests at <a href="/owners">/owners</a>
+     * <br>Results are keyset paginated, see {@link Paging}
      *
-     * @return json list of {@link Owner}
+     * @param after the id of the last owner of the previous page
+     * @param limit the maximum number of owners to return
+     * @return json list of {@link Owner} ordered by id
      */
     @GetMapping
-    public List<OwnerDTO> getAllOwners() {
-        return ownerService.getAllOwners();
+    public ResponseEntity<List<OwnerDTO>> getAllOwners(
+            @RequestParam(defaultValue = Paging.FIRST_CURSOR) Long after,
+            @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        return Paging.toResponse(ownerService.getOwners(after, Paging.clamp(limit)), EntityTags::ofOwners);
+    }
+
+    /**
+     * Listens for GET requests at <a href="/owners/search">/owners/search</a>
+     * <br>Matches owners whose last name starts with {@code lastName}, ignoring case
+     *
+     * @param lastName the last name prefix
+     * @param limit the maximum number of owners to return
+     * @return json list of {@link Owner} ordered by last name, then id, or field error map if {@code lastName} is blank
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchOwners(
+            @RequestParam(required = false) String lastName,
+            @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        if (lastName == null || lastName.isBlank()) {
+            return new ResponseEntity<>(Map.of("lastName", "Last name must not be blank"), HttpStatus.BAD_REQUEST);
+        }
+        List<OwnerDTO> owners = ownerService.searchOwners(lastName, Paging.clamp(limit));
+        return ResponseEntity.ok().eTag(EntityTags.ofOwners(owners)).body(owners);
     }
 
     /**
      * Listens for GET requests at <a href="/owners/{id}">/owners/{id}</a>
+     * <br>Conditional requests are answered from the owner tag, see {@link Conditional}
+     * <br>If enabled, the owner is served from its cached json, see {@link JsonCache}
      *
      * @return json object {@link Owner} if {id} exists or null
      */
     @GetMapping("/{id}")
-    public ResponseEntity<OwnerDTO> getOwnerById(@PathVariable Long id) {
-        Optional<OwnerDTO> owner = ownerService.getOwnerById(id);
-        return owner.map(dto -> new ResponseEntity<>(dto, HttpStatus.OK))
-                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<?> getOwnerById(@PathVariable Long id, WebRequest request) {
+        if (jsonCache.isEnabled()) {
+            return Conditional.getJson(request, () -> jsonCache.getOwner(id));
+        }
+        return Conditional.get(request, () -> ownerService.getOwnerTag(id),
+                () -> ownerService.getOwnerById(id), EntityTags::of);
     }
 
     /**
@@ -64,52 +96,31 @@ public class OwnerController {
      */
     @PostMapping
     public ResponseEntity<?> createOwner(@Valid @RequestBody OwnerDTO dto, Errors errors) {
-        if (errors.hasErrors()) {
-            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
-        }
-        if (dto.id() != null) {
-            if (ownerService.existsById(dto.id())) {
-                errors.rejectValue("id", "NULL", "Owner is already exists");
-                return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
-            }
-        }
-        return new ResponseEntity<>(ownerService.saveOwner(dto), HttpStatus.CREATED);
+        return writes.create(dto, errors);
     }
 
     /**
      * Listens for PUT requests at <a href="/owners/{id}">/owners/{id}</a>
      * and updates Owner object if {id} found
      * or creates Owner object if not-exists
+     * <br>The owner is written by a single insert-or-update statement that also tells
+     * whether it was created, answered with 201, or updated, answered with 200
      *
      * @return newly created json object {@link Owner} on success
      */
     @PutMapping("/{id}")
     ResponseEntity<?> putOwner(@PathVariable Long id, @Valid @RequestBody OwnerDTO dto, Errors errors) {
-        if (errors.hasErrors()) {
-            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
-        }
-        if (dto.id() == null) {
-            errors.rejectValue("id", "EXIST", "Id must not be null");
-            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
-        }
-        if (!Objects.equals(dto.id(), id)) {
-            errors.rejectValue("id", "MISS", "Id mismatch");
-            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
-        }
-        if (ownerService.existsById(id)) {
-            return new ResponseEntity<>(ownerService.saveOwner(dto), HttpStatus.OK);
-        } else return new ResponseEntity<>(ownerService.saveOwner(dto), HttpStatus.CREATED);
+        return writes.put(id, dto, errors);
     }
 
     /**
      * Listens for DELETE requests at <a href="/owners/{id}">/owners/{id}</a>
      * and deletes Owner object if {id} found
+     *
+     * @return 204 if the owner was deleted, 404 if {id} does not exist
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOwner(@PathVariable Long id) {
-        if (ownerService.existsById(id)) {
-            ownerService.deleteOwner(id);
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-        } else return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        return writes.delete(id);
     }
 }
\ No newline at end of file
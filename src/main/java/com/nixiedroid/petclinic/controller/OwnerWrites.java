@@ -0,0 +1,73 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.Upserted;
+import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.OwnerService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.Errors;
+
+import java.util.Objects;
+
+/**
+ * Owner writes shared by {@link OwnerController} and {@link OwnerAsyncController}.
+ * <br>The body has been validated by the caller, its errors are in {@code errors};
+ * the remaining checks, the service call and the response are the same for both controllers.
+ */
+final class OwnerWrites {
+
+    private final OwnerService ownerService;
+    private final ErrorMapper mapper;
+
+    OwnerWrites(OwnerService ownerService, ErrorMapper mapper) {
+        this.ownerService = ownerService;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Creates an owner unless the body is invalid or names an existing id.
+     *
+     * @return 201 with the created owner, or 400 with the field error map
+     */
+    ResponseEntity<?> create(OwnerDTO dto, Errors errors) {
+        if (errors.hasErrors()) {
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        if (dto.id() != null && ownerService.existsById(dto.id())) {
+            errors.rejectValue("id", "NULL", "Owner is already exists");
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(ownerService.saveOwner(dto), HttpStatus.CREATED);
+    }
+
+    /**
+     * Creates or updates the owner {@code id} unless the body is invalid or carries another id.
+     *
+     * @return 201 with a created owner, 200 with an updated one, or 400 with the field error map
+     */
+    ResponseEntity<?> put(Long id, OwnerDTO dto, Errors errors) {
+        if (errors.hasErrors()) {
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        if (dto.id() == null) {
+            errors.rejectValue("id", "EXIST", "Id must not be null");
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        if (!Objects.equals(dto.id(), id)) {
+            errors.rejectValue("id", "MISS", "Id mismatch");
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        Upserted<OwnerDTO> saved = ownerService.upsertOwner(dto);
+        return new ResponseEntity<>(saved.value(), saved.created() ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
+    /**
+     * Deletes the owner {@code id}.
+     *
+     * @return 204 if the owner was deleted, 404 if it does not exist
+     */
+    ResponseEntity<Void> delete(Long id) {
+        return new ResponseEntity<>(ownerService.deleteOwner(id) ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND);
+    }
+}
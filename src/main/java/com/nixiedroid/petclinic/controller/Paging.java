@@ -0,0 +1,66 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.KeysetPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared keyset pagination settings of the list endpoints.
+ * <br>List endpoints accept {@code after} and {@code limit} query parameters and return a json list.
+ * The cursor of the following page is sent in the {@value #NEXT_CURSOR_HEADER} header,
+ * which is absent on the last page.
+ * <br>Pages carry a strong {@code ETag} computed from the versions of their items. A request with
+ * a matching {@code If-None-Match} header is answered with 304 Not Modified without serializing the page.
+ */
+final class Paging {
+
+    /**
+     * Response header carrying the {@code after} cursor of the following page
+     */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Cursor of the first page
+     */
+    static final String FIRST_CURSOR = "0";
+
+    /**
+     * Page size used when the {@code limit} parameter is absent
+     */
+    static final String DEFAULT_LIMIT = "100";
+
+    /**
+     * Largest accepted page size
+     */
+    static final int MAX_LIMIT = 1000;
+
+    private Paging() {
+    }
+
+    /**
+     * Clamps the requested page size to {@code [1, MAX_LIMIT]}
+     *
+     * @param limit the requested page size
+     * @return the page size to use
+     */
+    static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Converts a page to a response with the items as body and the next cursor and tag as headers
+     *
+     * @param page  the page to send
+     * @param tagOf computes the tag of the page items
+     * @return json list of page items
+     */
+    static <T> ResponseEntity<List<T>> toResponse(KeysetPage<T> page, Function<List<T>, String> tagOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(tagOf.apply(page.items()));
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.next().toString());
+        }
+        return response.body(page.items());
+    }
+}
@@ -0,0 +1,140 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.service.DatabaseExecutor;
+import com.nixiedroid.petclinic.service.EntityTags;
+import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.JsonCache;
+import com.nixiedroid.petclinic.service.PetDTOService;
+import com.nixiedroid.petclinic.service.PetSearchIndex;
+import com.nixiedroid.petclinic.service.PetService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.Errors;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controller class for  <a href="/async/pets">/async/pets</a> endpoint
+ * <br>Asynchronous variant of {@link PetController}: the same requests get the same responses,
+ * but the service calls run on the {@link DatabaseExecutor} and the request thread is released meanwhile.
+ * Requests exceeding the executor queue are answered with 503.
+ * <br>Writes are handled by the same {@link PetWrites} as in {@link PetController}.
+ * Bodies are checked by bean validation on the request thread, but the owner check of {@link PetDTOService}
+ * runs on the executor: with open session in view, an owner read on the request thread would keep
+ * a connection until the response is written, and the executor threads, one per pooled connection,
+ * would wait for the pool. Hence this controller registers no {@code @InitBinder} validator.
+ *
+ * @see Pet
+ * @see PetDTO
+ */
+@RestController
+@RequestMapping("/async/pets")
+public class PetAsyncController {
+
+    private final PetService petService;
+    private final PetDTOService dtoService;
+    private final JsonCache jsonCache;
+    private final DatabaseExecutor db;
+    private final PetWrites writes;
+
+    @Autowired
+    public PetAsyncController(PetService petService, PetDTOService dtoService, ErrorMapper mapper,
+                              JsonCache jsonCache, DatabaseExecutor db) {
+        this.petService = petService;
+        this.dtoService = dtoService;
+        this.jsonCache = jsonCache;
+        this.db = db;
+        this.writes = new PetWrites(petService, mapper);
+    }
+
+    /**
+     * Listens for GET requests at <a href="/async/pets">/async/pets</a>
+     *
+     * @see PetController#getAllPets(Long, int)
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<List<PetDTO>>> getAllPets(
+            @RequestParam(defaultValue = Paging.FIRST_CURSOR) Long after,
+            @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        int size = Paging.clamp(limit);
+        return db.supply(() -> Paging.toResponse(petService.getPets(after, size), EntityTags::ofPets));
+    }
+
+    /**
+     * Listens for GET requests at <a href="/async/pets/search">/async/pets/search</a>
+     *
+     * @see PetController#searchPets(String, Long, int)
+     */
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<?>> searchPets(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = Paging.FIRST_CURSOR) Long after,
+            @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        if (q == null || PetSearchIndex.tokenize(q).isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>(Map.of("q", "Query must contain a letter or digit"), HttpStatus.BAD_REQUEST));
+        }
+        int size = Paging.clamp(limit);
+        return db.supply(() -> Paging.toResponse(petService.searchPets(q, after, size), EntityTags::ofPets));
+    }
+
+    /**
+     * Listens for GET requests at <a href="/async/pets/{id}">/async/pets/{id}</a>
+     *
+     * @see PetController#getPetById(Long, org.springframework.web.context.request.WebRequest)
+     */
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<?>> getPetById(
+            @PathVariable Long id, @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (jsonCache.isEnabled()) {
+            return db.supply(() -> Conditional.getJson(ifNoneMatch, () -> jsonCache.getPet(id)));
+        }
+        return db.supply(() -> Conditional.get(ifNoneMatch, () -> petService.getPetTag(id),
+                () -> petService.getPetById(id), EntityTags::of));
+    }
+
+    /**
+     * Listens for POST requests at <a href="/async/pets">/async/pets</a>
+     *
+     * @see PetController#createPet(PetDTO, Errors)
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<?>> createPet(@Valid @RequestBody PetDTO dto, Errors errors) {
+        return db.supply(() -> {
+            dtoService.validate(dto, errors);
+            return writes.create(dto, errors);
+        });
+    }
+
+    /**
+     * Listens for PUT requests at <a href="/async/pets/{id}">/async/pets/{id}</a>
+     *
+     * @see PetController#putPet(Long, PetDTO, Errors)
+     */
+    @PutMapping("/{id}")
+    public CompletableFuture<ResponseEntity<?>> putPet(@PathVariable Long id, @Valid @RequestBody PetDTO dto,
+                                                       Errors errors) {
+        return db.supply(() -> {
+            dtoService.validate(dto, errors);
+            return writes.put(id, dto, errors);
+        });
+    }
+
+    /**
+     * Listens for DELETE requests at <a href="/async/pets/{id}">/async/pets/{id}</a>
+     *
+     * @see PetController#deletePet(Long)
+     */
+    @DeleteMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Void>> deletePet(@PathVariable Long id) {
+        return db.supply(() -> writes.delete(id));
+    }
+}
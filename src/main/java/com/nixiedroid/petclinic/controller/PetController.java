@@ -2,8 +2,11 @@ package com.nixiedroid.petclinic.controller;
 
 import com.nixiedroid.petclinic.model.Pet;
 import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.service.EntityTags;
 import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.JsonCache;
 import com.nixiedroid.petclinic.service.PetDTOService;
+import com.nixiedroid.petclinic.service.PetSearchIndex;
 import com.nixiedroid.petclinic.service.PetService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.*;
 
@@ -27,13 +31,15 @@ public class PetController {
    
     private final PetService petService;
     private final PetDTOService dtoService;
-    private final ErrorMapper mapper;
+    private final JsonCache jsonCache;
+    private final PetWrites writes;
 
     @Autowired
-    public PetController(PetService petService, PetDTOService dtoService, ErrorMapper mapper) {
+    public PetController(PetService petService, PetDTOService dtoService, ErrorMapper mapper, JsonCache jsonCache) {
         this.petService = petService;
         this.dtoService = dtoService;
-        this.mapper = mapper;
+        this.jsonCache = jsonCache;
+        this.writes = new PetWrites(petService, mapper);
     }
 
     /**
@@ -46,24 +52,55 @@ public class PetController {
 
     /**
      * Listens for GET requests at <a href="/pets">/pets</a>
+     * <br>Results are keyset paginated, see {@link Paging}
      *
-     * @return json list of {@link Pet}
+     * @param after the id of the last pet of the previous page
+     * @param limit the maximum number of pets to return
+     * @return json list of {@link Pet} ordered by id
      */
     @GetMapping
-    public List<PetDTO> getAllPets() {
-        return petService.getAllPets();
+    public ResponseEntity<List<PetDTO>> getAllPets(
+            @RequestParam(defaultValue = Paging.FIRST_CURSOR) Long after,
+            @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        return Paging.toResponse(petService.getPets(after, Paging.clamp(limit)), EntityTags::ofPets);
     }
-    
+
+    /**
+     * Listens for GET requests at <a href="/pets/search">/pets/search</a>
+     * <br>Matches pets having, for every word of {@code q}, a word of their name or type starting with it,
+     * ignoring case
+     * <br>Results are keyset paginated, see {@link Paging}
+     *
+     * @param q the search query
+     * @param after the id of the last pet of the previous page
+     * @param limit the maximum number of pets to return
+     * @return json list of {@link Pet} ordered by id, or field error map if {@code q} has no words
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchPets(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = Paging.FIRST_CURSOR) Long after,
+            @RequestParam(defaultValue = Paging.DEFAULT_LIMIT) int limit) {
+        if (q == null || PetSearchIndex.tokenize(q).isEmpty()) {
+            return new ResponseEntity<>(Map.of("q", "Query must contain a letter or digit"), HttpStatus.BAD_REQUEST);
+        }
+        return Paging.toResponse(petService.searchPets(q, after, Paging.clamp(limit)), EntityTags::ofPets);
+    }
+
     /**
      * Listens for GET requests at <a href="/pets/{id}">/pets/{id}</a>
+     * <br>Conditional requests are answered from the pet tag, see {@link Conditional}
+     * <br>If enabled, the pet is served from its cached json, see {@link JsonCache}
      *
      * @return json object {@link Pet} if {id} exists or null
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PetDTO> getPetById(@PathVariable Long id) {
-        Optional<PetDTO> pet = petService.getPetById(id);
-        return pet.map(p -> new ResponseEntity<>(p,HttpStatus.OK))
-                .orElseGet((() -> new ResponseEntity<>(HttpStatus.NOT_FOUND)));
+    public ResponseEntity<?> getPetById(@PathVariable Long id, WebRequest request) {
+        if (jsonCache.isEnabled()) {
+            return Conditional.getJson(request, () -> jsonCache.getPet(id));
+        }
+        return Conditional.get(request, () -> petService.getPetTag(id),
+                () -> petService.getPetById(id), EntityTags::of);
     }
     
     /**
@@ -74,53 +111,32 @@ public class PetController {
      */
     @PostMapping
     public ResponseEntity<?> createPet(@Valid  @RequestBody PetDTO dto,Errors errors) {
-        if(errors.hasErrors()) {
-            return new ResponseEntity<>(mapper.apply(errors),HttpStatus.BAD_REQUEST);
-        }
-        if (dto.id() != null) {
-            if (petService.existsById(dto.id())) {
-                errors.rejectValue("id", "NULL", "Pet is already exists");
-                return new ResponseEntity<>(mapper.apply(errors),HttpStatus.BAD_REQUEST);
-            }
-        }
-        return new ResponseEntity<>(petService.savePet(dto), HttpStatus.CREATED);
+        return writes.create(dto, errors);
     }
 
     /**
      * Listens for PUT requests at <a href="/pets/{id}">/pets/{id}</a>
      * and updates Pet object if {id} found
      * or creates Pet object if not-exists
+     * <br>The pet is written by a single insert-or-update statement that also tells
+     * whether it was created, answered with 201, or updated, answered with 200
      *
      * @return newly created json object {@link Pet} on success
      */
     @PutMapping("/{id}")
     ResponseEntity<?> putPet(@PathVariable Long id,@Valid @RequestBody PetDTO dto, Errors errors) {
-        if(errors.hasErrors()) {
-            return new ResponseEntity<>(mapper.apply(errors),HttpStatus.BAD_REQUEST);
-        }
-        if (dto.id() == null) {
-            errors.rejectValue("id", "EXIST", "Id must not be null");
-            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
-        }
-        if (!Objects.equals(dto.id(), id)) {
-            errors.rejectValue("id", "MISS", "Id mismatch");
-            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
-        }
-        if (petService.existsById(id)) {
-            return new ResponseEntity<>(petService.savePet(dto), HttpStatus.OK);
-        } else return new ResponseEntity<>(petService.savePet(dto), HttpStatus.CREATED);
+        return writes.put(id, dto, errors);
     }
 
     /**
      * Listens for DELETE requests at <a href="/pets/{id}">/pets/{id}</a>
      * and deletes Pet object if {id} found
+     *
+     * @return 204 if the pet was deleted, 404 if {id} does not exist
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePet(@PathVariable Long id) {
-        if (petService.existsById(id)) {
-            petService.deletePet(id);
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-        } else return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        return writes.delete(id);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.Upserted;
+import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.PetService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.Errors;
+
+import java.util.Objects;
+
+/**
+ * Pet writes shared by {@link PetController} and {@link PetAsyncController}.
+ * <br>The body has been validated by the caller, its errors are in {@code errors};
+ * the remaining checks, the service call and the response are the same for both controllers.
+ */
+final class PetWrites {
+
+    private final PetService petService;
+    private final ErrorMapper mapper;
+
+    PetWrites(PetService petService, ErrorMapper mapper) {
+        this.petService = petService;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Creates a pet unless the body is invalid or names an existing id.
+     *
+     * @return 201 with the created pet, or 400 with the field error map
+     */
+    ResponseEntity<?> create(PetDTO dto, Errors errors) {
+        if (errors.hasErrors()) {
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        if (dto.id() != null && petService.existsById(dto.id())) {
+            errors.rejectValue("id", "NULL", "Pet is already exists");
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(petService.savePet(dto), HttpStatus.CREATED);
+    }
+
+    /**
+     * Creates or updates the pet {@code id} unless the body is invalid or carries another id.
+     *
+     * @return 201 with a created pet, 200 with an updated one, or 400 with the field error map
+     */
+    ResponseEntity<?> put(Long id, PetDTO dto, Errors errors) {
+        if (errors.hasErrors()) {
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        if (dto.id() == null) {
+            errors.rejectValue("id", "EXIST", "Id must not be null");
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        if (!Objects.equals(dto.id(), id)) {
+            errors.rejectValue("id", "MISS", "Id mismatch");
+            return new ResponseEntity<>(mapper.apply(errors), HttpStatus.BAD_REQUEST);
+        }
+        Upserted<PetDTO> saved = petService.upsertPet(dto);
+        return new ResponseEntity<>(saved.value(), saved.created() ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
+    /**
+     * Deletes the pet {@code id}.
+     *
+     * @return 204 if the pet was deleted, 404 if it does not exist
+     */
+    ResponseEntity<Void> delete(Long id) {
+        return new ResponseEntity<>(petService.deletePet(id) ? HttpStatus.NO_CONTENT : HttpStatus.NOT_FOUND);
+    }
+}
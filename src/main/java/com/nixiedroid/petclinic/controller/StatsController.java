@@ -0,0 +1,51 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.ClinicStats;
+import com.nixiedroid.petclinic.model.ExecutorStats;
+import com.nixiedroid.petclinic.service.ClinicStatsCounter;
+import com.nixiedroid.petclinic.service.DatabaseExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller class for  <a href="/stats">/stats</a> endpoint
+ *
+ * @see ClinicStats
+ * @see ClinicStatsCounter
+ */
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    private final ClinicStatsCounter statsCounter;
+    private final DatabaseExecutor db;
+
+    @Autowired
+    public StatsController(ClinicStatsCounter statsCounter, DatabaseExecutor db) {
+        this.statsCounter = statsCounter;
+        this.db = db;
+    }
+
+    /**
+     * Listens for GET requests at <a href="/stats">/stats</a>
+     *
+     * @return json object {@link ClinicStats}
+     */
+    @GetMapping
+    public ResponseEntity<ClinicStats> getStats() {
+        return ResponseEntity.ok(statsCounter.getStats());
+    }
+
+    /**
+     * Listens for GET requests at <a href="/stats/db-executor">/stats/db-executor</a>
+     *
+     * @return json object {@link ExecutorStats} of the executor of the asynchronous endpoints
+     */
+    @GetMapping("/db-executor")
+    public ResponseEntity<ExecutorStats> getDatabaseExecutorStats() {
+        return ResponseEntity.ok(db.getStats());
+    }
+}
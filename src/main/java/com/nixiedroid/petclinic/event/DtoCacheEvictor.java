@@ -0,0 +1,111 @@
+package com.nixiedroid.petclinic.event;
+
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.config.IndexedCaffeineCache;
+import com.nixiedroid.petclinic.model.JsonBody;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.PetPlain;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Evicts cached owner and pet DTOs and their serialized json affected by a write.
+ * <br>An {@link OwnerDTO} embeds its pets and a {@link PetDTO} embeds its owner,
+ * so every change evicts the entries of both kinds that contain the changed entity.
+ * Json entries list the embedded entities in {@link JsonBody#related()}.
+ * The caches index their entries by those entities, see {@link IndexedCaffeineCache}.
+ * <br>Evictions run after the writing transaction commits, so reads starting after the eviction
+ * see the new state. A read that loaded the old state before the commit may still put it after
+ * the eviction; such an entry is served until its next eviction or until it expires,
+ * see {@code spring.cache.caffeine.spec}.
+ * <br>
+ */
+@Component
+public class DtoCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Constructs a new {@link DtoCacheEvictor}.
+     *
+     * @param cacheManager the cache manager holding the DTO caches
+     */
+    @Autowired
+    public DtoCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Evicts the owner and every cached pet referring to it, which includes its deleted pets.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOwnerChanged(OwnerChanged event) {
+        evict(CacheConfig.OWNERS, event.ownerId());
+        evictRelated(CacheConfig.PETS, event.ownerId());
+        evict(CacheConfig.OWNER_JSON, event.ownerId());
+        evictRelated(CacheConfig.PET_JSON, event.ownerId());
+    }
+
+    /**
+     * Evicts the pet, its current and previous owners and every cached owner still listing it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPetChanged(PetChanged event) {
+        evict(CacheConfig.PETS, event.petId());
+        evict(CacheConfig.OWNERS, event.ownerId());
+        evict(CacheConfig.OWNERS, event.previousOwnerId());
+        evictRelated(CacheConfig.OWNERS, event.petId());
+        evict(CacheConfig.PET_JSON, event.petId());
+        evict(CacheConfig.OWNER_JSON, event.ownerId());
+        evict(CacheConfig.OWNER_JSON, event.previousOwnerId());
+        evictRelated(CacheConfig.OWNER_JSON, event.petId());
+    }
+
+    private void evict(String name, Long id) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null && id != null) {
+            cache.evict(id);
+        }
+    }
+
+    /**
+     * Evicts the entries embedding an entity.
+     * <br>Caches without an index of embedded entities are cleared.
+     */
+    private void evictRelated(String name, Long id) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache instanceof IndexedCaffeineCache indexed) {
+            indexed.keysRelatedTo(id).forEach(indexed::evict);
+        } else if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Lists the entities embedded in a cached value: the pets of an {@link OwnerDTO},
+     * the owner of a {@link PetDTO}, the related entities of a {@link JsonBody}.
+     *
+     * @param value the cached value
+     * @return the identifiers of the embedded entities
+     */
+    public static Collection<Long> relatedIds(Object value) {
+        if (value instanceof OwnerDTO owner && owner.pets() != null) {
+            return owner.pets().stream().map(PetPlain::id).filter(Objects::nonNull).toList();
+        }
+        if (value instanceof PetDTO pet && pet.owner() != null && pet.owner().id() != null) {
+            return List.of(pet.owner().id());
+        }
+        if (value instanceof JsonBody body) {
+            return body.related();
+        }
+        return List.of();
+    }
+}
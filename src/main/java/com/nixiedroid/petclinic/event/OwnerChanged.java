@@ -0,0 +1,22 @@
+package com.nixiedroid.petclinic.event;
+
+import java.util.List;
+
+/**
+ * Published when an owner is created, updated or deleted.
+ * <br>Pets deleted along with the owner, or dropped from its pet list, are not announced separately.
+ *
+ * @param ownerId  the identifier of the owner
+ * @param lastName the last name of the owner, or null if the owner was deleted
+ * @param city     the city of the owner, or null if unknown or deleted
+ * @param petIds   the identifiers of the pets the owner has after the change, or null if deleted
+ * @param deleted  true if the owner and its pets were deleted
+ */
+public record OwnerChanged(
+        Long ownerId,
+        String lastName,
+        String city,
+        List<Long> petIds,
+        boolean deleted
+) {
+}
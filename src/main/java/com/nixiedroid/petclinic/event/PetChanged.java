@@ -0,0 +1,21 @@
+package com.nixiedroid.petclinic.event;
+
+/**
+ * Published when a pet is created, updated or deleted.
+ *
+ * @param petId           the identifier of the pet
+ * @param ownerId         the identifier of the current owner of the pet, or null if unknown or deleted
+ * @param previousOwnerId the identifier of the owner before the change, or null if unknown or the pet was created
+ * @param name            the name of the pet, or null if the pet was deleted
+ * @param type            the type of the pet, or null if the pet was deleted
+ * @param deleted         true if the pet was deleted
+ */
+public record PetChanged(
+        Long petId,
+        Long ownerId,
+        Long previousOwnerId,
+        String name,
+        String type,
+        boolean deleted
+) {
+}
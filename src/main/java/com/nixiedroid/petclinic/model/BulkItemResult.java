@@ -0,0 +1,21 @@
+package com.nixiedroid.petclinic.model;
+
+import java.util.Map;
+
+/**
+ * Outcome of a single item of a bulk request.
+ * <br>Items are reported in request order; {@code status} is the HTTP status the item
+ * would have received as a standalone request.
+ *
+ * @param index  the position of the item in the request
+ * @param status the HTTP status code of the item
+ * @param id     the identifier of the created entity, or null if the item failed
+ * @param errors the field errors of a rejected item, or null if the item succeeded
+ */
+public record BulkItemResult(
+        int index,
+        int status,
+        Long id,
+        Map<String, String> errors
+) {
+}
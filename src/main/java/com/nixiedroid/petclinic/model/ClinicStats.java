@@ -0,0 +1,21 @@
+package com.nixiedroid.petclinic.model;
+
+import java.util.SortedMap;
+
+/**
+ * Counts of owners and pets for management dashboards.
+ *
+ * @param owners           the number of owners
+ * @param pets             the number of pets
+ * @param petsByType       the number of pets of each type
+ * @param ownersByCity     the number of owners in each city, owners without a city are not listed
+ * @param ownersByPetCount the number of owners having each number of pets
+ */
+public record ClinicStats(
+        long owners,
+        long pets,
+        SortedMap<String, Long> petsByType,
+        SortedMap<String, Long> ownersByCity,
+        SortedMap<Integer, Long> ownersByPetCount
+) {
+}
@@ -0,0 +1,29 @@
+package com.nixiedroid.petclinic.model;
+
+/**
+ * Load of a bounded executor for management dashboards.
+ *
+ * @param threads       the number of worker threads
+ * @param active        the number of tasks running
+ * @param queued        the number of tasks waiting for a thread
+ * @param queueCapacity the number of tasks that may wait before further ones are rejected
+ * @param completed     the number of tasks that completed normally
+ * @param failed        the number of tasks that threw an exception
+ * @param rejected      the number of tasks rejected because the queue was full
+ * @param avgWaitMillis the average time a task waited in the queue, in milliseconds
+ * @param maxWaitMillis the longest time a task waited in the queue, in milliseconds
+ * @param avgRunMillis  the average time a task ran, in milliseconds
+ */
+public record ExecutorStats(
+        int threads,
+        int active,
+        int queued,
+        int queueCapacity,
+        long completed,
+        long failed,
+        long rejected,
+        double avgWaitMillis,
+        double maxWaitMillis,
+        double avgRunMillis
+) {
+}
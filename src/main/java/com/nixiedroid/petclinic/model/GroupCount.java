@@ -0,0 +1,13 @@
+package com.nixiedroid.petclinic.model;
+
+/**
+ * Number of rows sharing a value, as read by a {@code GROUP BY} query.
+ *
+ * @param key   the grouped value
+ * @param count the number of rows with that value
+ */
+public record GroupCount(
+        Object key,
+        Long count
+) {
+}
@@ -0,0 +1,18 @@
+package com.nixiedroid.petclinic.model;
+
+import java.util.Set;
+
+/**
+ * Serialized json representation of a single resource, ready to be written to a response.
+ *
+ * @param json    the UTF-8 encoded json
+ * @param tag     the entity tag of the representation
+ * @param related the identifiers of the related entities embedded in the representation:
+ *                the pets of an owner, the owner of a pet
+ */
+public record JsonBody(
+        byte[] json,
+        String tag,
+        Set<Long> related
+) {
+}
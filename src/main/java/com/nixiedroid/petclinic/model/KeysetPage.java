@@ -0,0 +1,45 @@
+package com.nixiedroid.petclinic.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single page of a keyset (cursor) paginated listing.
+ * <br>Items are ordered by id; {@code next} is the id to pass as the {@code after} cursor
+ * to fetch the following page, or null if this is the last page.
+ *
+ * @param items the items of this page
+ * @param next  the cursor of the following page, or null if there is none
+ * @param <T>   the item type
+ */
+public record KeysetPage<T>(
+        List<T> items,
+        Long next
+) {
+    /**
+     * Builds a page from a window fetched with one extra row.
+     * <br>The extra row is only used to detect whether a following page exists and is not returned.
+     *
+     * @param window the rows fetched with a limit of {@code limit + 1}
+     * @param limit  the requested page size
+     * @param idOf   extracts the keyset id from an item
+     * @return the resulting page
+     */
+    public static <T> KeysetPage<T> of(List<T> window, int limit, Function<T, Long> idOf) {
+        if (window.size() <= limit) {
+            return new KeysetPage<>(window, null);
+        }
+        List<T> items = window.subList(0, limit);
+        return new KeysetPage<>(items, idOf.apply(items.get(limit - 1)));
+    }
+
+    /**
+     * Converts the items of this page, keeping the cursor.
+     *
+     * @param mapper the item conversion function
+     * @return the converted page
+     */
+    public <R> KeysetPage<R> map(Function<T, R> mapper) {
+        return new KeysetPage<>(items.stream().map(mapper).toList(), next);
+    }
+}
@@ -2,6 +2,8 @@ package com.nixiedroid.petclinic.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +14,7 @@ import java.util.List;
  *
  * <p>This entity is used to store information about owners, including their personal details and
  * the pets they own. It is mapped to the "owners" table in the "site" schema.
+ * Owners are kept in the second-level cache, see {@code ehcache.xml}.
  * </p>
  *
  */
@@ -21,13 +24,18 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "owners",schema = "site")
 public class Owner {
     /**
      * The unique identifier of the owner.
+     * <br>Allocated in blocks from the "owners_seq" sequence, so inserts can be batched.
+     * The block size follows the sequence increment.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "owners_seq")
+    @SequenceGenerator(name = "owners_seq", schema = "site", sequenceName = "owners_seq")
     private Long id;
 
     /**
@@ -65,13 +73,24 @@ public class Owner {
     @Column(name = "telephone", length = 20)
     private String telephone;
 
+    /**
+     * The version of the owner.<br>
+     * Incremented by every update and used for optimistic locking and entity tags.
+     * It is null until the owner is persisted.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 
     /**
      * The list of pets owned by this owner.<br>
      *  It is initialized to an empty list by default and managed using a {@link OneToMany}
-     * relationship with cascade operations and orphan removal enabled.
+     * relationship with cascade operations and orphan removal enabled.<br>
+     * The pet identifiers are kept in the second-level cache.
      */
     @EqualsAndHashCode.Exclude
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @Builder.Default
     @Setter(AccessLevel.NONE)
     @OneToMany(
@@ -1,5 +1,7 @@
 package com.nixiedroid.petclinic.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.annotation.Nonnull;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
@@ -8,6 +10,7 @@ import java.util.List;
 /**
  * Data Transfer Object (DTO) representing an owner.
  * <br>This record encapsulates owner data for use in communication between different layers of the application.
+ * <br>The {@code version} of the owner is not serialized, it only backs the entity tag of the representation.
  */
 @Builder
 public record OwnerDTO(
@@ -21,5 +24,26 @@ public record OwnerDTO(
         String address,
         String city,
         String telephone,
-        List<PetPlain> pets
-) {}
+        List<PetPlain> pets,
+        @JsonIgnore
+        Long version
+) {
+    /**
+     * Creates an {@link OwnerDTO} instance from an {@link Owner} entity.
+     *
+     * @param o the {@link Owner} entity to create the {@link OwnerDTO} from
+     * @return the created {@link OwnerDTO} instance
+     */
+    public static OwnerDTO create(@Nonnull Owner o) {
+        return OwnerDTO.builder()
+                .id(o.getId())
+                .firstName(o.getFirstName())
+                .lastName(o.getLastName())
+                .address(o.getAddress())
+                .city(o.getCity())
+                .telephone(o.getTelephone())
+                .pets(PetPlain.create(o.getPets()))
+                .version(o.getVersion())
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.nixiedroid.petclinic.model;
+
+/**
+ * Identifier and last name of an owner, as read to build the last name index.
+ *
+ * @param id       the identifier of the owner
+ * @param lastName the last name of the owner
+ */
+public record OwnerName(
+        Long id,
+        String lastName
+) {
+}
@@ -1,5 +1,6 @@
 package com.nixiedroid.petclinic.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.annotation.Nonnull;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -8,6 +9,7 @@ import lombok.Builder;
 /**
  * Plain representation of an owner.
  * <br>This record provides a simplified view of owner data without pets
+ * <br>The {@code version} of the owner is not serialized, it only backs entity tags.
  */
 @Builder
 public record OwnerPlain(
@@ -20,7 +22,9 @@ public record OwnerPlain(
         String lastName,
         String address,
         String city,
-        String telephone
+        String telephone,
+        @JsonIgnore
+        Long version
 ) {
     /**
      * Creates an {@link OwnerPlain} instance from an {@link Owner} entity.
@@ -36,6 +40,7 @@ public record OwnerPlain(
                 .address(o.getAddress())
                 .city(o.getCity())
                 .telephone(o.getTelephone())
+                .version(o.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,13 @@
+package com.nixiedroid.petclinic.model;
+
+/**
+ * Identifier and city of an owner, as read to build the clinic statistics.
+ *
+ * @param id   the identifier of the owner
+ * @param city the city of the owner, or null if unknown
+ */
+public record OwnerStatsRow(
+        Long id,
+        String city
+) {
+}
@@ -2,6 +2,8 @@ package com.nixiedroid.petclinic.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
@@ -10,6 +12,7 @@ import java.time.LocalDate;
  *<br>
  *This entity is used to store information about pets, including their name, birthdate,
  * type, and the owner to whom they belong. It is mapped to the "pets" table in the "site" schema.
+ * Pets are kept in the second-level cache, see {@code ehcache.xml}.
  */
 @SuppressWarnings("JpaDataSourceORMInspection")
 @Data
@@ -17,13 +20,18 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "pets",schema = "site")
 public class Pet {
     /**
      * The unique identifier of the pet.
+     * <br>Allocated in blocks from the "pets_seq" sequence, so inserts can be batched.
+     * The block size follows the sequence increment.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pets_seq")
+    @SequenceGenerator(name = "pets_seq", schema = "site", sequenceName = "pets_seq")
     private Long id;
 
     /**
@@ -47,6 +55,15 @@ public class Pet {
     @Column(name = "type", nullable = false, length = 30)
     private String type;
 
+    /**
+     * The version of the pet.
+     * <br>Incremented by every update and used for optimistic locking and entity tags.
+     * It is null until the pet is persisted.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * The owner of the pet.
      * <br>It is managed using a {@link ManyToOne} relationship with cascade operations for persist,
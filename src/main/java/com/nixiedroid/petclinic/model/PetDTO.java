@@ -1,5 +1,7 @@
 package com.nixiedroid.petclinic.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.annotation.Nonnull;
 import lombok.Builder;
 
 import java.time.LocalDate;
@@ -7,6 +9,7 @@ import java.time.LocalDate;
 /**
  * Data Transfer Object (DTO) representing a pet.
  * <br>This record encapsulates pet data for use in communication between different layers of the application.
+ * <br>The {@code version} of the pet is not serialized, it only backs the entity tag of the representation.
  */
 @Builder
 public record PetDTO(
@@ -14,6 +17,37 @@ public record PetDTO(
         String name,
         LocalDate birthDate,
         String type,
-        OwnerPlain owner
+        OwnerPlain owner,
+        @JsonIgnore
+        Long version
 ) {
+    /**
+     * Creates a {@link PetDTO} from a flat row of pet and owner columns.
+     * <br>Used by constructor expressions of projection queries, which cannot build the nested {@link OwnerPlain}.
+     * The owner is null if {@code ownerId} is null.
+     */
+    public PetDTO(Long id, String name, LocalDate birthDate, String type, Long version,
+                  Long ownerId, String ownerFirstName, String ownerLastName,
+                  String ownerAddress, String ownerCity, String ownerTelephone, Long ownerVersion) {
+        this(id, name, birthDate, type, ownerId == null ? null : new OwnerPlain(
+                ownerId, ownerFirstName, ownerLastName, ownerAddress, ownerCity, ownerTelephone, ownerVersion),
+                version);
+    }
+
+    /**
+     * Creates a {@link PetDTO} instance from a {@link Pet} entity.
+     *
+     * @param p the {@link Pet} entity to create the {@link PetDTO} from
+     * @return the created {@link PetDTO} instance
+     */
+    public static PetDTO create(@Nonnull Pet p) {
+        return PetDTO.builder()
+                .id(p.getId())
+                .name(p.getName())
+                .birthDate(p.getBirthDate())
+                .type(p.getType())
+                .owner(OwnerPlain.create(p.getOwner()))
+                .version(p.getVersion())
+                .build();
+    }
 }
@@ -1,5 +1,6 @@
 package com.nixiedroid.petclinic.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.annotation.Nonnull;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -11,6 +12,7 @@ import java.util.stream.Collectors;
 /**
  * Plain representation of a pet.
  * <br>This record provides a simplified view of pet data without owner information
+ * <br>The {@code version} of the pet is not serialized, it only backs entity tags.
  */
 public record PetPlain(
         Long id,
@@ -18,7 +20,9 @@ public record PetPlain(
         @Size(min = 1, message = "Pet name must be at least 3 characters long")
         String name,
         LocalDate birthDate,
-        String type
+        String type,
+        @JsonIgnore
+        Long version
 ) {
         /**
          * Creates a list of {@link PetPlain} instances from a list of {@link Pet} entities.
@@ -31,7 +35,8 @@ public record PetPlain(
                         pet.getId(),
                         pet.getName(),
                         pet.getBirthDate(),
-                        pet.getType()
+                        pet.getType(),
+                        pet.getVersion()
                 )).collect(Collectors.toList());
         }
 }
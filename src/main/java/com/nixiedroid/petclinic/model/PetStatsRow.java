@@ -0,0 +1,15 @@
+package com.nixiedroid.petclinic.model;
+
+/**
+ * Identifier, owner and type of a pet, as read to build the clinic statistics.
+ *
+ * @param id      the identifier of the pet
+ * @param ownerId the identifier of the owner of the pet, or null if it has none
+ * @param type    the type of the pet
+ */
+public record PetStatsRow(
+        Long id,
+        Long ownerId,
+        String type
+) {
+}
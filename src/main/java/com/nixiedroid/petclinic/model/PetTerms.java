@@ -0,0 +1,63 @@
+package com.nixiedroid.petclinic.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Identifier, name and type of a pet, as read to build the pet search index.
+ * <br>Also holds the rules pet searches share: how texts are split into words and when a word matches a term.
+ *
+ * @param id   the identifier of the pet
+ * @param name the name of the pet
+ * @param type the type of the pet
+ */
+public record PetTerms(
+        Long id,
+        String name,
+        String type
+) {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Splits texts into lower case words of letters and digits.
+     * <br>Pet names and types are indexed this way, and queries are split the same way, each word becoming a term.
+     *
+     * @param texts the texts, null texts are skipped
+     * @return the distinct words, in order of appearance
+     */
+    public static List<String> tokenize(String... texts) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String word : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Tells whether every term is the start of one of the words.
+     *
+     * @param words the words of a pet, see {@link #tokenize(String...)}
+     * @param terms the terms of a query
+     * @return true if each term starts some word
+     */
+    public static boolean matchesAll(Collection<String> words, Collection<String> terms) {
+        for (String term : terms) {
+            if (words.stream().noneMatch(w -> w.startsWith(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
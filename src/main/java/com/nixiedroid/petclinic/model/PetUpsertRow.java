@@ -0,0 +1,13 @@
+package com.nixiedroid.petclinic.model;
+
+/**
+ * Identifier of a pet written by an insert-or-update, and the owner it had before the write.
+ *
+ * @param id              the identifier of the stored pet
+ * @param previousOwnerId the identifier of the owner before the write, or null if the pet was created
+ */
+public record PetUpsertRow(
+        Long id,
+        Long previousOwnerId
+) {
+}
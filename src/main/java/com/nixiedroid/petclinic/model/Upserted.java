@@ -0,0 +1,25 @@
+package com.nixiedroid.petclinic.model;
+
+import java.util.function.Function;
+
+/**
+ * Result of an insert-or-update of a single row.
+ *
+ * @param value   the stored value, such as its identifier or DTO
+ * @param created true if a new row was inserted, false if an existing row was updated
+ * @param <T>     the value type
+ */
+public record Upserted<T>(
+        T value,
+        boolean created
+) {
+    /**
+     * Converts the value, keeping the outcome.
+     *
+     * @param mapper the value conversion function
+     * @return the converted result
+     */
+    public <R> Upserted<R> map(Function<T, R> mapper) {
+        return new Upserted<>(mapper.apply(value), created);
+    }
+}
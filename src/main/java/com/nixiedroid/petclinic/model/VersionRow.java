@@ -0,0 +1,19 @@
+package com.nixiedroid.petclinic.model;
+
+/**
+ * Versions of an entity and of one related entity, as read by version-only queries.
+ * <br>An owner yields one row per pet, a pet yields one row with its owner.
+ * The related columns are null if there is no related entity.
+ *
+ * @param id             the identifier of the entity
+ * @param version        the version of the entity
+ * @param relatedId      the identifier of the related entity, or null
+ * @param relatedVersion the version of the related entity, or null
+ */
+public record VersionRow(
+        Long id,
+        Long version,
+        Long relatedId,
+        Long relatedVersion
+) {
+}
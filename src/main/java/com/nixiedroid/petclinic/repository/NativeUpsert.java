@@ -0,0 +1,87 @@
+package com.nixiedroid.petclinic.repository;
+
+import com.nixiedroid.petclinic.model.Upserted;
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.BasicTypeReference;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.function.Function;
+
+/**
+ * Runs a single-statement insert-or-update and reports whether a row was created.
+ * <br>On PostgreSQL the statement is an {@code INSERT ... ON CONFLICT DO UPDATE} returning
+ * the identifier and {@code xmax = 0}, which only holds for freshly inserted rows.
+ * <br>On H2 the statement is a {@code MERGE} read through {@code FINAL TABLE}, returning the identifier
+ * and {@code version = 0}: inserted rows start at version 0 and every update increments it.
+ * <br>Both variants insert missing rows under a new sequence identifier, never under the requested one,
+ * so client chosen identifiers cannot collide with identifiers allocated later.
+ * <br>Statements may return further columns after these two, see {@link Statement#execute(Function)}.
+ * <br>
+ */
+final class NativeUpsert {
+
+    private final EntityManager entityManager;
+    private final String sql;
+
+    /**
+     * @param entityManager the entity manager running the statement in the current transaction
+     * @param postgresSql   the PostgreSQL statement, returning the identifier and the created flag
+     * @param h2Sql         the H2 statement, returning the identifier and the created flag
+     */
+    NativeUpsert(EntityManager entityManager, String postgresSql, String h2Sql) {
+        this.entityManager = entityManager;
+        boolean postgres = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+        this.sql = postgres ? postgresSql : h2Sql;
+    }
+
+    /**
+     * Starts a statement for the row with the given identifier.
+     */
+    Statement of(Long id) {
+        return new Statement(id);
+    }
+
+    final class Statement {
+
+        private final NativeQuery<?> query;
+
+        private Statement(Long id) {
+            this.query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+            this.query.setParameter("id", id, StandardBasicTypes.LONG);
+        }
+
+        /**
+         * Binds a column value; the type is given explicitly so null values bind on every database.
+         */
+        <T> Statement bind(String name, T value, BasicTypeReference<T> type) {
+            query.setParameter(name, value, type);
+            return this;
+        }
+
+        /**
+         * Executes the statement in one round trip.
+         *
+         * @return the identifier of the stored row and whether it was created
+         */
+        Upserted<Long> execute() {
+            return execute(row -> ((Number) row[0]).longValue());
+        }
+
+        /**
+         * Executes the statement in one round trip, reading the stored value from the returned row.
+         *
+         * @param value reads the value from the returned columns, the identifier being the first one
+         * @return the stored value and whether the row was created
+         */
+        <T> Upserted<T> execute(Function<Object[], T> value) {
+            Object[] row = (Object[]) query.getSingleResult();
+            return new Upserted<>(value.apply(row), (Boolean) row[1]);
+        }
+    }
+}
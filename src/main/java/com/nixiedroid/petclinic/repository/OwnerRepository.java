@@ -1,11 +1,25 @@
 package com.nixiedroid.petclinic.repository;
 
+import com.nixiedroid.petclinic.model.GroupCount;
 import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.OwnerName;
+import com.nixiedroid.petclinic.model.OwnerStatsRow;
+import com.nixiedroid.petclinic.model.VersionRow;
 import jakarta.annotation.Nonnull;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.ListCrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Owner} entities.
@@ -18,7 +32,18 @@ import java.util.Optional;
  * </ul>
  */
 @Repository
-public interface OwnerRepository extends ListCrudRepository<Owner, Long> {
+public interface OwnerRepository extends ListCrudRepository<Owner, Long>, OwnerUpsertRepository {
+
+    /**
+     * Finds all {@link Owner} entities together with their pets.
+     * <br>Pets are fetched by the same query, so no additional query is issued per owner.
+     *
+     * @return the list of all {@link Owner} entities
+     */
+    @Override
+    @Nonnull
+    @EntityGraph(attributePaths = "pets")
+    List<Owner> findAll();
 
     /**
      * Finds an {@link Owner} by its unique identifier.
@@ -29,8 +54,19 @@ public interface OwnerRepository extends ListCrudRepository<Owner, Long> {
      * @param id the unique identifier of the owner
      * @return an Optional containing the found {@link Owner}, or empty if no owner is found
      */
+    @EntityGraph(attributePaths = "pets")
     Optional<Owner> findDistinctById(Long id);
 
+    /**
+     * Finds the versions of an {@link Owner} and of its pets, without loading any entity.
+     *
+     * @param id the unique identifier of the owner
+     * @return one row per pet, a single row without pet if the owner has none, or an empty list if no owner is found
+     */
+    @Query("select new com.nixiedroid.petclinic.model.VersionRow(o.id, o.version, p.id, p.version) " +
+            "from Owner o left join o.pets p where o.id = :id")
+    List<VersionRow> findVersionsById(Long id);
+
     /**
      * Checks if an {@link Owner} exists by its unique identifier.
      * <br>
@@ -40,4 +76,113 @@ public interface OwnerRepository extends ListCrudRepository<Owner, Long> {
      * @return true if an owner with the specified ID exists, false otherwise
      */
     boolean existsById(@Nonnull Long id);
-}
\ No newline at end of file
+
+    /**
+     * Deletes the {@link Owner} with the given identifier with a single statement.
+     * <br>The entity is not loaded first. Pets are removed by the database through {@code ON DELETE CASCADE}.
+     *
+     * @param id the unique identifier of the owner
+     * @return the number of deleted rows, 0 if no owner has the given identifier
+     */
+    @Modifying
+    @Query("delete from Owner o where o.id = :id")
+    int deleteRowById(Long id);
+
+    /**
+     * Finds which of the given identifiers belong to existing owners.
+     *
+     * @param ids the identifiers to check
+     * @return the list of identifiers of existing owners
+     */
+    @Query("select o.id from Owner o where o.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    /**
+     * Finds a keyset page of {@link Owner} identifiers.
+     * <br>Returns at most {@code limit} ids greater than {@code after}, in ascending order.
+     * <br>Pagination is done on ids only, as limiting a query that fetches a collection
+     * would have to be applied in memory.
+     *
+     * @param after the id of the last owner of the previous page
+     * @param limit the maximum number of ids to return
+     * @return the list of found ids
+     */
+    @Query("select o.id from Owner o where o.id > :after order by o.id")
+    List<Long> findIdsAfter(Long after, Limit limit);
+
+    /**
+     * Finds the {@link Owner} entities with the given identifiers together with their pets.
+     *
+     * @param ids the identifiers of the owners
+     * @return the list of found {@link Owner} entities ordered by id
+     */
+    @EntityGraph(attributePaths = "pets")
+    List<Owner> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    /**
+     * Streams all {@link Owner} entities together with their pets.
+     * <br>Rows are fetched from an open cursor {@link RepositoryHints#STREAM_FETCH_SIZE} at a time
+     * and grouped into owners as they arrive, which requires the ordering by id.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @return the stream of all {@link Owner} entities ordered by id
+     */
+    @EntityGraph(attributePaths = "pets")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RepositoryHints.STREAM_FETCH_SIZE))
+    @Query("select o from Owner o order by o.id")
+    Stream<Owner> streamAll();
+
+    /**
+     * Streams the identifiers and last names of all owners.
+     * <br>Rows are fetched from an open cursor {@link RepositoryHints#STREAM_FETCH_SIZE} at a time.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @return the stream of all owner names
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RepositoryHints.STREAM_FETCH_SIZE))
+    @Query("select new com.nixiedroid.petclinic.model.OwnerName(o.id, o.lastName) from Owner o")
+    Stream<OwnerName> streamNames();
+
+    /**
+     * Finds the identifiers of the owners whose lower case last name matches a {@code LIKE} pattern.
+     * <br>Served by the index on the generated {@code last_name_key} column, a prefix pattern
+     * reads a single index range that is already in result order.
+     *
+     * @param pattern the {@code LIKE} pattern on the lower case last name, escaped with {@code \}
+     * @param limit   the maximum number of ids to return
+     * @return the list of found ids ordered by lower case last name, then id
+     */
+    @Query(value = "select id from site.owners where last_name_key like :pattern escape '\\' " +
+            "order by last_name_key, id", nativeQuery = true)
+    List<Long> findIdsByLastNameKeyLike(String pattern, Limit limit);
+
+    /**
+     * Counts the owners in each city, owners without a city are skipped.
+     *
+     * @return one {@link GroupCount} per city
+     */
+    @Query("select new com.nixiedroid.petclinic.model.GroupCount(o.city, count(o)) from Owner o " +
+            "where o.city is not null group by o.city")
+    List<GroupCount> countByCity();
+
+    /**
+     * Counts the owners having each number of pets.
+     *
+     * @return one {@link GroupCount} per number of pets, owners without pets included
+     */
+    @Query("select new com.nixiedroid.petclinic.model.GroupCount(t.pets, count(*)) " +
+            "from (select count(p.id) as pets from Owner o left join o.pets p group by o.id) t " +
+            "group by t.pets")
+    List<GroupCount> countByPetCount();
+
+    /**
+     * Streams the identifier and city of all owners.
+     * <br>Rows are fetched from an open cursor {@link RepositoryHints#STREAM_FETCH_SIZE} at a time.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @return the stream of {@link OwnerStatsRow} projections
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RepositoryHints.STREAM_FETCH_SIZE))
+    @Query("select new com.nixiedroid.petclinic.model.OwnerStatsRow(o.id, o.city) from Owner o")
+    Stream<OwnerStatsRow> streamStatsRows();
+}
@@ -0,0 +1,24 @@
+package com.nixiedroid.petclinic.repository;
+
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.Upserted;
+import jakarta.annotation.Nonnull;
+
+/**
+ * Repository fragment writing an {@link Owner} with a single insert-or-update statement.
+ *
+ * @see OwnerRepository
+ */
+public interface OwnerUpsertRepository {
+
+    /**
+     * Updates the owner with the given identifier, or inserts it under a new identifier if it does not exist.
+     * <br>Only the owner row is written, by one statement, without reading it first and without loading the entity.
+     * Pets are left untouched.
+     *
+     * @param id    the identifier of the owner to update
+     * @param owner the column values
+     * @return the identifier of the stored owner and whether it was created
+     */
+    Upserted<Long> upsert(@Nonnull Long id, @Nonnull Owner owner);
+}
@@ -0,0 +1,56 @@
+package com.nixiedroid.petclinic.repository;
+
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.Upserted;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.EntityManager;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Implementation of {@link OwnerUpsertRepository}.
+ *
+ * @see NativeUpsert
+ */
+class OwnerUpsertRepositoryImpl implements OwnerUpsertRepository {
+
+    private static final String POSTGRES = """
+            INSERT INTO site.owners (id, first_name, last_name, address, city, telephone)
+            VALUES (COALESCE((SELECT id FROM site.owners WHERE id = :id), nextval('site.owners_seq')),
+                    :firstName, :lastName, :address, :city, :telephone)
+            ON CONFLICT (id) DO UPDATE SET first_name = EXCLUDED.first_name, last_name = EXCLUDED.last_name,
+                    address = EXCLUDED.address, city = EXCLUDED.city, telephone = EXCLUDED.telephone,
+                    version = owners.version + 1
+            RETURNING id, (xmax = 0)""";
+
+    private static final String H2 = """
+            SELECT id, version = 0 FROM FINAL TABLE (
+                MERGE INTO site.owners t
+                USING (VALUES (CAST(:id AS BIGINT), CAST(:firstName AS VARCHAR(50)), CAST(:lastName AS VARCHAR(50)),
+                               CAST(:address AS VARCHAR(100)), CAST(:city AS VARCHAR(50)),
+                               CAST(:telephone AS VARCHAR(20))))
+                      s (id, first_name, last_name, address, city, telephone)
+                ON t.id = s.id
+                WHEN MATCHED THEN UPDATE SET first_name = s.first_name, last_name = s.last_name,
+                        address = s.address, city = s.city, telephone = s.telephone, version = t.version + 1
+                WHEN NOT MATCHED THEN INSERT (first_name, last_name, address, city, telephone)
+                        VALUES (s.first_name, s.last_name, s.address, s.city, s.telephone))""";
+
+    private final NativeUpsert upsert;
+
+    @Autowired
+    OwnerUpsertRepositoryImpl(EntityManager entityManager) {
+        this.upsert = new NativeUpsert(entityManager, POSTGRES, H2);
+    }
+
+    @Override
+    public Upserted<Long> upsert(@Nonnull Long id, @Nonnull Owner owner) {
+        return upsert.of(id)
+                .bind("firstName", owner.getFirstName(), StandardBasicTypes.STRING)
+                .bind("lastName", owner.getLastName(), StandardBasicTypes.STRING)
+                .bind("address", owner.getAddress(), StandardBasicTypes.STRING)
+                .bind("city", owner.getCity(), StandardBasicTypes.STRING)
+                .bind("telephone", owner.getTelephone(), StandardBasicTypes.STRING)
+                .execute();
+    }
+}
@@ -0,0 +1,41 @@
+package com.nixiedroid.petclinic.repository;
+
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetDTO;
+import jakarta.annotation.Nonnull;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository fragment loading {@link Pet} entities through the caches
+ * and searching pets by the words of their name and type.
+ *
+ * @see PetRepository
+ */
+public interface PetLookupRepository {
+
+    /**
+     * Loads the pets with the given identifiers.
+     * <br>Pets found in the persistence context or in the second-level cache are not read again;
+     * the remaining ones are read with a single {@code IN} query.
+     *
+     * @param ids the identifiers of the pets
+     * @return the found pets, in no particular order; missing identifiers are skipped
+     */
+    List<Pet> loadAllById(@Nonnull Collection<Long> ids);
+
+    /**
+     * Finds a keyset page of pets matching every given term as {@link PetDTO} projections.
+     * <br>A term matches a pet if a word of its name or type starts with the term, words being split
+     * by {@link com.nixiedroid.petclinic.model.PetTerms#tokenize} as in the pet search index.
+     * Rows containing every term are read with {@code LIKE} patterns, which no index can serve,
+     * and their words are checked afterwards, reading further rows until the page is full.
+     *
+     * @param terms the lower case terms, containing letters and digits only
+     * @param after the id of the last pet of the previous page
+     * @param limit the maximum number of pets to return
+     * @return the list of found {@link PetDTO} projections ordered by id
+     */
+    List<PetDTO> findDtosMatching(@Nonnull List<String> terms, @Nonnull Long after, int limit);
+}
@@ -0,0 +1,70 @@
+package com.nixiedroid.petclinic.repository;
+
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.PetTerms;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Implementation of {@link PetLookupRepository}.
+ */
+class PetLookupRepositoryImpl implements PetLookupRepository {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    PetLookupRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Pet> loadAllById(@Nonnull Collection<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Pet.class)
+                .enableSessionCheck(true)
+                .multiLoad(List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public List<PetDTO> findDtosMatching(@Nonnull List<String> terms, @Nonnull Long after, int limit) {
+        StringBuilder jpql = new StringBuilder(PetRepository.PET_DTO).append("where p.id > :after");
+        for (int i = 0; i < terms.size(); i++) {
+            jpql.append(" and (lower(p.name) like :term").append(i)
+                    .append(" or lower(p.type) like :term").append(i).append(')');
+        }
+        jpql.append(" order by p.id");
+        List<PetDTO> found = new ArrayList<>(Math.min(limit, 64));
+        Long from = after;
+        while (found.size() < limit) {
+            TypedQuery<PetDTO> query = entityManager.createQuery(jpql.toString(), PetDTO.class)
+                    .setParameter("after", from)
+                    .setMaxResults(limit);
+            for (int i = 0; i < terms.size(); i++) {
+                query.setParameter("term" + i, "%" + terms.get(i) + "%");
+            }
+            List<PetDTO> rows = query.getResultList();
+            for (PetDTO pet : rows) {
+                if (found.size() < limit && PetTerms.matchesAll(PetTerms.tokenize(pet.name(), pet.type()), terms)) {
+                    found.add(pet);
+                }
+            }
+            if (rows.size() < limit) {
+                break;
+            }
+            from = rows.get(rows.size() - 1).id();
+        }
+        return found;
+    }
+}
@@ -1,11 +1,25 @@
 package com.nixiedroid.petclinic.repository;
 
+import com.nixiedroid.petclinic.model.GroupCount;
 import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.PetStatsRow;
+import com.nixiedroid.petclinic.model.PetTerms;
+import com.nixiedroid.petclinic.model.VersionRow;
 import jakarta.annotation.Nonnull;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.ListCrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Pet} entities.
@@ -18,7 +32,7 @@ import java.util.Optional;
  * </ul>
  */
 @Repository
-public interface PetRepository extends ListCrudRepository<Pet, Long> {
+public interface PetRepository extends ListCrudRepository<Pet, Long>, PetUpsertRepository, PetLookupRepository {
 
     /**
      * Finds a {@link Pet} by its unique identifier.
@@ -30,6 +44,16 @@ public interface PetRepository extends ListCrudRepository<Pet, Long> {
      */
     Optional<Pet> findDistinctById(Long id);
 
+    /**
+     * Finds the versions of a {@link Pet} and of its owner, without loading any entity.
+     *
+     * @param id the unique identifier of the pet
+     * @return an Optional containing the versions, or empty if no pet is found
+     */
+    @Query("select new com.nixiedroid.petclinic.model.VersionRow(p.id, p.version, o.id, o.version) " +
+            "from Pet p left join p.owner o where p.id = :id")
+    Optional<VersionRow> findVersionsById(Long id);
+
     /**
      * Checks if a {@link Pet} exists by its unique identifier.
      * <br>This method returns true if a pet with the specified ID exists, false otherwise.
@@ -38,4 +62,131 @@ public interface PetRepository extends ListCrudRepository<Pet, Long> {
      * @return true if a pet with the specified ID exists, false otherwise
      */
     boolean existsById(@Nonnull Long id);
-}
\ No newline at end of file
+
+    /**
+     * Deletes the {@link Pet} with the given identifier with a single statement.
+     * <br>The entity is not loaded first.
+     *
+     * @param id the unique identifier of the pet
+     * @return the number of deleted rows, 0 if no pet has the given identifier
+     */
+    @Modifying
+    @Query("delete from Pet p where p.id = :id")
+    int deleteRowById(Long id);
+
+    /**
+     * Finds the pets of an owner.
+     *
+     * @param ownerId the unique identifier of the owner
+     * @return the list of pets of the owner ordered by id
+     */
+    List<Pet> findByOwnerIdOrderById(Long ownerId);
+
+    /**
+     * Deletes the pets of an owner, except the given ones, with a single statement.
+     *
+     * @param ownerId the unique identifier of the owner
+     * @param keep    the identifiers of the pets to keep, must not be empty
+     * @return the number of deleted pets
+     */
+    @Modifying
+    @Query("delete from Pet p where p.owner.id = :ownerId and p.id not in :keep")
+    int deleteByOwnerIdExcept(Long ownerId, Collection<Long> keep);
+
+    /**
+     * Deletes all pets of an owner with a single statement.
+     *
+     * @param ownerId the unique identifier of the owner
+     * @return the number of deleted pets
+     */
+    @Modifying
+    @Query("delete from Pet p where p.owner.id = :ownerId")
+    int deleteByOwnerId(Long ownerId);
+
+    /**
+     * Projection of a pet joined with its owner into a {@link PetDTO}.
+     * <br>Rows are read as plain values: no managed entity, proxy or dirty-checking snapshot is created.
+     */
+    String PET_DTO = "select new com.nixiedroid.petclinic.model.PetDTO(" +
+            "p.id, p.name, p.birthDate, p.type, p.version, " +
+            "o.id, o.firstName, o.lastName, o.address, o.city, o.telephone, o.version) " +
+            "from Pet p left join p.owner o ";
+
+    /**
+     * Finds all pets as {@link PetDTO} projections.
+     *
+     * @return the list of all pets ordered by id
+     */
+    @Query(PET_DTO + "order by p.id")
+    List<PetDTO> findAllDtos();
+
+    /**
+     * Finds a pet by its unique identifier as a {@link PetDTO} projection.
+     *
+     * @param id the unique identifier of the pet
+     * @return an Optional containing the found {@link PetDTO}, or empty if no pet is found
+     */
+    @Query(PET_DTO + "where p.id = :id")
+    Optional<PetDTO> findDtoById(Long id);
+
+    /**
+     * Finds the pets with the given identifiers as {@link PetDTO} projections.
+     *
+     * @param ids the identifiers of the pets
+     * @return the list of found {@link PetDTO} projections ordered by id
+     */
+    @Query(PET_DTO + "where p.id in :ids order by p.id")
+    List<PetDTO> findDtosByIdIn(Collection<Long> ids);
+
+    /**
+     * Finds a keyset page of pets as {@link PetDTO} projections.
+     * <br>Returns at most {@code limit} pets with an id greater than {@code after}, ordered by id.
+     *
+     * @param after the id of the last pet of the previous page
+     * @param limit the maximum number of pets to return
+     * @return the list of found {@link PetDTO} projections
+     */
+    @Query(PET_DTO + "where p.id > :after order by p.id")
+    List<PetDTO> findDtosAfter(Long after, Limit limit);
+
+    /**
+     * Streams all pets as {@link PetDTO} projections.
+     * <br>Rows are fetched from an open cursor {@link RepositoryHints#STREAM_FETCH_SIZE} at a time.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @return the stream of all pets ordered by id
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RepositoryHints.STREAM_FETCH_SIZE))
+    @Query(PET_DTO + "order by p.id")
+    Stream<PetDTO> streamAllDtos();
+
+    /**
+     * Streams the identifier, name and type of all pets.
+     * <br>Rows are fetched from an open cursor {@link RepositoryHints#STREAM_FETCH_SIZE} at a time.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @return the stream of {@link PetTerms} projections
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RepositoryHints.STREAM_FETCH_SIZE))
+    @Query("select new com.nixiedroid.petclinic.model.PetTerms(p.id, p.name, p.type) from Pet p")
+    Stream<PetTerms> streamTerms();
+
+    /**
+     * Counts the pets of each type.
+     *
+     * @return one {@link GroupCount} per type
+     */
+    @Query("select new com.nixiedroid.petclinic.model.GroupCount(p.type, count(p)) from Pet p group by p.type")
+    List<GroupCount> countByType();
+
+    /**
+     * Streams the identifier, owner and type of all pets.
+     * <br>Rows are fetched from an open cursor {@link RepositoryHints#STREAM_FETCH_SIZE} at a time.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @return the stream of {@link PetStatsRow} projections
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RepositoryHints.STREAM_FETCH_SIZE))
+    @Query("select new com.nixiedroid.petclinic.model.PetStatsRow(p.id, p.owner.id, p.type) from Pet p")
+    Stream<PetStatsRow> streamStatsRows();
+}
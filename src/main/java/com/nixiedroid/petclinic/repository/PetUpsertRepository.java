@@ -0,0 +1,25 @@
+package com.nixiedroid.petclinic.repository;
+
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetUpsertRow;
+import com.nixiedroid.petclinic.model.Upserted;
+import jakarta.annotation.Nonnull;
+
+/**
+ * Repository fragment writing a {@link Pet} with a single insert-or-update statement.
+ *
+ * @see PetRepository
+ */
+public interface PetUpsertRepository {
+
+    /**
+     * Updates the pet with the given identifier, or inserts it under a new identifier if it does not exist.
+     * <br>The row is written by one statement, without reading it first and without loading the entity.
+     * The statement also returns the owner the pet had before the write.
+     *
+     * @param id  the identifier of the pet to update
+     * @param pet the column values; its owner must be set
+     * @return the identifier and previous owner of the stored pet, and whether it was created
+     */
+    Upserted<PetUpsertRow> upsert(@Nonnull Long id, @Nonnull Pet pet);
+}
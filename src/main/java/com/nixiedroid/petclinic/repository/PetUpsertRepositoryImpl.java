@@ -0,0 +1,58 @@
+package com.nixiedroid.petclinic.repository;
+
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetUpsertRow;
+import com.nixiedroid.petclinic.model.Upserted;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.EntityManager;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Implementation of {@link PetUpsertRepository}.
+ * <br>The previous owner is read by a common table expression, which sees the row as it was before the write.
+ *
+ * @see NativeUpsert
+ */
+class PetUpsertRepositoryImpl implements PetUpsertRepository {
+
+    private static final String POSTGRES = """
+            WITH old AS (SELECT owner_id FROM site.pets WHERE id = :id)
+            INSERT INTO site.pets (id, name, birth_date, type, owner_id)
+            VALUES (COALESCE((SELECT id FROM site.pets WHERE id = :id), nextval('site.pets_seq')),
+                    :name, :birthDate, :type, :ownerId)
+            ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, birth_date = EXCLUDED.birth_date,
+                    type = EXCLUDED.type, owner_id = EXCLUDED.owner_id, version = pets.version + 1
+            RETURNING id, (xmax = 0), (SELECT owner_id FROM old)""";
+
+    private static final String H2 = """
+            WITH old AS (SELECT owner_id FROM site.pets WHERE id = :id)
+            SELECT id, version = 0, (SELECT owner_id FROM old) FROM FINAL TABLE (
+                MERGE INTO site.pets t
+                USING (VALUES (CAST(:id AS BIGINT), CAST(:name AS VARCHAR(50)), CAST(:birthDate AS DATE),
+                               CAST(:type AS VARCHAR(30)), CAST(:ownerId AS BIGINT)))
+                      s (id, name, birth_date, type, owner_id)
+                ON t.id = s.id
+                WHEN MATCHED THEN UPDATE SET name = s.name, birth_date = s.birth_date,
+                        type = s.type, owner_id = s.owner_id, version = t.version + 1
+                WHEN NOT MATCHED THEN INSERT (name, birth_date, type, owner_id)
+                        VALUES (s.name, s.birth_date, s.type, s.owner_id))""";
+
+    private final NativeUpsert upsert;
+
+    @Autowired
+    PetUpsertRepositoryImpl(EntityManager entityManager) {
+        this.upsert = new NativeUpsert(entityManager, POSTGRES, H2);
+    }
+
+    @Override
+    public Upserted<PetUpsertRow> upsert(@Nonnull Long id, @Nonnull Pet pet) {
+        return upsert.of(id)
+                .bind("name", pet.getName(), StandardBasicTypes.STRING)
+                .bind("birthDate", pet.getBirthDate(), StandardBasicTypes.LOCAL_DATE)
+                .bind("type", pet.getType(), StandardBasicTypes.STRING)
+                .bind("ownerId", pet.getOwner().getId(), StandardBasicTypes.LONG)
+                .execute(row -> new PetUpsertRow(((Number) row[0]).longValue(),
+                        row[2] == null ? null : ((Number) row[2]).longValue()));
+    }
+}
@@ -0,0 +1,16 @@
+package com.nixiedroid.petclinic.repository;
+
+/**
+ * Query hint values shared by the repositories.
+ * <br>
+ */
+public final class RepositoryHints {
+
+    /**
+     * JDBC fetch size of streaming queries
+     */
+    public static final String STREAM_FETCH_SIZE = "500";
+
+    private RepositoryHints() {
+    }
+}
@@ -0,0 +1,364 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.config.ReadRouting;
+import com.nixiedroid.petclinic.event.OwnerChanged;
+import com.nixiedroid.petclinic.event.PetChanged;
+import com.nixiedroid.petclinic.model.ClinicStats;
+import com.nixiedroid.petclinic.model.GroupCount;
+import com.nixiedroid.petclinic.model.OwnerStatsRow;
+import com.nixiedroid.petclinic.model.PetStatsRow;
+import com.nixiedroid.petclinic.repository.OwnerRepository;
+import com.nixiedroid.petclinic.repository.PetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link ClinicStats} counters up to date as owners and pets change.
+ * <br>The type and owner of every pet and the city and pets of every owner are kept, so each
+ * {@link OwnerChanged} or {@link PetChanged} event adjusts the counters by the difference
+ * with the previous state. Reading the statistics copies the counters only and does not depend
+ * on the number of owners or pets.
+ * <br>Pets an owner no longer lists in {@link OwnerChanged#petIds()} were deleted with the owner write
+ * and are removed. The counters are compared with {@code GROUP BY} queries every
+ * {@code petclinic.stats.reconcile-interval} and reloaded if they drifted.
+ * Until they are loaded, or if {@code petclinic.stats.enabled} is not set,
+ * the statistics are counted by those queries instead.
+ * <br>The counters are guarded by a {@link ReentrantLock} rather than {@code synchronized},
+ * which would pin the carrier of a virtual thread. It is held while the counters are read or adjusted
+ * only: loading builds new counters without it and swaps them in.
+ * <br>
+ */
+@Slf4j
+@Component
+public class ClinicStatsCounter {
+
+    /**
+     * Times the counters are compared with the queries before they are reloaded
+     */
+    private static final int RECONCILE_CHECKS = 3;
+
+    private record PetState(Long ownerId, String type) {
+    }
+
+    private record OwnerState(String city, Set<Long> pets) {
+    }
+
+    /**
+     * The kept state and the counters derived from it
+     */
+    private static class Counters {
+        private final Map<Long, PetState> pets = new HashMap<>();
+        private final Map<Long, OwnerState> owners = new HashMap<>();
+        private final Map<String, Long> petsByType = new HashMap<>();
+        private final Map<String, Long> ownersByCity = new HashMap<>();
+        private final Map<Integer, Long> ownersByPetCount = new HashMap<>();
+
+        private ClinicStats snapshot() {
+            return new ClinicStats(owners.size(), pets.size(),
+                    new TreeMap<>(petsByType), new TreeMap<>(ownersByCity), new TreeMap<>(ownersByPetCount));
+        }
+
+        private void applyOwner(OwnerChanged event) {
+            OwnerState old = owners.remove(event.ownerId());
+            if (old != null) {
+                adjust(ownersByCity, old.city(), -1);
+                adjust(ownersByPetCount, old.pets().size(), -1);
+            }
+            if (event.deleted()) {
+                if (old != null) {
+                    old.pets().forEach(this::forgetPet);
+                }
+                return;
+            }
+            Set<Long> kept = new HashSet<>();
+            if (old != null) {
+                for (Long petId : old.pets()) {
+                    if (event.petIds() == null || event.petIds().contains(petId)) {
+                        kept.add(petId);
+                    } else {
+                        forgetPet(petId);
+                    }
+                }
+            }
+            if (event.petIds() != null) {
+                event.petIds().stream()
+                        .filter(petId -> pets.containsKey(petId) && event.ownerId().equals(pets.get(petId).ownerId()))
+                        .forEach(kept::add);
+            }
+            owners.put(event.ownerId(), new OwnerState(event.city(), kept));
+            adjust(ownersByCity, event.city(), 1);
+            adjust(ownersByPetCount, kept.size(), 1);
+        }
+
+        private void applyPet(PetChanged event) {
+            removePet(event.petId());
+            if (!event.deleted()) {
+                addPet(event.petId(), event.ownerId(), event.type());
+            }
+        }
+
+        private void addPet(Long id, Long ownerId, String type) {
+            pets.put(id, new PetState(ownerId, type));
+            adjust(petsByType, type, 1);
+            OwnerState owner = ownerId == null ? null : owners.get(ownerId);
+            if (owner != null) {
+                adjust(ownersByPetCount, owner.pets().size(), -1);
+                owner.pets().add(id);
+                adjust(ownersByPetCount, owner.pets().size(), 1);
+            }
+        }
+
+        private void removePet(Long id) {
+            PetState old = pets.get(id);
+            OwnerState owner = old == null || old.ownerId() == null ? null : owners.get(old.ownerId());
+            if (owner != null && owner.pets().contains(id)) {
+                adjust(ownersByPetCount, owner.pets().size(), -1);
+                owner.pets().remove(id);
+                adjust(ownersByPetCount, owner.pets().size(), 1);
+            }
+            forgetPet(id);
+        }
+
+        /**
+         * Removes a pet whose owner is already adjusted.
+         */
+        private void forgetPet(Long id) {
+            PetState old = pets.remove(id);
+            if (old != null) {
+                adjust(petsByType, old.type(), -1);
+            }
+        }
+
+        private static <K> void adjust(Map<K, Long> counts, K key, long delta) {
+            if (key != null) {
+                counts.compute(key, (k, n) -> {
+                    long sum = (n == null ? 0 : n) + delta;
+                    return sum == 0 ? null : sum;
+                });
+            }
+        }
+    }
+
+    private final OwnerRepository ownerRepository;
+    private final PetRepository petRepository;
+    private final boolean enabled;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private Counters counters = new Counters();
+    /**
+     * Changes applied while the counters are loading, replayed on the loaded counters
+     */
+    private List<Consumer<Counters>> changedWhileLoading;
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new {@link ClinicStatsCounter}.
+     *
+     * @param ownerRepository the repository owners are counted from
+     * @param petRepository the repository pets are counted from
+     * @param enabled whether the counters are kept, otherwise every read is counted by queries
+     */
+    @Autowired
+    public ClinicStatsCounter(OwnerRepository ownerRepository, PetRepository petRepository,
+                              @Value("${petclinic.stats.enabled:true}") boolean enabled) {
+        this.ownerRepository = ownerRepository;
+        this.petRepository = petRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Tells whether the statistics are read from the counters.
+     *
+     * @return true once the counters are loaded
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Retrieves the clinic statistics.
+     *
+     * @return the statistics from the counters once loaded, otherwise as counted by {@code GROUP BY} queries
+     */
+    @Transactional(readOnly = true)
+    public ClinicStats getStats() {
+        return ready ? snapshot() : count();
+    }
+
+    /**
+     * Copies the counters.
+     *
+     * @return the current statistics
+     */
+    public ClinicStats snapshot() {
+        lock.lock();
+        try {
+            return counters.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the statistics with one {@code GROUP BY} query per counter.
+     *
+     * @return the statistics as stored in the database
+     */
+    @Transactional(readOnly = true)
+    public ClinicStats count() {
+        SortedMap<String, Long> types = toMap(petRepository.countByType(), Object::toString);
+        SortedMap<String, Long> cities = toMap(ownerRepository.countByCity(), Object::toString);
+        SortedMap<Integer, Long> petCounts = toMap(ownerRepository.countByPetCount(), k -> ((Number) k).intValue());
+        long ownerCount = petCounts.values().stream().mapToLong(Long::longValue).sum();
+        long petCount = types.values().stream().mapToLong(Long::longValue).sum();
+        return new ClinicStats(ownerCount, petCount, types, cities, petCounts);
+    }
+
+    private static <K> SortedMap<K, Long> toMap(List<GroupCount> counts, Function<Object, K> keyOf) {
+        SortedMap<K, Long> map = new TreeMap<>();
+        counts.forEach(c -> map.put(keyOf.apply(c.key()), c.count()));
+        return map;
+    }
+
+    /**
+     * Applies an owner change once it is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOwnerChanged(OwnerChanged event) {
+        apply(c -> c.applyOwner(event));
+    }
+
+    /**
+     * Applies a pet change once it is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPetChanged(PetChanged event) {
+        apply(c -> c.applyPet(event));
+    }
+
+    private void apply(Consumer<Counters> change) {
+        lock.lock();
+        try {
+            change.accept(counters);
+            if (changedWhileLoading != null) {
+                changedWhileLoading.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the counters from the database.
+     * <br>New counters are built from the tables while changes keep being applied to the current ones.
+     * The changes applied meanwhile are then replayed on the new counters, which replace the current ones:
+     * events describe the state after a change, so replaying one the tables already showed has no effect.
+     * <br>The counters follow committed writes, so they are loaded from the primary.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            long start = System.nanoTime();
+            setChangedWhileLoading(new ArrayList<>());
+            Counters loaded;
+            try {
+                loaded = ReadRouting.onPrimary(this::read);
+            } catch (RuntimeException e) {
+                setChangedWhileLoading(null);
+                throw e;
+            }
+            ClinicStats stats;
+            lock.lock();
+            try {
+                changedWhileLoading.forEach(change -> change.accept(loaded));
+                changedWhileLoading = null;
+                counters = loaded;
+                ready = true;
+                stats = loaded.snapshot();
+            } finally {
+                lock.unlock();
+            }
+            log.info("Counted {} owners and {} pets in {} ms", stats.owners(), stats.pets(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void setChangedWhileLoading(List<Consumer<Counters>> changes) {
+        lock.lock();
+        try {
+            changedWhileLoading = changes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Counters read() {
+        Counters loaded = new Counters();
+        try (Stream<OwnerStatsRow> rows = ownerRepository.streamStatsRows()) {
+            rows.forEach(o -> {
+                loaded.owners.put(o.id(), new OwnerState(o.city(), new HashSet<>()));
+                Counters.adjust(loaded.ownersByCity, o.city(), 1);
+            });
+        }
+        try (Stream<PetStatsRow> rows = petRepository.streamStatsRows()) {
+            rows.forEach(p -> {
+                loaded.pets.put(p.id(), new PetState(p.ownerId(), p.type()));
+                Counters.adjust(loaded.petsByType, p.type(), 1);
+                OwnerState owner = p.ownerId() == null ? null : loaded.owners.get(p.ownerId());
+                if (owner != null) {
+                    owner.pets().add(p.id());
+                }
+            });
+        }
+        loaded.owners.values().forEach(o -> Counters.adjust(loaded.ownersByPetCount, o.pets().size(), 1));
+        return loaded;
+    }
+
+    /**
+     * Compares the counters with {@code GROUP BY} queries and reloads them if they differ.
+     * <br>The counters are copied before and after the queries, and agree if either copy matches.
+     * A change committed while counting may still be missing from both copies, its event not applied yet,
+     * so a mismatch is checked {@value #RECONCILE_CHECKS} times before the counters are reloaded.
+     */
+    @Scheduled(fixedDelayString = "${petclinic.stats.reconcile-interval:PT10M}",
+            initialDelayString = "${petclinic.stats.reconcile-interval:PT10M}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+        ClinicStats counted = null;
+        ClinicStats kept = null;
+        for (int check = 0; check < RECONCILE_CHECKS; check++) {
+            ClinicStats before = snapshot();
+            counted = ReadRouting.onPrimary(this::count);
+            kept = snapshot();
+            if (counted.equals(before) || counted.equals(kept)) {
+                return;
+            }
+        }
+        log.warn("Clinic statistics drifted, reloading: kept {} owners and {} pets, counted {} and {}",
+                kept.owners(), kept.pets(), counted.owners(), counted.pets());
+        load();
+    }
+}
@@ -0,0 +1,161 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.config.ReadRouting;
+import com.nixiedroid.petclinic.model.ExecutorStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor running the database work of the asynchronous endpoints.
+ * <br>It has as many threads as the connection pool has connections, and a queue of
+ * {@code petclinic.db-executor.queue-capacity} tasks. Its tasks do not wait for a connection as long as
+ * nothing else holds one: the asynchronous endpoints leave all database work, validation included,
+ * to the executor, since with open session in view a connection taken on the request thread
+ * is held until the response is written. A task submitted
+ * while the queue is full is not run: its future fails with a {@link RejectedExecutionException},
+ * answered with 503 Service Unavailable, see {@link com.nixiedroid.petclinic.controller.ErrorController}.
+ * <br>The time tasks wait in the queue and run is recorded, see {@link #getStats()}, and published
+ * as {@code petclinic.db.executor.*} metrics. Statements run by
+ * the tasks happen off the request thread and are not reported by {@link com.nixiedroid.petclinic.config.QueryCountFilter}.
+ * <br>
+ */
+@Slf4j
+@Component
+public class DatabaseExecutor implements MeterBinder {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder runNanos = new LongAdder();
+
+    /**
+     * Constructs a new {@link DatabaseExecutor}.
+     *
+     * @param threads the number of worker threads, the connection pool size by default
+     * @param queueCapacity the number of tasks that may wait for a thread
+     */
+    @Autowired
+    public DatabaseExecutor(
+            @Value("${petclinic.db-executor.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+            @Value("${petclinic.db-executor.queue-capacity:100}") int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("db-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs database work on the executor.
+     * <br>Stages added to the returned future without an executor run on the worker thread.
+     * If the calling thread reads the primary, so does the work, see {@link ReadRouting}.
+     *
+     * @param work the work to run, typically a transactional service call
+     * @return a future completed with the result of the work, or failed with its exception
+     * or with a {@link RejectedExecutionException} if the queue is full
+     */
+    public <T> CompletableFuture<T> supply(@Nonnull Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long submitted = System.nanoTime();
+        Supplier<T> routed = ReadRouting.propagate(work);
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                waitNanos.add(start - submitted);
+                maxWaitNanos.accumulate(start - submitted);
+                try {
+                    T value = routed.get();
+                    completed.increment();
+                    result.complete(value);
+                } catch (Throwable e) {
+                    failed.increment();
+                    result.completeExceptionally(e);
+                } finally {
+                    runNanos.add(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.debug("Database executor is saturated, {} tasks queued", executor.getQueue().size());
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the current load and the totals since startup.
+     *
+     * @return the executor statistics
+     */
+    public ExecutorStats getStats() {
+        long done = finished();
+        return new ExecutorStats(executor.getMaximumPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+                queueCapacity, completed.sum(), failed.sum(), rejected.sum(),
+                done == 0 ? 0 : waitNanos.sum() / 1e6 / done, maxWaitNanos.get() / 1e6,
+                done == 0 ? 0 : runNanos.sum() / 1e6 / done);
+    }
+
+    /**
+     * Publishes the load of the executor: thread, running and queued task gauges, task counters
+     * by result and the queue wait and run times.
+     */
+    @Override
+    public void bindTo(@Nonnull MeterRegistry registry) {
+        Gauge.builder("petclinic.db.executor.threads", executor, ThreadPoolExecutor::getMaximumPoolSize)
+                .description("Worker threads of the database executor").register(registry);
+        Gauge.builder("petclinic.db.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Database tasks running").register(registry);
+        Gauge.builder("petclinic.db.executor.queued", executor, e -> e.getQueue().size())
+                .description("Database tasks waiting for a thread").register(registry);
+        Gauge.builder("petclinic.db.executor.queue.capacity", () -> queueCapacity)
+                .description("Database tasks that may wait before further ones are rejected").register(registry);
+        countTasks(registry, "completed", completed);
+        countTasks(registry, "failed", failed);
+        countTasks(registry, "rejected", rejected);
+        FunctionTimer.builder("petclinic.db.executor.wait", this, DatabaseExecutor::finished,
+                        e -> e.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time database tasks waited in the queue").register(registry);
+        FunctionTimer.builder("petclinic.db.executor.run", this, DatabaseExecutor::finished,
+                        e -> e.runNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time database tasks ran").register(registry);
+    }
+
+    private static void countTasks(MeterRegistry registry, String result, LongAdder count) {
+        FunctionCounter.builder("petclinic.db.executor.tasks", count, LongAdder::sum)
+                .tag("result", result)
+                .description("Database tasks by result").register(registry);
+    }
+
+    private long finished() {
+        return completed.sum() + failed.sum();
+    }
+
+    /**
+     * Lets queued tasks finish and stops the worker threads.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Database executor did not finish {} queued tasks", executor.shutdownNow().size());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.Pet;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.hibernate.cache.spi.access.CollectionDataAccess;
+import org.hibernate.cache.spi.entry.CollectionCacheEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evicts second-level cache entries of writes that Hibernate cannot track by itself.
+ * <br>Native upserts and the database side {@code ON DELETE CASCADE} bypass Hibernate; writes through
+ * entities and JPQL bulk deletes are kept coherent by Hibernate and need no call here.
+ * <br>Like Hibernate does for bulk operations, the affected entries are evicted once at the write, so the
+ * writing transaction does not read them, and once more after the transaction completes, dropping the old
+ * state other transactions may have cached meanwhile. Only the written rows and the pet lists of
+ * the owners involved are evicted.
+ * <br>Unlike Hibernate's own writes, these evictions take no soft lock on the entries: a read that loaded
+ * the old state before the commit and puts it after the second eviction leaves it cached until it expires,
+ * see the time to live in {@code ehcache.xml}.
+ * <br>
+ */
+@Component
+public class EntityCacheEvictor {
+
+    /**
+     * Second-level cache region of the {@link Owner#getPets()} collection
+     */
+    static final String OWNER_PETS = Owner.class.getName() + ".pets";
+
+    private final Cache cache;
+    private final EntityManager entityManager;
+
+    /**
+     * Constructs a new {@link EntityCacheEvictor}.
+     *
+     * @param entityManager the entity manager of the writing transactions, owning the second-level cache
+     */
+    @Autowired
+    public EntityCacheEvictor(EntityManager entityManager) {
+        this.cache = entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Evicts a pet written by a native upsert and the pet lists of its current and previous owners.
+     *
+     * @param petId           the identifier of the pet
+     * @param ownerId         the identifier of the owner after the write
+     * @param previousOwnerId the identifier of the owner before the write, or null if the pet was created
+     */
+    public void petUpserted(Long petId, Long ownerId, @Nullable Long previousOwnerId) {
+        evictNowAndAfterCompletion(() -> {
+            cache.evictEntityData(Pet.class, petId);
+            cache.evictCollectionData(OWNER_PETS, ownerId);
+            if (previousOwnerId != null) {
+                cache.evictCollectionData(OWNER_PETS, previousOwnerId);
+            }
+        });
+    }
+
+    /**
+     * Evicts an owner written by a native upsert.
+     * <br>Its pet list is only changed by JPQL deletes, which Hibernate tracks.
+     *
+     * @param ownerId the identifier of the owner
+     */
+    public void ownerUpserted(Long ownerId) {
+        evictNowAndAfterCompletion(() -> cache.evictEntityData(Owner.class, ownerId));
+    }
+
+    /**
+     * Evicts the pets the database is about to delete along with their owner; must be called before the delete.
+     * <br>The pets are listed by the cached pet list of the owner, which is evicted on every change of the list.
+     * If the list is not cached, the owner's pets are unknown without a query and all pets are evicted.
+     * The owner and the pet lists are evicted by Hibernate along with the JPQL delete.
+     *
+     * @param ownerId the identifier of the owner
+     */
+    public void ownerDeleting(Long ownerId) {
+        List<Long> petIds = cachedPetIds(ownerId);
+        evictNowAndAfterCompletion(() -> {
+            if (petIds == null) {
+                cache.evictEntityData(Pet.class);
+            } else {
+                petIds.forEach(id -> cache.evictEntityData(Pet.class, id));
+            }
+        });
+    }
+
+    /**
+     * Reads the pet identifiers of the cached pet list of an owner.
+     *
+     * @return the identifiers, or null if the list is not cached
+     */
+    @Nullable
+    private List<Long> cachedPetIds(Long ownerId) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        CollectionPersister persister = factory.getMappingMetamodel().getCollectionDescriptor(OWNER_PETS);
+        CollectionDataAccess access = persister.getCacheAccessStrategy();
+        Object key = access.generateCacheKey(ownerId, persister, factory, session.getTenantIdentifier());
+        if (!(access.get(session, key) instanceof CollectionCacheEntry entry)) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Serializable id : entry.getState()) {
+            ids.add((Long) id);
+        }
+        return ids;
+    }
+
+    private void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.VersionRow;
+import jakarta.annotation.Nonnull;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Computes strong entity tags of representations from entity versions.
+ * <br>A representation is described by the id and version of its entity and of every related entity
+ * it embeds: the pets of an owner, the owner of a pet. Every update increments the version,
+ * so the tag changes whenever the representation does.
+ * <br>The same tag is computed from a DTO and from the {@link VersionRow}s of a version-only query,
+ * which allows answering conditional requests without building the DTO.
+ * <br>
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * Computes the tag of an entity from its version rows.
+     *
+     * @param rows the versions of the entity and its related entities
+     * @return an {@link Optional} containing the quoted tag, or empty if there are no rows
+     */
+    public static Optional<String> of(@Nonnull Collection<VersionRow> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        VersionRow first = rows.iterator().next();
+        Map<Long, Long> related = new TreeMap<>();
+        rows.stream()
+                .filter(r -> r.relatedId() != null)
+                .forEach(r -> related.put(r.relatedId(), r.relatedVersion()));
+        return Optional.of(tag(describe(first.id(), first.version(), related)));
+    }
+
+    /**
+     * Computes the tag of an owner representation.
+     *
+     * @param owner the owner with its pets
+     * @return the quoted tag
+     */
+    public static String of(@Nonnull OwnerDTO owner) {
+        return tag(describe(owner));
+    }
+
+    /**
+     * Computes the tag of a pet representation.
+     *
+     * @param pet the pet with its owner
+     * @return the quoted tag
+     */
+    public static String of(@Nonnull PetDTO pet) {
+        return tag(describe(pet));
+    }
+
+    /**
+     * Computes the tag of a list of owner representations.
+     *
+     * @param owners the owners in response order
+     * @return the quoted tag
+     */
+    public static String ofOwners(@Nonnull List<OwnerDTO> owners) {
+        return tag(owners.stream().map(EntityTags::describe).collect(Collectors.joining(";")));
+    }
+
+    /**
+     * Computes the tag of a list of pet representations.
+     *
+     * @param pets the pets in response order
+     * @return the quoted tag
+     */
+    public static String ofPets(@Nonnull List<PetDTO> pets) {
+        return tag(pets.stream().map(EntityTags::describe).collect(Collectors.joining(";")));
+    }
+
+    private static String describe(OwnerDTO owner) {
+        Map<Long, Long> related = new TreeMap<>();
+        if (owner.pets() != null) {
+            owner.pets().stream()
+                    .filter(p -> p.id() != null)
+                    .forEach(p -> related.put(p.id(), p.version()));
+        }
+        return describe(owner.id(), owner.version(), related);
+    }
+
+    private static String describe(PetDTO pet) {
+        Map<Long, Long> related = new TreeMap<>();
+        if (pet.owner() != null && pet.owner().id() != null) {
+            related.put(pet.owner().id(), pet.owner().version());
+        }
+        return describe(pet.id(), pet.version(), related);
+    }
+
+    /**
+     * Describes an entity as {@code id:version} followed by {@code ,id:version} of each related entity,
+     * ordered by id so the description does not depend on the order the rows were read in.
+     */
+    private static String describe(Long id, Long version, Map<Long, Long> related) {
+        StringBuilder text = new StringBuilder().append(id).append(':').append(version);
+        related.forEach((relatedId, relatedVersion) ->
+                text.append(',').append(relatedId).append(':').append(relatedVersion));
+        return text.toString();
+    }
+
+    private static String tag(String description) {
+        return '"' + DigestUtils.md5DigestAsHex(description.getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+}
@@ -0,0 +1,100 @@
+package com.nixiedroid.petclinic.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.repository.OwnerRepository;
+import com.nixiedroid.petclinic.repository.PetRepository;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * Service class for exporting the whole dataset as newline delimited JSON.
+ * <br>Rows are read from a database cursor and written to the output as they arrive,
+ * so memory usage does not depend on the number of rows.
+ * <br>
+ */
+@Service
+public class ExportService {
+
+    private static final int NEWLINE = '\n';
+
+    private final OwnerRepository ownerRepository;
+    private final PetRepository petRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter ownerWriter;
+    private final ObjectWriter petWriter;
+
+    /**
+     * Constructs a new {@link ExportService}.
+     *
+     * @param ownerRepository the repository for managing owners
+     * @param petRepository the repository for managing pets
+     * @param entityManager the entity manager used to detach exported owners
+     * @param objectMapper the mapper used to write rows
+     */
+    @Autowired
+    public ExportService(OwnerRepository ownerRepository, PetRepository petRepository,
+                         EntityManager entityManager, ObjectMapper objectMapper) {
+        this.ownerRepository = ownerRepository;
+        this.petRepository = petRepository;
+        this.entityManager = entityManager;
+        this.ownerWriter = objectMapper.writerFor(OwnerDTO.class);
+        this.petWriter = objectMapper.writerFor(PetDTO.class);
+    }
+
+    /**
+     * Writes all owners with their pets to the output, one {@link OwnerDTO} json object per line.
+     * <br>Each owner is detached after it is written, so the persistence context does not grow.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public void exportOwners(@Nonnull OutputStream out) throws IOException {
+        try (Stream<Owner> owners = ownerRepository.streamAll()) {
+            owners.forEach(o -> {
+                writeLine(out, ownerWriter, OwnerDTO.create(o));
+                entityManager.detach(o);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes all pets with their owners to the output, one {@link PetDTO} json object per line.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public void exportPets(@Nonnull OutputStream out) throws IOException {
+        try (Stream<PetDTO> pets = petRepository.streamAllDtos()) {
+            pets.forEach(p -> writeLine(out, petWriter, p));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private static void writeLine(OutputStream out, ObjectWriter writer, Object value) {
+        try {
+            out.write(writer.writeValueAsBytes(value));
+            out.write(NEWLINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.nixiedroid.petclinic.service;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Resolves a list of identifiers to entities with a single lookup.
+ * <br>Replaces one query per identifier by one {@code IN} query, such as
+ * {@link org.springframework.data.repository.CrudRepository#findAllById(Iterable)}.
+ * <br>
+ */
+public final class IdResolver {
+
+    private IdResolver() {
+    }
+
+    /**
+     * Resolves the given identifiers to entities.
+     * <br>Null and duplicate identifiers are looked up once at most.
+     * Identifiers without a matching entity are skipped.
+     *
+     * @param ids    the identifiers to resolve
+     * @param loader loads the entities with the given identifiers, in any order
+     * @param idOf   extracts the identifier of an entity
+     * @return the found entities in the order of {@code ids}
+     */
+    public static <T> List<T> resolve(@Nonnull Collection<Long> ids,
+                                      @Nonnull Function<Collection<Long>, ? extends Collection<T>> loader,
+                                      @Nonnull Function<T, Long> idOf) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, T> byId = new HashMap<>();
+        loader.apply(distinct).forEach(e -> byId.put(idOf.apply(e), e));
+        List<T> resolved = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = id == null ? null : byId.get(id);
+            if (entity != null) {
+                resolved.add(entity);
+            }
+        }
+        return resolved;
+    }
+}
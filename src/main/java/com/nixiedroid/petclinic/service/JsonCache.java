@@ -0,0 +1,125 @@
+package com.nixiedroid.petclinic.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.model.JsonBody;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.PetPlain;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Service class caching the serialized json of single owners and pets.
+ * <br>A hit is written to the response as is, skipping both the DTO mapping and Jackson.
+ * A miss serializes the DTO with the application {@link ObjectMapper}, so the cached json is the same
+ * as the one the endpoint would produce.
+ * <br>Disabled unless {@code petclinic.cache.json.enabled} is set. Entries are evicted on writes together
+ * with the DTO entries, see {@link com.nixiedroid.petclinic.event.DtoCacheEvictor}.
+ * <br>
+ */
+@Service
+public class JsonCache {
+
+    private final OwnerService ownerService;
+    private final PetService petService;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    /**
+     * Constructs a new {@link JsonCache}.
+     *
+     * @param ownerService the service loading owner DTOs on a miss
+     * @param petService the service loading pet DTOs on a miss
+     * @param cacheManager the cache manager holding the json caches
+     * @param objectMapper the mapper serializing DTOs
+     * @param enabled whether the json caches are used
+     */
+    @Autowired
+    public JsonCache(OwnerService ownerService, PetService petService, CacheManager cacheManager,
+                     ObjectMapper objectMapper, @Value("${petclinic.cache.json.enabled:false}") boolean enabled) {
+        this.ownerService = ownerService;
+        this.petService = petService;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Tells whether the json caches are used.
+     *
+     * @return true if {@code petclinic.cache.json.enabled} is set
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Retrieves the serialized json of an owner with their pets.
+     *
+     * @param id the unique identifier of the owner
+     * @return an {@link Optional} containing the {@link JsonBody} if found, or empty if not found
+     */
+    public Optional<JsonBody> getOwner(@Nonnull Long id) {
+        return get(CacheConfig.OWNER_JSON, id, () -> ownerService.getOwnerById(id), owner -> new JsonBody(
+                write(owner),
+                EntityTags.of(owner),
+                owner.pets() == null ? Set.of() : owner.pets().stream()
+                        .map(PetPlain::id)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toUnmodifiableSet())));
+    }
+
+    /**
+     * Retrieves the serialized json of a pet with its owner.
+     *
+     * @param id the unique identifier of the pet
+     * @return an {@link Optional} containing the {@link JsonBody} if found, or empty if not found
+     */
+    public Optional<JsonBody> getPet(@Nonnull Long id) {
+        return get(CacheConfig.PET_JSON, id, () -> petService.getPetById(id), pet -> new JsonBody(
+                write(pet),
+                EntityTags.of(pet),
+                pet.owner() == null || pet.owner().id() == null ? Set.of() : Set.of(pet.owner().id())));
+    }
+
+    /**
+     * Looks the json up in the cache, serializing and caching the loaded DTO on a miss.
+     * <br>Missing entities are not cached.
+     */
+    private <T> Optional<JsonBody> get(String name, Long id, Supplier<Optional<T>> loader,
+                                       Function<T, JsonBody> serializer) {
+        Cache cache = cacheManager.getCache(name);
+        JsonBody cached = cache == null ? null : cache.get(id, JsonBody.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<JsonBody> body = loader.get().map(serializer);
+        if (cache != null) {
+            body.ifPresent(b -> cache.put(id, b));
+        }
+        return body;
+    }
+
+    private byte[] write(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
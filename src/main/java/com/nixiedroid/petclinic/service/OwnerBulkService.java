@@ -0,0 +1,196 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.event.OwnerChanged;
+import com.nixiedroid.petclinic.event.PetChanged;
+import com.nixiedroid.petclinic.model.BulkItemResult;
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetPlain;
+import com.nixiedroid.petclinic.repository.OwnerRepository;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Service class for creating many owners with their pets at once.
+ * <br>All items are validated in one pass, then the valid ones are written in chunks,
+ * each chunk in its own transaction. A failing chunk does not roll back the others.
+ * <br>Nested pets are created as new pets of the owner.
+ * <br>Every created owner and pet is announced with an {@link OwnerChanged} or {@link PetChanged} event
+ * published inside the transaction of its chunk, so the listeners react once the chunk is committed.
+ * <br>
+ */
+@Slf4j
+@Service
+public class OwnerBulkService {
+
+    private final OwnerRepository ownerRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher events;
+    private final int chunkSize;
+
+    /**
+     * Constructs a new {@link OwnerBulkService}.
+     *
+     * @param ownerRepository the repository for managing owners
+     * @param entityManager the entity manager used to persist chunks
+     * @param transactionTemplate the template running each chunk in a transaction
+     * @param validator the bean validator checking items
+     * @param events the publisher announcing created owners and pets
+     * @param chunkSize the number of owners written per transaction
+     */
+    @Autowired
+    public OwnerBulkService(OwnerRepository ownerRepository, EntityManager entityManager,
+                            TransactionTemplate transactionTemplate, Validator validator,
+                            ApplicationEventPublisher events,
+                            @Value("${petclinic.bulk.chunk-size:1000}") int chunkSize) {
+        this.ownerRepository = ownerRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.events = events;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates the given owners with their pets.
+     *
+     * @param owners the owners to create
+     * @return one result per owner, in request order
+     */
+    public List<BulkItemResult> createOwners(@Nonnull List<OwnerDTO> owners) {
+        BulkItemResult[] results = new BulkItemResult[owners.size()];
+        List<Integer> accepted = validate(owners, results);
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            try {
+                List<Owner> created = transactionTemplate.execute(status -> persist(owners, chunk));
+                for (int i = 0; i < chunk.size(); i++) {
+                    Owner owner = Objects.requireNonNull(created).get(i);
+                    results[chunk.get(i)] = new BulkItemResult(chunk.get(i), HttpStatus.CREATED.value(), owner.getId(), null);
+                }
+            } catch (RuntimeException e) {
+                log.error("Bulk chunk of {} owners failed", chunk.size(), e);
+                Map<String, String> error = Map.of("", "Internal Error");
+                chunk.forEach(i -> results[i] = new BulkItemResult(i, HttpStatus.INTERNAL_SERVER_ERROR.value(), null, error));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Validates all items, storing a rejection result for each invalid one.
+     * <br>Existing ids are looked up with one query per {@code chunkSize} ids, which keeps the {@code IN} list
+     * within the bind parameter limit of the database (32767 on PostgreSQL) however large the request.
+     *
+     * @return the indexes of the accepted items
+     */
+    private List<Integer> validate(List<OwnerDTO> owners, BulkItemResult[] results) {
+        List<Long> ids = owners.stream().map(OwnerDTO::id).filter(Objects::nonNull).toList();
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            existing.addAll(ownerRepository.findExistingIds(ids.subList(from, Math.min(from + chunkSize, ids.size()))));
+        }
+        List<Integer> accepted = new ArrayList<>(owners.size());
+        for (int i = 0; i < owners.size(); i++) {
+            Map<String, String> errors = validate(owners.get(i), existing);
+            if (errors.isEmpty()) {
+                accepted.add(i);
+            } else {
+                results[i] = new BulkItemResult(i, HttpStatus.BAD_REQUEST.value(), null, errors);
+            }
+        }
+        return accepted;
+    }
+
+    private Map<String, String> validate(OwnerDTO dto, Set<Long> existing) {
+        Map<String, String> errors = new HashMap<>();
+        if (dto == null) {
+            errors.put("", "Owner must not be null");
+            return errors;
+        }
+        collect(validator.validate(dto), "", errors);
+        if (dto.id() != null && existing.contains(dto.id())) {
+            errors.put("id", "Owner is already exists");
+        }
+        if (dto.pets() != null) {
+            for (int i = 0; i < dto.pets().size(); i++) {
+                PetPlain pet = dto.pets().get(i);
+                String prefix = "pets[" + i + "]";
+                if (pet == null) {
+                    errors.put(prefix, "Pet must not be null");
+                    continue;
+                }
+                collect(validator.validate(pet), prefix + ".", errors);
+                if (pet.type() == null) {
+                    errors.put(prefix + ".type", "Pet type must not be null");
+                }
+            }
+        }
+        return errors;
+    }
+
+    private static <T> void collect(Set<ConstraintViolation<T>> violations, String prefix, Map<String, String> errors) {
+        violations.forEach(v -> errors.put(prefix + v.getPropertyPath(), v.getMessage()));
+    }
+
+    /**
+     * Persists one chunk, announces its owners and pets, and clears the persistence context afterwards,
+     * so memory usage does not grow with the number of chunks.
+     *
+     * @return the created owners with their generated ids, in chunk order
+     */
+    private List<Owner> persist(List<OwnerDTO> owners, List<Integer> chunk) {
+        List<Owner> entities = new ArrayList<>(chunk.size());
+        for (Integer i : chunk) {
+            Owner owner = toEntity(owners.get(i));
+            entityManager.persist(owner);
+            entities.add(owner);
+        }
+        entityManager.flush();
+        entities.forEach(this::announce);
+        entityManager.clear();
+        return entities;
+    }
+
+    private void announce(Owner owner) {
+        OwnerChanged ownerChanged = new OwnerChanged(owner.getId(), owner.getLastName(), owner.getCity(),
+                owner.getPets().stream().map(Pet::getId).toList(), false);
+        events.publishEvent(ownerChanged);
+        for (Pet pet : owner.getPets()) {
+            events.publishEvent(new PetChanged(pet.getId(), owner.getId(), null, pet.getName(), pet.getType(), false));
+        }
+    }
+
+    private static Owner toEntity(OwnerDTO dto) {
+        Owner owner = Owner.builder()
+                .firstName(dto.firstName())
+                .lastName(dto.lastName())
+                .address(dto.address())
+                .city(dto.city())
+                .telephone(dto.telephone())
+                .build();
+        if (dto.pets() != null) {
+            dto.pets().forEach(p -> owner.getPets().add(Pet.builder()
+                    .name(p.name())
+                    .birthDate(p.birthDate())
+                    .type(p.type())
+                    .owner(owner)
+                    .build()));
+        }
+        return owner;
+    }
+}
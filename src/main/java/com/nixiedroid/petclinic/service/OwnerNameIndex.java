@@ -0,0 +1,190 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.config.ReadRouting;
+import com.nixiedroid.petclinic.event.OwnerChanged;
+import com.nixiedroid.petclinic.model.OwnerName;
+import com.nixiedroid.petclinic.repository.OwnerRepository;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of owner last names for prefix search.
+ * <br>Owners are kept in a skip list ordered by lower case last name, then id, so the owners
+ * matching a prefix are the contiguous range starting at the prefix. A search walks at most
+ * {@code limit} entries of that range and does not depend on the number of owners.
+ * <br>The index is built from the database on startup and kept in sync by {@link OwnerChanged} events
+ * and by {@link OwnerBulkService}. Until it is built, or if {@code petclinic.owners.name-index.enabled}
+ * is not set, searches fall back to the database, see {@link OwnerRepository#findIdsByLastNameKeyLike}.
+ * <br>
+ */
+@Slf4j
+@Component
+public class OwnerNameIndex {
+
+    /**
+     * Index entry, ordered by key then id
+     */
+    private record Entry(String key, long id) implements Comparable<Entry> {
+        @Override
+        public int compareTo(@Nonnull Entry o) {
+            int c = key.compareTo(o.key);
+            return c != 0 ? c : Long.compare(id, o.id);
+        }
+    }
+
+    private final OwnerRepository ownerRepository;
+    private final boolean enabled;
+    private final NavigableSet<Entry> byKey = new ConcurrentSkipListSet<>();
+    private final Map<Long, String> keys = new ConcurrentHashMap<>();
+    private final Set<Long> deletedWhileBuilding = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new {@link OwnerNameIndex}.
+     *
+     * @param ownerRepository the repository the index is built from
+     * @param enabled whether the index is built and used
+     */
+    @Autowired
+    public OwnerNameIndex(OwnerRepository ownerRepository,
+                         @Value("${petclinic.owners.name-index.enabled:true}") boolean enabled) {
+        this.ownerRepository = ownerRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Tells whether searches can be served from the index.
+     *
+     * @return true once the index is built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds the owners whose last name starts with the given prefix, ignoring case.
+     *
+     * @param prefix the last name prefix
+     * @param limit  the maximum number of ids to return
+     * @return the ids of the matching owners ordered by lower case last name, then id
+     */
+    public List<Long> search(@Nonnull String prefix, int limit) {
+        String key = normalize(prefix);
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        for (Entry e : byKey.tailSet(new Entry(key, Long.MIN_VALUE))) {
+            if (ids.size() >= limit || !e.key().startsWith(key)) {
+                break;
+            }
+            ids.add(e.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Adds an owner to the index or updates their last name.
+     *
+     * @param id       the identifier of the owner
+     * @param lastName the last name of the owner
+     */
+    public void put(@Nonnull Long id, @Nonnull String lastName) {
+        String key = normalize(lastName);
+        keys.compute(id, (k, old) -> {
+            if (old != null) {
+                byKey.remove(new Entry(old, id));
+            }
+            byKey.add(new Entry(key, id));
+            return key;
+        });
+    }
+
+    /**
+     * Removes an owner from the index.
+     *
+     * @param id the identifier of the owner
+     */
+    public void remove(@Nonnull Long id) {
+        keys.compute(id, (k, old) -> {
+            if (old != null) {
+                byKey.remove(new Entry(old, id));
+            }
+            if (!ready) {
+                deletedWhileBuilding.add(id);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Applies an owner change once it is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOwnerChanged(OwnerChanged event) {
+        if (event.deleted() || event.lastName() == null) {
+            remove(event.ownerId());
+        } else {
+            put(event.ownerId(), event.lastName());
+        }
+    }
+
+    /**
+     * Builds the index from the database.
+     * <br>Owners written while the index is built are kept as written: rows read afterwards
+     * neither overwrite them nor bring deleted owners back.
+     * <br>The index follows committed writes, so it is built from the primary.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        ReadRouting.runOnPrimary(() -> {
+            try (Stream<OwnerName> names = ownerRepository.streamNames()) {
+                names.forEach(n -> keys.compute(n.id(), (k, current) -> {
+                    if (current != null || deletedWhileBuilding.contains(n.id())) {
+                        return current;
+                    }
+                    String key = normalize(n.lastName());
+                    byKey.add(new Entry(key, n.id()));
+                    return key;
+                }));
+            }
+        });
+        ready = true;
+        deletedWhileBuilding.clear();
+        log.info("Indexed {} owner last names in {} ms", keys.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Converts a last name or prefix to the form the index and the {@code last_name_key} column are ordered by.
+     *
+     * @param lastName the last name or prefix
+     * @return the lower case last name
+     */
+    public static String normalize(@Nonnull String lastName) {
+        return lastName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Converts a prefix to a {@code LIKE} pattern on {@code last_name_key}, escaping wildcards with {@code \}.
+     *
+     * @param prefix the last name prefix
+     * @return the pattern matching every last name starting with the prefix
+     */
+    public static String likePattern(@Nonnull String prefix) {
+        return normalize(prefix).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
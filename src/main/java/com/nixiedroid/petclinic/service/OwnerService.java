@@ -1,17 +1,30 @@
 package com.nixiedroid.petclinic.service;
 
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.config.ReadRouting;
+import com.nixiedroid.petclinic.event.OwnerChanged;
+import com.nixiedroid.petclinic.model.KeysetPage;
 import com.nixiedroid.petclinic.model.Owner;
 import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.Pet;
 import com.nixiedroid.petclinic.model.PetPlain;
+import com.nixiedroid.petclinic.model.Upserted;
 import com.nixiedroid.petclinic.repository.OwnerRepository;
 import com.nixiedroid.petclinic.repository.PetRepository;
 import jakarta.annotation.Nonnull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * Service class for managing owners.
@@ -24,17 +37,31 @@ public class OwnerService {
 
     private final OwnerRepository ownerRepository;
     private final PetRepository petRepository;
+    private final ApplicationEventPublisher events;
+    private final CacheManager cacheManager;
+    private final OwnerNameIndex nameIndex;
+    private final EntityCacheEvictor entityCache;
 
     /**
      * Constructs a new {@link OwnerService} with the specified repositories.
      *
      * @param ownerRepository the repository for managing owners
      * @param petRepository the repository for managing pets
+     * @param events the publisher of {@link OwnerChanged} events
+     * @param cacheManager the cache manager holding the owner DTO cache
+     * @param nameIndex the in-memory index of owner last names
+     * @param entityCache evicts the second-level cache entries of native writes
      */
     @Autowired
-    public OwnerService(OwnerRepository ownerRepository, PetRepository petRepository) {
+    public OwnerService(OwnerRepository ownerRepository, PetRepository petRepository,
+                        ApplicationEventPublisher events, CacheManager cacheManager,
+                        OwnerNameIndex nameIndex, EntityCacheEvictor entityCache) {
         this.ownerRepository = ownerRepository;
         this.petRepository = petRepository;
+        this.events = events;
+        this.cacheManager = cacheManager;
+        this.nameIndex = nameIndex;
+        this.entityCache = entityCache;
     }
 
     /**
@@ -42,28 +69,94 @@ public class OwnerService {
      *
      * @return a list of {@link OwnerDTO} objects representing all owners
      */
+    @Transactional(readOnly = true)
     public List<OwnerDTO> getAllOwners() {
-        return ownerRepository.findAll().stream().map(this::toDto).toList();
+        return ownerRepository.findAll().stream().map(OwnerDTO::create).toList();
+    }
+
+    /**
+     * Retrieves a keyset page of owners and converts them to DTOs.
+     * <br>The page is resolved on ids first, then the owners of the page are fetched together
+     * with their pets, so a page costs two queries regardless of its size.
+     * <br>One extra id is fetched to find out whether a following page exists.
+     *
+     * @param after the id of the last owner of the previous page
+     * @param limit the maximum number of owners in the page
+     * @return a {@link KeysetPage} of {@link OwnerDTO} objects ordered by id
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<OwnerDTO> getOwners(@Nonnull Long after, int limit) {
+        KeysetPage<Long> ids = KeysetPage.of(ownerRepository.findIdsAfter(after, Limit.of(limit + 1)),
+                limit, Function.identity());
+        if (ids.items().isEmpty()) {
+            return new KeysetPage<>(List.of(), null);
+        }
+        List<OwnerDTO> owners = ownerRepository.findByIdInOrderByIdAsc(ids.items()).stream()
+                .map(OwnerDTO::create).toList();
+        return new KeysetPage<>(owners, ids.next());
+    }
+
+    /**
+     * Finds the owners whose last name starts with the given prefix, ignoring case, and converts them to DTOs.
+     * <br>Matching ids are taken from the {@link OwnerNameIndex} once it is built, otherwise from
+     * an index range scan on {@code last_name_key}. The owners are then fetched with their pets by one query.
+     *
+     * @param lastName the last name prefix
+     * @param limit the maximum number of owners to return
+     * @return a list of {@link OwnerDTO} objects ordered by lower case last name, then id
+     */
+    @Transactional(readOnly = true)
+    public List<OwnerDTO> searchOwners(@Nonnull String lastName, int limit) {
+        List<Long> ids = nameIndex.isReady()
+                ? nameIndex.search(lastName, limit)
+                : ownerRepository.findIdsByLastNameKeyLike(OwnerNameIndex.likePattern(lastName), Limit.of(limit));
+        return IdResolver.resolve(ids, ownerRepository::findByIdInOrderByIdAsc, Owner::getId).stream()
+                .map(OwnerDTO::create).toList();
     }
 
     /**
      * Retrieves an owner by their unique identifier and converts them to a DTO.
+     * <br>Found owners are cached until they or one of their pets change. The owner is read from the primary,
+     * so a lagging replica cannot cache it as it was before a write, see {@link ReadRouting}.
      *
      * @param id the unique identifier of the owner
      * @return an {@link Optional} containing the {@link OwnerDTO} if found, or empty if not found
      */
+    @Cacheable(cacheNames = CacheConfig.OWNERS, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Optional<OwnerDTO> getOwnerById(@Nonnull Long id) {
-        return ownerRepository.findDistinctById(id).map(this::toDto);
+        return ReadRouting.onPrimary(() -> ownerRepository.findDistinctById(id).map(OwnerDTO::create));
+    }
+
+    /**
+     * Computes the entity tag of an owner without building its DTO.
+     * <br>A cached owner is tagged from the cache. Otherwise the versions of the owner and its pets
+     * are read by a single query, no entity is loaded.
+     *
+     * @param id the unique identifier of the owner
+     * @return an {@link Optional} containing the tag, or empty if not found
+     * @see EntityTags
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getOwnerTag(@Nonnull Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.OWNERS);
+        OwnerDTO cached = cache == null ? null : cache.get(id, OwnerDTO.class);
+        if (cached != null) {
+            return Optional.of(EntityTags.of(cached));
+        }
+        return EntityTags.of(ownerRepository.findVersionsById(id));
     }
 
     /**
      * Checks if an owner exists by their unique identifier.
+     * <br>The owner is loaded into the persistence context, which is shared by the whole request,
+     * so saving it afterwards does not read it again.
      *
      * @param id the unique identifier of the owner
      * @return true if an owner with the specified ID exists, false otherwise
      */
     public boolean existsById(@Nonnull Long id) {
-        return ownerRepository.existsById(id);
+        return ownerRepository.findById(id).isPresent();
     }
 
     /**
@@ -73,10 +166,11 @@ public class OwnerService {
      * @param dto the {@link OwnerDTO} containing the owner data
      * @return the saved {@link OwnerDTO}
      */
+    @Transactional
     public OwnerDTO saveOwner(@Nonnull OwnerDTO dto) {
         Optional<Owner> ownerEntity = Optional.empty();
         if (dto.id() != null) {
-            ownerEntity = ownerRepository.findDistinctById(dto.id());
+            ownerEntity = ownerRepository.findById(dto.id());
         }
         Owner o;
         if (ownerEntity.isEmpty()) { // Insert sequence
@@ -86,38 +180,85 @@ public class OwnerService {
             o = ownerEntity.get();
             fillEntity(o, dto);
         }
-        return toDto(ownerRepository.save(o));
+        Owner entity = ownerRepository.save(o);
+        OwnerDTO saved = OwnerDTO.create(entity);
+        events.publishEvent(new OwnerChanged(saved.id(), saved.lastName(), saved.city(), ownedPetIds(entity), false));
+        return saved;
     }
 
     /**
-     * Deletes an owner by their unique identifier.
+     * Updates the owner with the ID of the provided DTO, or creates it if it does not exist.
+     * <br>The owner row is written by a single insert-or-update statement; a created owner receives a new ID
+     * and no pets. An updated owner keeps only the pets listed in the DTO, the others are deleted
+     * by a single statement.
+     * <br>The owner row bypasses Hibernate, so its second-level cache entry is evicted, see {@link EntityCacheEvictor}.
      *
-     * @param id the unique identifier of the owner
+     * @param dto the {@link OwnerDTO} containing the owner data and a non-null ID
+     * @return the saved {@link OwnerDTO} and whether it was created
      */
-    public void deleteOwner(@Nonnull Long id) {
-        ownerRepository.deleteById(id);
+    @Transactional
+    public Upserted<OwnerDTO> upsertOwner(@Nonnull OwnerDTO dto) {
+        Owner o = Owner.builder()
+                .firstName(dto.firstName())
+                .lastName(dto.lastName())
+                .address(dto.address())
+                .city(dto.city())
+                .telephone(dto.telephone())
+                .build();
+        Upserted<Long> saved = ownerRepository.upsert(dto.id(), o);
+        o.setId(saved.value());
+        entityCache.ownerUpserted(o.getId());
+        if (!saved.created()) {
+            List<Long> keep = dto.pets() == null ? List.of() : dto.pets().stream()
+                    .map(PetPlain::id)
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (keep.isEmpty()) {
+                petRepository.deleteByOwnerId(o.getId());
+            } else {
+                petRepository.deleteByOwnerIdExcept(o.getId(), keep);
+            }
+            o.setPets(petRepository.findByOwnerIdOrderById(o.getId()));
+        }
+        events.publishEvent(new OwnerChanged(o.getId(), o.getLastName(), o.getCity(),
+                o.getPets().stream().map(Pet::getId).toList(), false));
+        return saved.map(id -> OwnerDTO.create(o));
     }
 
     /**
-     * Converts an {@link Owner} entity to an {@link OwnerDTO}.
+     * Deletes an owner by their unique identifier with a single statement.
+     * <br>Its pets are deleted by the database, their second-level cache entries are evicted
+     * by {@link EntityCacheEvictor#ownerDeleting(Long)}.
      *
-     * @param o the {@link Owner} entity
-     * @return the {@link OwnerDTO} representation of the owner
+     * @param id the unique identifier of the owner
+     * @return true if the owner was deleted, false if it did not exist
      */
-    public OwnerDTO toDto(@Nonnull Owner o) {
-        return OwnerDTO.builder()
-                .id(o.getId())
-                .firstName(o.getFirstName())
-                .lastName(o.getLastName())
-                .address(o.getAddress())
-                .city(o.getCity())
-                .telephone(o.getTelephone())
-                .pets(PetPlain.create(o.getPets()))
-                .build();
+    @Transactional
+    public boolean deleteOwner(@Nonnull Long id) {
+        entityCache.ownerDeleting(id);
+        boolean deleted = ownerRepository.deleteRowById(id) > 0;
+        if (deleted) {
+            events.publishEvent(new OwnerChanged(id, null, null, null, true));
+        }
+        return deleted;
+    }
+
+
+    /**
+     * Lists the identifiers of the pets a saved owner has.
+     * <br>Pets of other owners listed in the DTO stay with their owners and are skipped.
+     */
+    private static List<Long> ownedPetIds(Owner o) {
+        return o.getPets().stream()
+                .filter(p -> p.getOwner() != null && Objects.equals(p.getOwner().getId(), o.getId()))
+                .map(Pet::getId)
+                .toList();
     }
 
     /**
      * Fills an {@link Owner} entity with data from an {@link OwnerDTO}.
+     * <br>Pets are resolved by id with at most one query, pets held in the second-level cache are not read again;
+     * ids of non-existent pets are skipped.
      *
      * @param o the {@link Owner} entity to fill
      * @param dto the {@link OwnerDTO} containing the data
@@ -128,9 +269,7 @@ public class OwnerService {
         o.setAddress(dto.address());
         o.setTelephone(dto.telephone());
         o.setCity(dto.city());
-        o.setPets(dto.pets().stream()
-                .map(p -> petRepository.findDistinctById(p.id()))
-                .filter(Optional::isPresent)
-                .map(Optional::get).collect(Collectors.toList()));
+        List<Long> petIds = dto.pets() == null ? List.of() : dto.pets().stream().map(PetPlain::id).toList();
+        o.setPets(IdResolver.resolve(petIds, petRepository::loadAllById, Pet::getId));
     }
 }
\ No newline at end of file
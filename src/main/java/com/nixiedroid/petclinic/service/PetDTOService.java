@@ -43,6 +43,8 @@ public class PetDTOService implements Validator {
     /**
      * Validates the given target object.
      * <br>This method checks if the {@link PetDTO} has a non-null owner and if the owner exists in the repository.
+     * <br>The owner is loaded rather than counted, so the service saving the pet later in the same request
+     * finds it in the persistence context instead of reading it again.
      * <br>If validation fails, appropriate error messages are added to the {@link Errors} object.
      *
      * @param target the object to validate
@@ -53,7 +55,7 @@ public class PetDTOService implements Validator {
         PetDTO pet = (PetDTO) target;
         if (pet.owner() == null) {
             errors.rejectValue("owner", "owner", "Owner Must Not Be Null");
-        } else if (!ownerRepository.existsById(pet.owner().id())) {
+        } else if (ownerRepository.findById(pet.owner().id()).isEmpty()) {
             errors.rejectValue("owner", "owner", "Not Existent Owner");
         }
         if (pet.name() == null) {
@@ -0,0 +1,341 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.config.ReadRouting;
+import com.nixiedroid.petclinic.event.PetChanged;
+import com.nixiedroid.petclinic.model.PetTerms;
+import com.nixiedroid.petclinic.repository.PetRepository;
+import jakarta.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index of the words of pet names and types.
+ * <br>Names and types are split into lower case tokens of letters and digits, see {@link PetTerms#tokenize}.
+ * Each token maps to the ids of the pets containing it, and tokens are kept sorted, so the tokens
+ * starting with a term are a contiguous range. Pets are also listed under the first
+ * {@value #SHORT_PREFIX} letters of their tokens, so a short term, which starts many tokens,
+ * reads a single id set instead of merging the sets of all those tokens.
+ * <br>A search reads the ids of the tokens matching its longest term in id order and stops
+ * once the page is full; every term is then checked against the current tokens of each candidate.
+ * <br>The index is built from the database on startup and kept in sync by {@link PetChanged} events
+ * and by {@link OwnerBulkService}. Pets deleted along with their owner are dropped when
+ * a search meets them, see {@link PetService#searchPets}.
+ * <br>
+ */
+@Slf4j
+@Component
+public class PetSearchIndex {
+
+    /**
+     * Terms up to this length are served from the pets listed by token prefix
+     */
+    static final int SHORT_PREFIX = 2;
+
+    private final PetRepository petRepository;
+    private final boolean enabled;
+    /**
+     * Pet ids by token
+     */
+    private final Postings postings = new Postings();
+    /**
+     * Pet ids by the prefixes of their tokens up to {@link #SHORT_PREFIX} letters long
+     */
+    private final Postings prefixes = new Postings();
+    private final Map<Long, Set<String>> tokens = new ConcurrentHashMap<>();
+    private final Set<Long> deletedWhileBuilding = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new {@link PetSearchIndex}.
+     *
+     * @param petRepository the repository the index is built from
+     * @param enabled whether the index is built and used
+     */
+    @Autowired
+    public PetSearchIndex(PetRepository petRepository,
+                          @Value("${petclinic.pets.search-index.enabled:true}") boolean enabled) {
+        this.petRepository = petRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Tells whether searches can be served from the index.
+     *
+     * @return true once the index is built
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds the pets having, for every term, a word of their name or type starting with it.
+     *
+     * @param terms the terms, see {@link #tokenize(String...)}
+     * @param after the id of the last pet of the previous page
+     * @param limit the maximum number of ids to return
+     * @return the ids of the matching pets greater than {@code after}, ascending
+     */
+    public List<Long> search(@Nonnull List<String> terms, @Nonnull Long after, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        if (terms.isEmpty()) {
+            return ids;
+        }
+        String driver = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        Iterator<Long> candidates = candidates(driver, after);
+        while (ids.size() < limit && candidates.hasNext()) {
+            Long id = candidates.next();
+            Set<String> words = tokens.get(id);
+            if (words != null && PetTerms.matchesAll(words, terms)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Merges the id sets of every token starting with the term, in ascending id order without duplicates.
+     * <br>A short term reads the single id set of its prefix instead.
+     */
+    private Iterator<Long> candidates(String term, Long after) {
+        if (term.length() <= SHORT_PREFIX) {
+            NavigableSet<Long> ids = prefixes.get(term);
+            return ids == null ? Collections.emptyIterator() : ids.tailSet(after, false).iterator();
+        }
+        PriorityQueue<PeekingIterator> queue = new PriorityQueue<>(Comparator.comparing(PeekingIterator::peek));
+        for (NavigableSet<Long> ids : postings.startingWith(term)) {
+            PeekingIterator it = new PeekingIterator(ids.tailSet(after, false).iterator());
+            if (it.peek() != null) {
+                queue.add(it);
+            }
+        }
+        return new Iterator<>() {
+            private Long last;
+
+            @Override
+            public boolean hasNext() {
+                while (!queue.isEmpty() && queue.peek().peek().equals(last)) {
+                    advance();
+                }
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = queue.peek().peek();
+                advance();
+                return last;
+            }
+
+            private void advance() {
+                PeekingIterator it = queue.poll();
+                it.next();
+                if (it.peek() != null) {
+                    queue.add(it);
+                }
+            }
+        };
+    }
+
+    /**
+     * Adds a pet to the index or replaces its name and type.
+     *
+     * @param id   the identifier of the pet
+     * @param name the name of the pet
+     * @param type the type of the pet
+     */
+    public void put(@Nonnull Long id, String name, String type) {
+        Set<String> words = Set.copyOf(tokenize(name, type));
+        Set<String> starts = prefixesOf(words);
+        tokens.compute(id, (k, old) -> {
+            if (old != null) {
+                old.stream().filter(w -> !words.contains(w)).forEach(w -> postings.unlink(w, id));
+                prefixesOf(old).stream().filter(w -> !starts.contains(w)).forEach(w -> prefixes.unlink(w, id));
+            }
+            words.forEach(w -> postings.link(w, id));
+            starts.forEach(w -> prefixes.link(w, id));
+            return words;
+        });
+    }
+
+    /**
+     * Removes a pet from the index.
+     *
+     * @param id the identifier of the pet
+     */
+    public void remove(@Nonnull Long id) {
+        tokens.compute(id, (k, old) -> {
+            if (old != null) {
+                old.forEach(w -> postings.unlink(w, id));
+                prefixesOf(old).forEach(w -> prefixes.unlink(w, id));
+            }
+            if (!ready) {
+                deletedWhileBuilding.add(id);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Counts the distinct tokens of the indexed pets.
+     *
+     * @return the number of tokens having at least one pet
+     */
+    int tokenCount() {
+        return postings.ids.size();
+    }
+
+    /**
+     * Lists the prefixes of the words up to {@link #SHORT_PREFIX} letters long, the words shorter than that included.
+     */
+    private static Set<String> prefixesOf(Set<String> words) {
+        Set<String> starts = new HashSet<>();
+        for (String word : words) {
+            for (int length = 1; length <= Math.min(SHORT_PREFIX, word.length()); length++) {
+                starts.add(word.substring(0, length));
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Applies a pet change once it is committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPetChanged(PetChanged event) {
+        if (event.deleted()) {
+            remove(event.petId());
+        } else {
+            put(event.petId(), event.name(), event.type());
+        }
+    }
+
+    /**
+     * Builds the index from the database.
+     * <br>Pets written while the index is built are kept as written: rows read afterwards
+     * neither overwrite them nor bring deleted pets back.
+     * <br>The index follows committed writes, so it is built from the primary.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        ReadRouting.runOnPrimary(() -> {
+            try (Stream<PetTerms> pets = petRepository.streamTerms()) {
+                pets.forEach(p -> tokens.compute(p.id(), (k, current) -> {
+                    if (current != null || deletedWhileBuilding.contains(p.id())) {
+                        return current;
+                    }
+                    Set<String> words = Set.copyOf(tokenize(p.name(), p.type()));
+                    words.forEach(w -> postings.link(w, p.id()));
+                    prefixesOf(words).forEach(w -> prefixes.link(w, p.id()));
+                    return words;
+                }));
+            }
+        });
+        ready = true;
+        deletedWhileBuilding.clear();
+        log.info("Indexed {} pets, {} tokens in {} ms", tokens.size(), tokenCount(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Splits texts into the lower case words of letters and digits the index is built from.
+     * <br>Queries are split the same way, each word becoming a term.
+     *
+     * @param texts the texts, null texts are skipped
+     * @return the distinct words, in order of appearance
+     * @see PetTerms#tokenize(String...)
+     */
+    public static List<String> tokenize(String... texts) {
+        return PetTerms.tokenize(texts);
+    }
+
+    /**
+     * Pet id sets by key, with the keys kept sorted.
+     * <br>A set is created by the first id linked to its key and dropped with the last id unlinked from it,
+     * both within the atomic {@code compute} of its key, so an id is never added to a dropped set.
+     * The sorted keys are updated within the same call.
+     */
+    private static final class Postings {
+        private final Map<String, NavigableSet<Long>> ids = new ConcurrentHashMap<>();
+        private final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+
+        NavigableSet<Long> get(String key) {
+            return ids.get(key);
+        }
+
+        /**
+         * Lists the id sets of the keys starting with the term; keys dropped meanwhile are skipped.
+         */
+        List<NavigableSet<Long>> startingWith(String term) {
+            List<NavigableSet<Long>> sets = new ArrayList<>();
+            for (String key : keys.subSet(term, true, term + Character.MAX_VALUE, false)) {
+                NavigableSet<Long> set = ids.get(key);
+                if (set != null) {
+                    sets.add(set);
+                }
+            }
+            return sets;
+        }
+
+        void link(String key, Long id) {
+            ids.compute(key, (k, set) -> {
+                if (set == null) {
+                    set = new ConcurrentSkipListSet<>();
+                    keys.add(k);
+                }
+                set.add(id);
+                return set;
+            });
+        }
+
+        void unlink(String key, Long id) {
+            ids.computeIfPresent(key, (k, set) -> {
+                set.remove(id);
+                if (set.isEmpty()) {
+                    keys.remove(k);
+                    return null;
+                }
+                return set;
+            });
+        }
+    }
+
+    /**
+     * Iterator exposing its next element without consuming it
+     */
+    private static final class PeekingIterator {
+        private final Iterator<Long> it;
+        private Long next;
+
+        PeekingIterator(Iterator<Long> it) {
+            this.it = it;
+            this.next = it.hasNext() ? it.next() : null;
+        }
+
+        Long peek() {
+            return next;
+        }
+
+        void next() {
+            next = it.hasNext() ? it.next() : null;
+        }
+    }
+}
@@ -1,16 +1,29 @@
 package com.nixiedroid.petclinic.service;
 
-import com.nixiedroid.petclinic.model.OwnerPlain;
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.config.PrimaryReads;
+import com.nixiedroid.petclinic.config.ReadRouting;
+import com.nixiedroid.petclinic.event.PetChanged;
+import com.nixiedroid.petclinic.model.KeysetPage;
 import com.nixiedroid.petclinic.model.Pet;
 import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.PetUpsertRow;
+import com.nixiedroid.petclinic.model.Upserted;
 import com.nixiedroid.petclinic.repository.OwnerRepository;
 import com.nixiedroid.petclinic.repository.PetRepository;
 import jakarta.annotation.Nonnull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -24,36 +37,130 @@ public class PetService {
 
     private final OwnerRepository ownerRepository;
     private final PetRepository petRepository;
+    private final ApplicationEventPublisher events;
+    private final CacheManager cacheManager;
+    private final PetSearchIndex searchIndex;
+    private final PrimaryReads primaryReads;
+    private final EntityCacheEvictor entityCache;
 
     /**
      * Constructs a new {@link PetService} with the specified repositories.
      *
      * @param ownerRepository the repository for managing owners
      * @param petRepository the repository for managing pets
+     * @param events the publisher of {@link PetChanged} events
+     * @param cacheManager the cache manager holding the pet DTO cache
+     * @param searchIndex the in-memory index of pet names and types
+     * @param primaryReads reads the primary when a replica is missing indexed pets
+     * @param entityCache evicts the second-level cache entries of native writes
      */
     @Autowired
-    public PetService(OwnerRepository ownerRepository, PetRepository petRepository) {
+    public PetService(OwnerRepository ownerRepository, PetRepository petRepository,
+                      ApplicationEventPublisher events, CacheManager cacheManager,
+                      PetSearchIndex searchIndex, PrimaryReads primaryReads, EntityCacheEvictor entityCache) {
         this.ownerRepository = ownerRepository;
         this.petRepository = petRepository;
+        this.events = events;
+        this.cacheManager = cacheManager;
+        this.searchIndex = searchIndex;
+        this.primaryReads = primaryReads;
+        this.entityCache = entityCache;
     }
 
     /**
-     * Retrieves all pets and converts them to DTOs.
+     * Retrieves all pets as DTOs.
+     * <br>Pets and their owners are read by a single projection query.
      *
      * @return a list of {@link PetDTO} objects representing all pets
      */
+    @Transactional(readOnly = true)
     public List<PetDTO> getAllPets() {
-        return petRepository.findAll().stream().map(this::toDto).collect(Collectors.toList());
+        return petRepository.findAllDtos();
     }
 
     /**
-     * Retrieves a pet by its unique identifier and converts it to a DTO.
+     * Retrieves a keyset page of pets as DTOs.
+     * <br>Pets and their owners are read by a single projection query.
+     * One extra row is fetched to find out whether a following page exists.
+     *
+     * @param after the id of the last pet of the previous page
+     * @param limit the maximum number of pets in the page
+     * @return a {@link KeysetPage} of {@link PetDTO} objects ordered by id
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<PetDTO> getPets(@Nonnull Long after, int limit) {
+        return KeysetPage.of(petRepository.findDtosAfter(after, Limit.of(limit + 1)), limit, PetDTO::id);
+    }
+
+    /**
+     * Retrieves a keyset page of the pets matching a query as DTOs.
+     * <br>The query is split into terms like pet names and types, see {@link PetSearchIndex#tokenize};
+     * a pet matches if, for every term, a word of its name or type starts with the term.
+     * <br>Matching ids are taken from the {@link PetSearchIndex} once it is built, then the pets
+     * are read by a single projection query. Ids of pets deleted without an event, along with their owner,
+     * are dropped from the index and the page is searched again. Pets missing from a replica may have been
+     * created after it was last updated, so they are read from the primary before being dropped.
+     * Until the index is built, pets are matched by {@code LIKE} patterns instead.
+     *
+     * @param query the search query
+     * @param after the id of the last pet of the previous page
+     * @param limit the maximum number of pets in the page
+     * @return a {@link KeysetPage} of {@link PetDTO} objects ordered by id
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<PetDTO> searchPets(@Nonnull String query, @Nonnull Long after, int limit) {
+        List<String> terms = PetSearchIndex.tokenize(query);
+        if (terms.isEmpty()) {
+            return new KeysetPage<>(List.of(), null);
+        }
+        if (!searchIndex.isReady()) {
+            return KeysetPage.of(petRepository.findDtosMatching(terms, after, limit + 1), limit, PetDTO::id);
+        }
+        while (true) {
+            List<Long> ids = searchIndex.search(terms, after, limit + 1);
+            List<PetDTO> pets = ids.isEmpty() ? List.of() : petRepository.findDtosByIdIn(ids);
+            if (pets.size() != ids.size() && primaryReads.isReplicated()) {
+                pets = primaryReads.read(() -> petRepository.findDtosByIdIn(ids));
+            }
+            if (pets.size() == ids.size()) {
+                return KeysetPage.of(pets, limit, PetDTO::id);
+            }
+            Set<Long> found = pets.stream().map(PetDTO::id).collect(Collectors.toSet());
+            ids.stream().filter(id -> !found.contains(id)).forEach(searchIndex::remove);
+        }
+    }
+
+    /**
+     * Retrieves a pet by its unique identifier as a DTO.
+     * <br>Found pets are cached until they or their owner change. The pet is read from the primary,
+     * so a lagging replica cannot cache it as it was before a write, see {@link ReadRouting}.
      *
      * @param id the unique identifier of the pet
      * @return an {@link Optional} containing the {@link PetDTO} if found, or empty if not found
      */
+    @Cacheable(cacheNames = CacheConfig.PETS, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Optional<PetDTO> getPetById(@Nonnull Long id) {
-        return petRepository.findById(id).map(this::toDto);
+        return ReadRouting.onPrimary(() -> petRepository.findDtoById(id));
+    }
+
+    /**
+     * Computes the entity tag of a pet without building its DTO.
+     * <br>A cached pet is tagged from the cache. Otherwise the versions of the pet and its owner
+     * are read by a single query, no entity is loaded.
+     *
+     * @param id the unique identifier of the pet
+     * @return an {@link Optional} containing the tag, or empty if not found
+     * @see EntityTags
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getPetTag(@Nonnull Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.PETS);
+        PetDTO cached = cache == null ? null : cache.get(id, PetDTO.class);
+        if (cached != null) {
+            return Optional.of(EntityTags.of(cached));
+        }
+        return petRepository.findVersionsById(id).flatMap(row -> EntityTags.of(List.of(row)));
     }
 
     /**
@@ -63,55 +170,77 @@ public class PetService {
      * @param dto the {@link PetDTO} containing the pet data
      * @return the saved {@link PetDTO}
      */
+    @Transactional
     public PetDTO savePet(@Nonnull PetDTO dto) {
         Optional<Pet> petEntity = Optional.empty();
         if (dto.id() != null) {
             petEntity = petRepository.findById(dto.id());
         }
         Pet p;
+        Long previousOwnerId = null;
         if (petEntity.isEmpty()) { // Insert sequence
             p = new Pet();
             fillEntity(p, dto);
         } else { // Update sequence
             p = petEntity.get();
+            previousOwnerId = p.getOwner().getId();
             fillEntity(p, dto);
         }
-        return toDto(petRepository.save(p));
+        PetDTO saved = PetDTO.create(petRepository.save(p));
+        events.publishEvent(new PetChanged(saved.id(), p.getOwner().getId(), previousOwnerId,
+                saved.name(), saved.type(), false));
+        return saved;
     }
 
     /**
-     * Deletes a pet by its unique identifier.
+     * Updates the pet with the ID of the provided DTO, or creates it if it does not exist.
+     * <br>The pet is written by a single insert-or-update statement; a created pet receives a new ID.
+     * The owner is expected in the persistence context already, as loaded by {@link PetDTOService}.
+     * <br>The statement bypasses Hibernate, so the second-level cache entries of the pet and of the pet lists
+     * of its current and previous owners are evicted, see {@link EntityCacheEvictor}.
      *
-     * @param id the unique identifier of the pet
+     * @param dto the {@link PetDTO} containing the pet data and a non-null ID
+     * @return the saved {@link PetDTO} and whether it was created
      */
-    public void deletePet(@Nonnull Long id) {
-        petRepository.deleteById(id);
+    @Transactional
+    public Upserted<PetDTO> upsertPet(@Nonnull PetDTO dto) {
+        Pet p = new Pet();
+        fillEntity(p, dto);
+        Upserted<PetUpsertRow> saved = petRepository.upsert(dto.id(), p);
+        p.setId(saved.value().id());
+        Long previousOwnerId = saved.value().previousOwnerId();
+        entityCache.petUpserted(p.getId(), p.getOwner().getId(), previousOwnerId);
+        events.publishEvent(new PetChanged(p.getId(), p.getOwner().getId(), previousOwnerId,
+                p.getName(), p.getType(), false));
+        return saved.map(row -> PetDTO.create(p));
     }
 
     /**
-     * Converts a {@link Pet} entity to a {@link PetDTO}.
+     * Deletes a pet by its unique identifier with a single statement.
      *
-     * @param p the {@link Pet} entity
-     * @return the {@link PetDTO} representation of the pet
+     * @param id the unique identifier of the pet
+     * @return true if the pet was deleted, false if it did not exist
      */
-    public PetDTO toDto(@Nonnull Pet p) {
-        return PetDTO.builder()
-                .id(p.getId())
-                .name(p.getName())
-                .birthDate(p.getBirthDate())
-                .type(p.getType())
-                .owner(OwnerPlain.create(p.getOwner()))
-                .build();
+    @Transactional
+    public boolean deletePet(@Nonnull Long id) {
+        boolean deleted = petRepository.deleteRowById(id) > 0;
+        if (deleted) {
+            events.publishEvent(new PetChanged(id, null, null, null, null, true));
+        }
+        return deleted;
     }
 
+
     /**
      * Checks if a pet exists by its unique identifier.
+     * <br>The pet is loaded into the persistence context, which is shared by the whole request,
+     * so saving it afterwards does not read it again.
      *
      * @param id the unique identifier of the pet
      * @return true if a pet with the specified ID exists, false otherwise
      */
     public boolean existsById(@Nonnull Long id) {
-        return petRepository.existsById(id);
+        return petRepository.findById(id).isPresent();
     }
 
     /**
@@ -124,7 +253,7 @@ public class PetService {
         p.setName(dto.name());
         p.setType(dto.type());
         p.setBirthDate(dto.birthDate());
-        p.setOwner(ownerRepository.findDistinctById(dto.owner().id())
+        p.setOwner(ownerRepository.findById(dto.owner().id())
                 .orElseThrow(IllegalArgumentException::new));
     }
 }
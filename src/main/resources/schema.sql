@@ -1,20 +1,35 @@
+-- H2 schema, see schema-postgresql.sql for Postgres
 CREATE SCHEMA IF NOT EXISTS site;
+-- Identifier sequences
+-- Hibernate reserves a block of INCREMENT BY identifiers per sequence call (pooled-lo optimizer)
+-- and adopts the increment declared here (increment_size_mismatch_strategy=fix), the entities declare no allocationSize
+CREATE SEQUENCE site.owners_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE site.pets_seq START WITH 1 INCREMENT BY 50;
+
 -- Create Owner table
 CREATE TABLE site.owners (
-                        id SERIAL PRIMARY KEY,
+                        id BIGINT DEFAULT nextval('site.owners_seq') PRIMARY KEY,
                         first_name VARCHAR(50) NOT NULL,
                         last_name VARCHAR(50) NOT NULL,
                         address VARCHAR(100),
                         city VARCHAR(50),
-                        telephone VARCHAR(20)
+                        telephone VARCHAR(20),
+                        -- Lower case last name for case-insensitive prefix search
+                        last_name_key VARCHAR(50) GENERATED ALWAYS AS (LOWER(last_name)),
+                        -- Optimistic lock and entity tag version, incremented by every update
+                        version BIGINT DEFAULT 0 NOT NULL
 );
 
+-- Serves last name prefix ranges in search order
+CREATE INDEX owners_last_name_key_idx ON site.owners (last_name_key, id);
+
 -- Create Pet table
 CREATE TABLE site.pets (
-                      id SERIAL PRIMARY KEY,
+                      id BIGINT DEFAULT nextval('site.pets_seq') PRIMARY KEY,
                       name VARCHAR(50) NOT NULL,
                       birth_date DATE,
                       type VARCHAR(30) NOT NULL,
-                      owner_id INTEGER,
+                      owner_id BIGINT,
+                      version BIGINT DEFAULT 0 NOT NULL,
                       FOREIGN KEY (owner_id) REFERENCES site.owners(id) ON DELETE CASCADE
 );
@@ -0,0 +1,45 @@
+package com.nixiedroid.petclinic;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that requests, repository calls, the connection pool, the DTO caches, the database executor and Hibernate
+ * are published at {@code /actuator/prometheus}, while the environment and the mappings are not exposed.
+ */
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MetricsTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    void prometheusEndpoint() {
+        assertEquals(HttpStatus.OK, rest.getForEntity("/owners?limit=5", String.class).getStatusCode());
+        assertEquals(HttpStatus.OK, rest.getForEntity("/async/pets?limit=5", String.class).getStatusCode());
+
+        ResponseEntity<String> response = rest.getForEntity("/actuator/prometheus", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String metrics = response.getBody();
+        assertNotNull(metrics);
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(metrics.matches("(?s).*http_server_requests_seconds_count\\{[^}]*uri=\"/owners\".*"));
+        assertTrue(metrics.contains("spring_data_repository_invocations_seconds_bucket{"));
+        assertTrue(metrics.matches("(?s).*spring_data_repository_invocations_seconds_count\\{[^}]*method=\"findDtosAfter\"[^}]*repository=\"PetRepository\".*"));
+        assertTrue(metrics.contains("hikaricp_connections_active{"));
+        assertTrue(metrics.matches("(?s).*cache_gets_total\\{[^}]*cache=\"owners\".*"));
+        assertTrue(metrics.contains("hibernate_query_executions_total{"));
+        assertEquals(HttpStatus.NOT_FOUND, rest.getForEntity("/actuator/env", String.class).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, rest.getForEntity("/actuator/mappings", String.class).getStatusCode());
+        assertTrue(metrics.matches("(?s).*petclinic_db_executor_tasks_total\\{[^}]*result=\"completed\"[^}]*} 1.0.*"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.nixiedroid.petclinic;
+
+import com.nixiedroid.petclinic.config.QueryCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the throughput and p99 latency of {@code GET /pets} on platform and on virtual request threads.
+ * <br>Every SQL statement is delayed by {@link #DB_LATENCY}, as by a slow database, while {@link #CLIENTS}
+ * clients send requests back to back. Tomcat is limited to {@link #TOMCAT_THREADS} threads and the pool to
+ * {@link #POOL_SIZE} connections, a scaled down 200 threads in front of a larger pool: platform threads
+ * are expected to cap throughput near {@code TOMCAT_THREADS / DB_LATENCY}, virtual threads near
+ * {@code POOL_SIZE / DB_LATENCY}. The latency is long enough for waiting, not CPU, to bound both modes.
+ * <br>Both modes must answer every request and virtual threads must serve more; the results of each are logged.
+ * <br>Tagged {@code load}, it runs with the {@code load} Maven profile only: {@code ./mvnw -Pload test -Dtest=VirtualThreadLoadTest}
+ */
+@Slf4j
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    private static final int TOMCAT_THREADS = 8;
+    private static final int POOL_SIZE = 16;
+    private static final int CLIENTS = 32;
+    private static final Duration DB_LATENCY = Duration.ofMillis(200);
+    private static final Duration WARM_UP = Duration.ofSeconds(1);
+    private static final Duration RUN = Duration.ofSeconds(3);
+
+    private record Result(String mode, long requests, long errors, double throughput, double p50, double p99) {
+    }
+
+    @Test
+    public void testCompareThroughputAndP99() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        for (Result r : List.of(platform, virtual)) {
+            log.info("{} threads: {} requests, {} errors, {} req/s, p50 {} ms, p99 {} ms", r.mode(), r.requests(),
+                    r.errors(), String.format("%.0f", r.throughput()), String.format("%.1f", r.p50()),
+                    String.format("%.1f", r.p99()));
+        }
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+        assertTrue(virtual.throughput() > platform.throughput());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PetClinicApplication.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=load",
+                "--spring.jmx.enabled=false",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + SlowStatementInspector.class.getName())) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://127.0.0.1:" + port + "/pets?limit=20");
+            SlowStatementInspector.resetThreads();
+            Result result = load(virtualThreads ? "Virtual" : "Platform", uri);
+            if (virtualThreads) {
+                assertEquals(0, SlowStatementInspector.PLATFORM.get(), "statements run on platform threads");
+            } else {
+                assertEquals(0, SlowStatementInspector.VIRTUAL.get(), "statements run on virtual threads");
+            }
+            return result;
+        }
+    }
+
+    private static Result load(String mode, URI uri) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long measureFrom = System.nanoTime() + WARM_UP.toNanos();
+        long end = measureFrom + RUN.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<List<Long>>> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(executor.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long done = System.nanoTime();
+                        if (now >= measureFrom) {
+                            latencies.add(done - now);
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                    return latencies;
+                }));
+            }
+        }
+        List<Long> all = new ArrayList<>();
+        for (Future<List<Long>> f : clients) {
+            all.addAll(f.get());
+        }
+        long[] sorted = all.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return new Result(mode, sorted.length, errors.get(), sorted.length / (RUN.toNanos() / 1e9),
+                percentile(sorted, 0.50), percentile(sorted, 0.99));
+    }
+
+    /**
+     * @return the latency below which the given fraction of requests completed, in milliseconds
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    /**
+     * Counts statements as {@link QueryCounter} does, delaying each by {@link #DB_LATENCY}
+     * and recording whether it ran on a virtual thread.
+     */
+    public static class SlowStatementInspector extends QueryCounter {
+
+        static final AtomicLong VIRTUAL = new AtomicLong();
+        static final AtomicLong PLATFORM = new AtomicLong();
+
+        static void resetThreads() {
+            VIRTUAL.set(0);
+            PLATFORM.set(0);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            (Thread.currentThread().isVirtual() ? VIRTUAL : PLATFORM).incrementAndGet();
+            try {
+                Thread.sleep(DB_LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.inspect(sql);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.nixiedroid.petclinic.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that repeated reads are served from the DTO cache and that writes evict the affected entries.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CacheConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void getOwner_CachedUntilPetChanges() throws Exception {
+        mockMvc.perform(get("/owners/1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/owners/1"))
+                .andExpect(status().isOk())
+                .andExpect(request().attribute(QueryCountFilter.ATTRIBUTE, 0L));
+
+        mockMvc.perform(put("/pets/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":1,\"name\":\"Max\",\"type\":\"Dog\",\"owner\":{\"id\":1}}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/owners/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pets[?(@.id == 1)].name").value("Max"));
+        assertInstanceOf(IndexedCaffeineCache.class, cacheManager.getCache(CacheConfig.OWNERS));
+        CacheStats stats = ((CaffeineCache) cacheManager.getCache(CacheConfig.OWNERS)).getNativeCache().stats();
+        assertTrue(stats.hitCount() >= 1);
+        assertTrue(stats.missCount() >= 2);
+    }
+
+    @Test
+    void getPet_CachedUntilOwnerChanges() throws Exception {
+        mockMvc.perform(get("/pets/2"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/pets/2"))
+                .andExpect(status().isOk())
+                .andExpect(request().attribute(QueryCountFilter.ATTRIBUTE, 0L));
+
+        mockMvc.perform(put("/owners/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":2,\"firstName\":\"Janet\",\"lastName\":\"Smith\",\"pets\":[{\"id\":2}]}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/pets/2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.owner.firstName", is("Janet")));
+    }
+
+    @Test
+    void getOwner_MissingNotCached() throws Exception {
+        mockMvc.perform(get("/owners/-1"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/owners/-1"))
+                .andExpect(status().isNotFound())
+                .andExpect(request().attribute(QueryCountFilter.ATTRIBUTE, 1L));
+    }
+}
@@ -0,0 +1,47 @@
+package com.nixiedroid.petclinic.config;
+
+import com.nixiedroid.petclinic.model.Owner;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.classloading.internal.ClassLoaderServiceImpl;
+import org.hibernate.boot.registry.classloading.spi.ClassLoaderService;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityCacheRegionFactoryTest {
+
+    private static final Map<String, Object> PROPERTIES = Map.of("hibernate.javax.cache.uri", "ehcache.xml");
+
+    private final SessionFactoryOptions options = Mockito.mock(SessionFactoryOptions.class);
+
+    @BeforeEach
+    public void setUp() {
+        StandardServiceRegistry registry = Mockito.mock(StandardServiceRegistry.class);
+        Mockito.when(options.getServiceRegistry()).thenReturn(registry);
+        Mockito.when(registry.getService(ClassLoaderService.class)).thenReturn(new ClassLoaderServiceImpl());
+    }
+
+    @Test
+    public void testResolveCacheManager_OnePerFactory() {
+        try (CacheManager first = new EntityCacheRegionFactory().resolveCacheManager(options, PROPERTIES);
+             CacheManager second = new EntityCacheRegionFactory().resolveCacheManager(options, PROPERTIES)) {
+            assertNotSame(first, second);
+            assertNotEquals(first.getURI(), second.getURI());
+
+            Cache<Object, Object> owners = first.getCache(Owner.class.getName());
+            owners.put(1L, "owner");
+            assertNull(second.getCache(Owner.class.getName()).get(1L));
+
+            second.close();
+            assertFalse(first.isClosed());
+            assertEquals("owner", owners.get(1L));
+        }
+    }
+}
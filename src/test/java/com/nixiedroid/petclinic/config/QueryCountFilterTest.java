@@ -0,0 +1,184 @@
+package com.nixiedroid.petclinic.config;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.hamcrest.Matchers.either;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that validators and services share the request-wide persistence context,
+ * so every entity is read at most once per request, that entities are reused
+ * from the second-level cache across requests, and that unchanged conditional reads cost at most one query.
+ * <br>The context is shared with other tests, so every test writes rows it creates itself.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryCountFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private static ResultMatcher statements(long count) {
+        return request().attribute(QueryCountFilter.ATTRIBUTE, count);
+    }
+
+    /**
+     * Creates an owner, so tests sharing the context leave the seed rows untouched
+     */
+    private long createOwner() throws Exception {
+        String owner = mockMvc.perform(post("/owners")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Jane\",\"lastName\":\"Roe\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.parse(owner).read("$.id", Long.class);
+    }
+
+    private long createPet(long ownerId) throws Exception {
+        String pet = mockMvc.perform(post("/pets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Tom\",\"type\":\"Cat\",\"owner\":{\"id\":" + ownerId + "}}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.parse(pet).read("$.id", Long.class);
+    }
+
+    private static String petJson(long id, long ownerId) {
+        return "{\"id\":" + id + ",\"name\":\"Tom\",\"type\":\"Cat\",\"owner\":{\"id\":" + ownerId + "}}";
+    }
+
+    @Test
+    void createPet_ReadsOwnerOnce() throws Exception {
+        long owner = createOwner();
+        entityManagerFactory.getCache().evictAll();
+        // select owner, insert pet, and the next sequence value once the reserved identifier block is used up
+        mockMvc.perform(post("/pets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Rex\",\"type\":\"Dog\",\"owner\":{\"id\":" + owner + "}}"))
+                .andExpect(status().isCreated())
+                .andExpect(request().attribute(QueryCountFilter.ATTRIBUTE, either(is(2L)).or(is(3L))));
+    }
+
+    @Test
+    void updatePet_SingleWrite() throws Exception {
+        long owner = createOwner();
+        long pet = createPet(owner);
+        entityManagerFactory.getCache().evictAll();
+        // select owner, upsert pet
+        mockMvc.perform(put("/pets/{id}", pet)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(petJson(pet, owner)))
+                .andExpect(status().isOk())
+                .andExpect(statements(2));
+    }
+
+    @Test
+    void updatePet_OwnerFromSecondLevelCache() throws Exception {
+        long owner = createOwner();
+        long pet = createPet(owner);
+        entityManagerFactory.getCache().evictAll();
+        // select owner, upsert pet
+        mockMvc.perform(put("/pets/{id}", pet)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(petJson(pet, owner)))
+                .andExpect(status().isOk())
+                .andExpect(statements(2));
+        // upsert pet
+        mockMvc.perform(put("/pets/{id}", pet)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(petJson(pet, owner)))
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+    }
+
+    @Test
+    void updateOwner_SingleWrite() throws Exception {
+        long owner = createOwner();
+        long pet = createPet(owner);
+        entityManagerFactory.getCache().evictAll();
+        // upsert owner, delete unlisted pets, select remaining pets
+        mockMvc.perform(put("/owners/{id}", owner)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + owner + ",\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"pets\":[{\"id\":" + pet + "}]}"))
+                .andExpect(status().isOk())
+                .andExpect(statements(3));
+    }
+
+    @Test
+    void getOwner_NotModifiedFromTag() throws Exception {
+        long owner = createOwner();
+        long pet = createPet(owner);
+        String tag = mockMvc.perform(get("/owners/{id}", owner))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // tag of the cached owner
+        mockMvc.perform(get("/owners/{id}", owner).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified())
+                .andExpect(statements(0));
+        // versions of the owner and its pets
+        cacheManager.getCache(CacheConfig.OWNERS).clear();
+        mockMvc.perform(get("/owners/{id}", owner).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified())
+                .andExpect(statements(1));
+
+        mockMvc.perform(put("/pets/{id}", pet)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(petJson(pet, owner)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/owners/{id}", owner).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(tag)));
+    }
+
+    @Test
+    void deleteOwner_SingleStatement() throws Exception {
+        String owner = mockMvc.perform(post("/owners")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"A\",\"lastName\":\"B\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = JsonPath.parse(owner).read("$.id", Long.class);
+        mockMvc.perform(put("/pets/{id}", 0)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":0,\"name\":\"Rex\",\"type\":\"Dog\",\"owner\":{\"id\":" + id + "}}"))
+                .andExpect(status().isCreated());
+
+        // pets are removed by ON DELETE CASCADE
+        mockMvc.perform(delete("/owners/{id}", id))
+                .andExpect(status().isNoContent())
+                .andExpect(statements(1));
+        mockMvc.perform(delete("/owners/{id}", id))
+                .andExpect(status().isNotFound())
+                .andExpect(statements(1));
+    }
+}
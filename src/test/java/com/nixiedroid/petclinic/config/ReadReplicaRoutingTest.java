@@ -0,0 +1,160 @@
+package com.nixiedroid.petclinic.config;
+
+import com.nixiedroid.petclinic.model.Owner;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.util.Objects;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the application against two in-memory databases, the replica telling itself apart
+ * by the last name of owner 1.
+ * <br>The context is not dirtied: closing it would close the second-level cache shared with the cached contexts,
+ * and the databases it writes to are its own.
+ */
+@SpringBootTest(properties = {
+        "petclinic.replica.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "petclinic.replica.datasource.jdbc-url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1"})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    @TestConfiguration
+    static class Replica {
+
+        @Bean
+        static BeanPostProcessor replicaInitializer() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (beanName.equals("replicaDataSource")) {
+                        DataSource replica = (DataSource) bean;
+                        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"),
+                                new ClassPathResource("data.sql")).execute(replica);
+                        new JdbcTemplate(replica).update("UPDATE site.owners SET last_name = 'Replica' WHERE id = 1");
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replica;
+
+    @BeforeEach
+    public void setUp() {
+        clearCaches();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        emf.getCache().evictAll();
+    }
+
+    private ResultActions read(MockHttpServletRequestBuilder request) throws Exception {
+        clearCaches();
+        return mockMvc.perform(request).andExpect(status().isOk());
+    }
+
+    private static String lastName(DataSource dataSource, long id) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT last_name FROM site.owners WHERE id = ?", String.class, id);
+    }
+
+    @Test
+    void readsUseTheReplica() throws Exception {
+        read(get("/owners")).andExpect(jsonPath("$[0].lastName", is("Replica")));
+        read(get("/owners/search").param("lastName", "Doe")).andExpect(jsonPath("$[0].lastName", is("Replica")));
+        clearCaches();
+        MvcResult started = mockMvc.perform(get("/async/owners"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(jsonPath("$[0].lastName", is("Replica")));
+    }
+
+    @Test
+    void cachesAreFilledFromThePrimary() throws Exception {
+        read(get("/owners")).andExpect(jsonPath("$[0].lastName", is("Replica")));
+        assertFalse(emf.getCache().contains(Owner.class, 1L));
+
+        read(get("/owners/{id}", 1L)).andExpect(jsonPath("$.lastName", is("Doe")));
+        mockMvc.perform(get("/owners/{id}", 1L)).andExpect(jsonPath("$.lastName", is("Doe")));
+    }
+
+    @Test
+    void searchKeepsPetsMissingFromTheReplica() throws Exception {
+        mockMvc.perform(post("/pets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"name\": \"Lagging\", \"type\": \"Dog\", \"birthDate\": \"2020-01-01\", "
+                                + "\"owner\": { \"id\": 1 } }"))
+                .andExpect(status().isCreated());
+
+        read(get("/pets/search").param("q", "lagging")).andExpect(jsonPath("$[0].name", is("Lagging")));
+        read(get("/pets/search").param("q", "lagging")).andExpect(jsonPath("$[0].name", is("Lagging")));
+    }
+
+    @Test
+    void clientReadsItsWritesFromThePrimary() throws Exception {
+        MvcResult written = mockMvc.perform(put("/owners/{id}", 2L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"id\": 2, \"firstName\": \"Jane\", \"lastName\": \"Written\" }"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(ReadRoutingFilter.HEADER))
+                .andReturn();
+        String until = written.getResponse().getHeader(ReadRoutingFilter.HEADER);
+        assertTrue(Long.parseLong(Objects.requireNonNull(until)) > System.currentTimeMillis());
+        assertEquals("Written", lastName(primary, 2));
+        assertEquals("Smith", lastName(replica, 2));
+
+        read(get("/owners")).andExpect(jsonPath("$[1].lastName", is("Smith")));
+        read(get("/owners").header(ReadRoutingFilter.HEADER, until))
+                .andExpect(jsonPath("$[1].lastName", is("Written")));
+        read(get("/owners").header(ReadRoutingFilter.HEADER, "0"))
+                .andExpect(jsonPath("$[1].lastName", is("Smith")));
+        read(get("/owners").header(ReadRoutingFilter.HEADER, Long.toString(Long.MAX_VALUE)))
+                .andExpect(jsonPath("$[1].lastName", is("Smith")));
+
+        clearCaches();
+        MvcResult started = mockMvc.perform(get("/async/owners").header(ReadRoutingFilter.HEADER, until))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(jsonPath("$[1].lastName", is("Written")));
+    }
+}
@@ -0,0 +1,73 @@
+package com.nixiedroid.petclinic.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadRoutingDataSourceTest {
+
+    private final DataSource primary = Mockito.mock(DataSource.class);
+    private final DataSource replica = Mockito.mock(DataSource.class);
+    private final Connection primaryConnection = Mockito.mock(Connection.class);
+    private final Connection replicaConnection = Mockito.mock(Connection.class);
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(replica.getConnection()).thenReturn(replicaConnection);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadRouting.clear();
+    }
+
+    @Test
+    public void testGetConnection_ReadOnlyTransactionsUseTheReplica() throws Exception {
+        ReadRoutingDataSource routing = new ReadRoutingDataSource(primary, replica, Duration.ofSeconds(10));
+        assertSame(primaryConnection, routing.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(replicaConnection, routing.getConnection());
+
+        ReadRouting.requirePrimary();
+        assertSame(primaryConnection, routing.getConnection());
+        assertTrue(CompletableFuture.supplyAsync(ReadRouting.propagate(ReadRouting::isPrimaryRequired)).get());
+        ReadRouting.clear();
+        assertSame(replicaConnection, routing.getConnection());
+    }
+
+    @Test
+    public void testGetConnection_FallsBackToThePrimaryUntilRetry() throws Exception {
+        ReadRoutingDataSource routing = new ReadRoutingDataSource(primary, replica, Duration.ofMillis(200));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        routing.bindTo(registry);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Mockito.when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("down"));
+        assertSame(primaryConnection, routing.getConnection());
+        Mockito.reset(replica);
+        Mockito.when(replica.getConnection()).thenReturn(replicaConnection);
+        assertSame(primaryConnection, routing.getConnection());
+        Mockito.verifyNoInteractions(replica);
+        assertEquals(2, registry.get("petclinic.datasource.replica.fallbacks").functionCounter().count());
+
+        Thread.sleep(250);
+        assertSame(replicaConnection, routing.getConnection());
+        assertEquals(1, registry.get("petclinic.datasource.connections").tag("target", "replica")
+                .functionCounter().count());
+    }
+}
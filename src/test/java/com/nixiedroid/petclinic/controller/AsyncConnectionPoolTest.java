@@ -0,0 +1,65 @@
+package com.nixiedroid.petclinic.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sends more concurrent writes to the asynchronous endpoints than the pool has connections.
+ * <br>Each pet has an owner that is not in the second-level cache, so checking it reads the database.
+ * Request threads must not hold connections the executor threads need, or the executor times out
+ * waiting for the pool.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=2000"})
+class AsyncConnectionPoolTest {
+
+    private static final int REQUESTS = 16;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void writesBeyondPoolSize() {
+        List<Long> owners = IntStream.range(0, REQUESTS).mapToObj(i -> {
+            long id = 1000 + i;
+            jdbc.update("INSERT INTO site.owners (id, first_name, last_name) VALUES (?, 'Pool', 'Owner')", id);
+            return id;
+        }).toList();
+
+        HttpClient client = HttpClient.newHttpClient();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (Long owner : owners) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/async/pets"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{ \"name\": \"Pool\", \"type\": \"Dog\", \"owner\": { \"id\": " + owner + " } }"))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            HttpResponse<String> r = response.join();
+            assertEquals(201, r.statusCode(), r.body());
+        }
+        assertEquals(REQUESTS, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM site.pets WHERE name = 'Pool'", Integer.class));
+    }
+}
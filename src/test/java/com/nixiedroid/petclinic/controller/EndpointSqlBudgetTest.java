@@ -0,0 +1,155 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.data.SyntheticDataLoader;
+import com.nixiedroid.petclinic.sql.SqlRecorder;
+import com.nixiedroid.petclinic.sql.SqlRecorderConfig;
+import com.nixiedroid.petclinic.sql.SqlRecording;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Holds every endpoint to a budget of SQL statements and statement time, with cold caches.
+ * <br>The budgets do not grow with the number of owners or pets involved: exceeding one is
+ * typically an N+1 fetch of {@code Owner.pets} or {@code Pet.owner}, listed in the failure message.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(SqlRecorderConfig.class)
+@DirtiesContext
+class EndpointSqlBudgetTest {
+
+    private static final Duration SLOWEST = Duration.ofMillis(500);
+
+    @TestConfiguration
+    static class Data {
+
+        @Bean
+        SyntheticDataLoader syntheticDataLoader() {
+            return new SyntheticDataLoader(300, 3, 7, 100);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlRecorder recorder;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long ownerId;
+    private long petId;
+
+    @BeforeEach
+    public void setUp() {
+        ownerId = Objects.requireNonNull(jdbc.queryForObject(
+                "SELECT owner_id FROM site.pets GROUP BY owner_id ORDER BY COUNT(*) DESC, owner_id LIMIT 1", Long.class));
+        petId = Objects.requireNonNull(jdbc.queryForObject(
+                "SELECT MIN(id) FROM site.pets WHERE owner_id = ?", Long.class, ownerId));
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        emf.getCache().evictAll();
+    }
+
+    private SqlRecording record(MockHttpServletRequestBuilder request, ResultMatcher expected) throws Exception {
+        clearCaches();
+        return recorder.record(() -> mockMvc.perform(request).andExpect(expected));
+    }
+
+    private SqlRecording recordAsync(MockHttpServletRequestBuilder request, ResultMatcher expected) throws Exception {
+        clearCaches();
+        return recorder.record(() -> {
+            MvcResult started = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+            mockMvc.perform(asyncDispatch(started)).andExpect(expected);
+        });
+    }
+
+    @Test
+    void ownerReads() throws Exception {
+        record(get("/owners").param("limit", "100"), status().isOk()).assertAtMost(2).assertNoneSlowerThan(SLOWEST);
+        record(get("/owners/{id}", ownerId), status().isOk()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+        record(get("/owners/search").param("lastName", "Smi"), status().isOk()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+        recordAsync(get("/owners/stream"), status().isOk()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+        recordAsync(get("/async/owners/{id}", ownerId), status().isOk()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+    }
+
+    @Test
+    void petReads() throws Exception {
+        record(get("/pets").param("limit", "100"), status().isOk()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+        record(get("/pets/{id}", petId), status().isOk()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+        record(get("/pets/search").param("q", "max dog"), status().isOk()).assertAtMost(2).assertNoneSlowerThan(SLOWEST);
+        recordAsync(get("/pets/stream"), status().isOk()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+        recordAsync(get("/async/pets").param("limit", "100"), status().isOk()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+        record(get("/stats"), status().isOk()).assertAtMost(0).assertNoneSlowerThan(SLOWEST);
+    }
+
+    @Test
+    void ownerWrites() throws Exception {
+        record(post("/owners").contentType(MediaType.APPLICATION_JSON).content("""
+                {"firstName": "A", "lastName": "B", "pets": [{"name": "C", "type": "Dog"}, {"name": "D", "type": "Cat"}]}
+                """), status().isCreated()).assertAtMost(2).assertNoneSlowerThan(SLOWEST);
+        record(put("/owners/{id}", ownerId).contentType(MediaType.APPLICATION_JSON).content("""
+                {"id": %d, "firstName": "A", "lastName": "B"}
+                """.formatted(ownerId)), status().isOk()).assertAtMost(3).assertNoneSlowerThan(SLOWEST);
+        record(post("/owners/_bulk").contentType(MediaType.APPLICATION_JSON).content("""
+                [{"firstName": "A", "lastName": "B", "pets": [{"name": "C", "type": "Dog"}]},
+                 {"firstName": "E", "lastName": "F", "pets": [{"name": "G", "type": "Cat"}]},
+                 {"firstName": "H", "lastName": "I"}]
+                """), status().isOk()).assertAtMost(3).assertNoneSlowerThan(SLOWEST);
+        record(delete("/owners/{id}", ownerId), status().isNoContent()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+    }
+
+    @Test
+    void petWrites() throws Exception {
+        record(post("/pets").contentType(MediaType.APPLICATION_JSON).content("""
+                {"name": "A", "type": "Dog", "owner": {"id": %d}}
+                """.formatted(ownerId)), status().isCreated()).assertAtMost(2).assertNoneSlowerThan(SLOWEST);
+        record(put("/pets/{id}", petId).contentType(MediaType.APPLICATION_JSON).content("""
+                {"id": %d, "name": "A", "type": "Cat", "owner": {"id": %d}}
+                """.formatted(petId, ownerId)), status().isOk()).assertAtMost(2).assertNoneSlowerThan(SLOWEST);
+        record(delete("/pets/{id}", petId), status().isNoContent()).assertAtMost(1).assertNoneSlowerThan(SLOWEST);
+    }
+
+    @Test
+    void failureListsStatements() throws Exception {
+        SqlRecording recording = record(get("/owners/{id}", ownerId), status().isOk());
+
+        AssertionFailedError e = assertThrows(AssertionFailedError.class, () -> recording.assertAtMost(0));
+        assertTrue(e.getMessage().contains("but " + recording.count() + " were executed"));
+        assertTrue(e.getMessage().contains("site.owners"), e.getMessage());
+        assertThrows(AssertionFailedError.class, () -> recording.assertNoneSlowerThan(Duration.ofMillis(-1)));
+    }
+}
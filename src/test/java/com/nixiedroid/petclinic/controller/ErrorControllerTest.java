@@ -1,6 +1,7 @@
 package com.nixiedroid.petclinic.controller;
 
 import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.JsonCache;
 import com.nixiedroid.petclinic.service.OwnerService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -24,9 +25,13 @@ class ErrorControllerTest {
     @MockBean
     private ErrorMapper mapper;
 
+    @SuppressWarnings("unused")
+    @MockBean
+    private JsonCache jsonCache;
+
     @Test
     void anyException() throws Exception {
-        Mockito.when(ownerService.getAllOwners()).thenThrow(new RuntimeException("Test Exception"));
+        Mockito.when(ownerService.getOwners(0L, 100)).thenThrow(new RuntimeException("Test Exception"));
         mockMvc.perform(MockMvcRequestBuilders.get("/owners"))
                 .andExpect(MockMvcResultMatchers.status().isInternalServerError())
                 .andExpect(MockMvcResultMatchers.content()
@@ -0,0 +1,61 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportController.class)
+class ExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportService exportService;
+
+    @Test
+    void streamOwners() throws Exception {
+        Mockito.doAnswer(inv -> {
+            inv.getArgument(0, OutputStream.class).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportOwners(any());
+
+        MvcResult result = mockMvc.perform(get("/owners/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void streamPets() throws Exception {
+        Mockito.doAnswer(inv -> {
+            inv.getArgument(0, OutputStream.class).write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportPets(any());
+
+        MvcResult result = mockMvc.perform(get("/pets/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+}
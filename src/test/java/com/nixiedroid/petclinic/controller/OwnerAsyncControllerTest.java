@@ -0,0 +1,164 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.KeysetPage;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.Upserted;
+import com.nixiedroid.petclinic.service.DatabaseExecutor;
+import com.nixiedroid.petclinic.service.EntityTags;
+import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.JsonCache;
+import com.nixiedroid.petclinic.service.OwnerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(OwnerAsyncController.class)
+class OwnerAsyncControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OwnerService ownerService;
+
+    @SuppressWarnings("unused")
+    @MockBean
+    private ErrorMapper mapper;
+
+    @SuppressWarnings("unused")
+    @MockBean
+    private JsonCache jsonCache;
+
+    @MockBean
+    private DatabaseExecutor db;
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(db.supply(Mockito.any())).thenAnswer(inv ->
+                CompletableFuture.completedFuture(inv.<Supplier<?>>getArgument(0).get()));
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    @Test
+    public void testGetAllOwners() throws Exception {
+        Mockito.when(ownerService.getOwners(0L, 1))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(createOwnerDTO()), 1L));
+        performAsync(get("/async/owners").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "1"))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].lastName", is("B")));
+    }
+
+    @Test
+    public void testGetOwnerById() throws Exception {
+        OwnerDTO ownerDTO = createOwnerDTO();
+        String tag = EntityTags.of(ownerDTO);
+        Mockito.when(ownerService.getOwnerById(1L)).thenReturn(Optional.of(ownerDTO));
+        Mockito.when(ownerService.getOwnerTag(1L)).thenReturn(Optional.of(tag));
+
+        performAsync(get("/async/owners/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, tag))
+                .andExpect(jsonPath("$.firstName").value("A"));
+        performAsync(get("/async/owners/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"stale\", W/" + tag))
+                .andExpect(status().isNotModified());
+        performAsync(get("/async/owners/{id}", 2L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testSearchOwners() throws Exception {
+        Mockito.when(ownerService.searchOwners("B", 100))
+                .thenReturn(Collections.singletonList(createOwnerDTO()));
+        performAsync(get("/async/owners/search").param("lastName", "B"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$[0].id", is(1)));
+
+        performAsync(get("/async/owners/search").param("lastName", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.lastName").exists());
+    }
+
+    @Test
+    public void testCreateOwner() throws Exception {
+        performAsync(post("/async/owners")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"firstName\": \"A\", \"lastName\": \"B\" }"))
+                .andExpect(status().isCreated());
+
+        Mockito.when(ownerService.existsById(1L)).thenReturn(true);
+        performAsync(post("/async/owners")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\": 1,  \"firstName\": \"A\", \"lastName\": \"B\" }"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$").isMap());
+    }
+
+    @Test
+    public void testPutOwner() throws Exception {
+        Mockito.when(ownerService.upsertOwner(Mockito.any()))
+                .thenReturn(new Upserted<>(createOwnerDTO(), false));
+        performAsync(put("/async/owners/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"id\": 1, \"firstName\": \"A\", \"lastName\": \"B\" }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("A")));
+
+        performAsync(put("/async/owners/{id}", 2L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"id\": 1, \"firstName\": \"A\", \"lastName\": \"B\" }"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testDeleteOwner() throws Exception {
+        Mockito.when(ownerService.deleteOwner(1L)).thenReturn(true);
+        performAsync(delete("/async/owners/{id}", 1L))
+                .andExpect(status().isNoContent());
+        performAsync(delete("/async/owners/{id}", -1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testRejected_ServiceUnavailable() throws Exception {
+        Mockito.doReturn(CompletableFuture.failedFuture(new RejectedExecutionException()))
+                .when(db).supply(Mockito.any());
+        performAsync(get("/async/owners/{id}", 1L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        Mockito.verifyNoInteractions(ownerService);
+    }
+
+    private OwnerDTO createOwnerDTO() {
+        return OwnerDTO.builder()
+                .id((long) 1).firstName("A").lastName("B")
+                .address(null).city(null).telephone(null).pets(null).build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.BulkItemResult;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.service.OwnerBulkService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OwnerBulkController.class)
+class OwnerBulkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OwnerBulkService bulkService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createOwnersJson() throws Exception {
+        Mockito.when(bulkService.createOwners(any())).thenReturn(List.of(
+                new BulkItemResult(0, 201, 10L, null),
+                new BulkItemResult(1, 400, null, Map.of("firstName", "First name must be at least 1 characters long"))));
+
+        mockMvc.perform(post("/owners/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"firstName\": \"A\", \"lastName\": \"B\", \"pets\": [{\"name\": \"C\", \"type\": \"D\"}]}," +
+                                "{\"firstName\": \"\", \"lastName\": \"B\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is(201)))
+                .andExpect(jsonPath("$[0].id", is(10)))
+                .andExpect(jsonPath("$[1].status", is(400)))
+                .andExpect(jsonPath("$[1].errors").isMap());
+
+        ArgumentCaptor<List<OwnerDTO>> owners = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(bulkService).createOwners(owners.capture());
+        assertEquals(2, owners.getValue().size());
+        assertEquals("C", owners.getValue().get(0).pets().get(0).name());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createOwnersNdjson() throws Exception {
+        Mockito.when(bulkService.createOwners(any())).thenReturn(List.of(
+                new BulkItemResult(0, 201, 10L, null),
+                new BulkItemResult(1, 201, 11L, null)));
+
+        mockMvc.perform(post("/owners/_bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"firstName\": \"A\", \"lastName\": \"B\"}\n{\"firstName\": \"C\", \"lastName\": \"D\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].id", is(11)));
+
+        ArgumentCaptor<List<OwnerDTO>> owners = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(bulkService).createOwners(owners.capture());
+        assertEquals("C", owners.getValue().get(1).firstName());
+    }
+
+    @Test
+    void createOwnersNdjsonMalformed() throws Exception {
+        mockMvc.perform(post("/owners/_bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"firstName\": \"A\"\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$").isMap());
+    }
+}
@@ -1,7 +1,12 @@
 package com.nixiedroid.petclinic.controller;
 
+import com.nixiedroid.petclinic.model.JsonBody;
+import com.nixiedroid.petclinic.model.KeysetPage;
 import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.Upserted;
+import com.nixiedroid.petclinic.service.EntityTags;
 import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.JsonCache;
 import com.nixiedroid.petclinic.service.OwnerService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -9,14 +14,18 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -33,21 +42,27 @@ class OwnerControllerTest {
     @MockBean
     private ErrorMapper mapper;
 
+    @MockBean
+    private JsonCache jsonCache;
+
     @SuppressWarnings("unused")
     @InjectMocks
     private OwnerController ownerController;
 
     @Test
     public void testGetAllOwners() throws Exception {
-        Mockito.when(ownerService.getAllOwners()).thenReturn(Collections.emptyList());
+        Mockito.when(ownerService.getOwners(0L, 100))
+                .thenReturn(new KeysetPage<>(Collections.emptyList(), null));
         mockMvc.perform(get("/owners")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$").isEmpty());
 
         OwnerDTO owner = createOwnerDTO();
-        Mockito.when(ownerService.getAllOwners()).thenReturn(Collections.singletonList(owner));
+        Mockito.when(ownerService.getOwners(0L, 100))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(owner), null));
         mockMvc.perform(get("/owners")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -57,6 +72,24 @@ class OwnerControllerTest {
                 .andExpect(jsonPath("$[0].lastName", is("B")));
     }
 
+    @Test
+    public void testGetAllOwnersPaged() throws Exception {
+        OwnerDTO owner = createOwnerDTO();
+        Mockito.when(ownerService.getOwners(0L, 1))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(owner), 1L));
+        mockMvc.perform(get("/owners").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "1"))
+                .andExpect(jsonPath("$[0].id", is(1)));
+
+        Mockito.when(ownerService.getOwners(1L, 1000))
+                .thenReturn(new KeysetPage<>(Collections.emptyList(), null));
+        mockMvc.perform(get("/owners").param("after", "1").param("limit", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
     @Test
     public void testGetOwnerByIdFound() throws Exception {
         Long ownerId = 1L;
@@ -75,6 +108,79 @@ class OwnerControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testGetOwnerById_ETag() throws Exception {
+        OwnerDTO ownerDTO = createOwnerDTO();
+        String tag = EntityTags.of(ownerDTO);
+        Mockito.when(ownerService.getOwnerById(1L)).thenReturn(Optional.of(ownerDTO));
+
+        mockMvc.perform(get("/owners/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, tag));
+        Mockito.verify(ownerService, Mockito.never()).getOwnerTag(1L);
+    }
+
+    @Test
+    public void testGetOwnerById_NotModified() throws Exception {
+        String tag = EntityTags.of(createOwnerDTO());
+        Mockito.when(ownerService.getOwnerTag(1L)).thenReturn(Optional.of(tag));
+
+        mockMvc.perform(get("/owners/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag));
+        Mockito.verify(ownerService, Mockito.never()).getOwnerById(1L);
+    }
+
+    @Test
+    public void testGetOwnerById_Modified() throws Exception {
+        OwnerDTO ownerDTO = createOwnerDTO();
+        Mockito.when(ownerService.getOwnerTag(1L)).thenReturn(Optional.of(EntityTags.of(ownerDTO)));
+        Mockito.when(ownerService.getOwnerById(1L)).thenReturn(Optional.of(ownerDTO));
+
+        mockMvc.perform(get("/owners/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, EntityTags.of(ownerDTO)))
+                .andExpect(jsonPath("$.firstName").value("A"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        Mockito.when(ownerService.getOwnerTag(2L)).thenReturn(Optional.empty());
+        mockMvc.perform(get("/owners/{id}", 2L).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetOwnerById_FromJsonCache() throws Exception {
+        JsonBody body = new JsonBody("{\"id\":1,\"firstName\":\"A\"}".getBytes(), "\"t\"", Set.of());
+        Mockito.when(jsonCache.isEnabled()).thenReturn(true);
+        Mockito.when(jsonCache.getOwner(1L)).thenReturn(Optional.of(body));
+        Mockito.when(jsonCache.getOwner(2L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/owners/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"t\""))
+                .andExpect(jsonPath("$.firstName").value("A"));
+        mockMvc.perform(get("/owners/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"t\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/owners/{id}", 2L))
+                .andExpect(status().isNotFound());
+        Mockito.verifyNoInteractions(ownerService);
+    }
+
+    @Test
+    public void testGetAllOwners_NotModified() throws Exception {
+        OwnerDTO owner = createOwnerDTO();
+        String tag = EntityTags.ofOwners(Collections.singletonList(owner));
+        Mockito.when(ownerService.getOwners(0L, 100))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(owner), null));
+
+        mockMvc.perform(get("/owners"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, tag));
+        mockMvc.perform(get("/owners").header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     public void testCreateOwner() throws Exception {
         Long ownerId = 1L;
@@ -115,11 +221,21 @@ class OwnerControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$").isMap());
 
+        Mockito.when(ownerService.upsertOwner(Mockito.any()))
+                .thenReturn(new Upserted<>(createOwnerDTO(), true));
         mockMvc.perform(put("/owners/{id}", ownerId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{ \"id\": 1, \"firstName\": \"A\", \"lastName\": \"B\" }"))
                 .andExpect(status().isCreated());
 
+        Mockito.when(ownerService.upsertOwner(Mockito.any()))
+                .thenReturn(new Upserted<>(createOwnerDTO(), false));
+        mockMvc.perform(put("/owners/{id}", ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"id\": 1, \"firstName\": \"A\", \"lastName\": \"B\" }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("A")));
+
         mockMvc.perform(put("/owners/{id}", 2)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{ \"id\": 1, \"\": \"A\", \"lastName\": \"B\" }"))
@@ -127,15 +243,37 @@ class OwnerControllerTest {
                 .andExpect(jsonPath("$").isMap());
     }
 
+    @Test
+    public void testSearchOwners() throws Exception {
+        Mockito.when(ownerService.searchOwners("B", 100))
+                .thenReturn(Collections.singletonList(createOwnerDTO()));
+        mockMvc.perform(get("/owners/search").param("lastName", "B"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].lastName", is("B")));
+
+        Mockito.when(ownerService.searchOwners("B", 5)).thenReturn(Collections.emptyList());
+        mockMvc.perform(get("/owners/search").param("lastName", "B").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        mockMvc.perform(get("/owners/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.lastName").exists());
+        mockMvc.perform(get("/owners/search").param("lastName", " "))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testDeleteOwner() throws Exception {
         Long ownerId = 1L;
         Long nxID =-1L;
-        Mockito.when(ownerService.existsById(ownerId)).thenReturn(true);
+        Mockito.when(ownerService.deleteOwner(ownerId)).thenReturn(true);
         mockMvc.perform(delete("/owners/{id}", ownerId))
                 .andExpect(status().isNoContent());
         mockMvc.perform(delete("/owners/{id}", nxID))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isNotFound());
     }
 
     private OwnerDTO createOwnerDTO() {
@@ -0,0 +1,127 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.KeysetPage;
+import com.nixiedroid.petclinic.model.OwnerPlain;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.Upserted;
+import com.nixiedroid.petclinic.service.DatabaseExecutor;
+import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.JsonCache;
+import com.nixiedroid.petclinic.service.PetDTOService;
+import com.nixiedroid.petclinic.service.PetService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PetAsyncController.class)
+class PetAsyncControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PetService petService;
+
+    @MockBean
+    private PetDTOService petDTOService;
+
+    @SuppressWarnings("unused")
+    @MockBean
+    private ErrorMapper mapper;
+
+    @SuppressWarnings("unused")
+    @MockBean
+    private JsonCache jsonCache;
+
+    @MockBean
+    private DatabaseExecutor db;
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(db.supply(Mockito.any())).thenAnswer(inv ->
+                CompletableFuture.completedFuture(inv.<Supplier<?>>getArgument(0).get()));
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    @Test
+    void getAllPets() throws Exception {
+        Mockito.when(petService.getPets(0L, 100))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(createPetDTO()), null));
+        performAsync(get("/async/pets"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].name", is("A")));
+    }
+
+    @Test
+    void searchPets() throws Exception {
+        Mockito.when(petService.searchPets("a", 0L, 100))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(createPetDTO()), null));
+        performAsync(get("/async/pets/search").param("q", "a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("A")));
+
+        performAsync(get("/async/pets/search").param("q", "--"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.q").exists());
+    }
+
+    @Test
+    void createAndPutPet() throws Exception {
+        Mockito.when(petDTOService.supports(PetDTO.class)).thenReturn(true);
+        Mockito.when(petService.existsById(1L)).thenReturn(true);
+        performAsync(post("/async/pets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\": 1,  \"name\": \"A\", \"type\": \"B\" }"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$").isMap());
+
+        Mockito.when(petService.upsertPet(Mockito.any()))
+                .thenReturn(new Upserted<>(createPetDTO(), true));
+        performAsync(put("/async/pets/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"id\": 1}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name", is("A")));
+    }
+
+    @Test
+    void rejected() throws Exception {
+        Mockito.doReturn(CompletableFuture.failedFuture(new RejectedExecutionException()))
+                .when(db).supply(Mockito.any());
+        performAsync(delete("/async/pets/{id}", 1L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        Mockito.verifyNoInteractions(petService);
+    }
+
+    private PetDTO createPetDTO() {
+        return PetDTO.builder()
+                .id((long) 1).name("A").owner(OwnerPlain.builder().build()).build();
+    }
+}
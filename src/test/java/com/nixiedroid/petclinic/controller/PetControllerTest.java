@@ -1,8 +1,13 @@
 package com.nixiedroid.petclinic.controller;
 
+import com.nixiedroid.petclinic.model.JsonBody;
+import com.nixiedroid.petclinic.model.KeysetPage;
 import com.nixiedroid.petclinic.model.OwnerPlain;
 import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.Upserted;
+import com.nixiedroid.petclinic.service.EntityTags;
 import com.nixiedroid.petclinic.service.ErrorMapper;
+import com.nixiedroid.petclinic.service.JsonCache;
 import com.nixiedroid.petclinic.service.PetDTOService;
 import com.nixiedroid.petclinic.service.PetService;
 import org.junit.jupiter.api.Test;
@@ -11,15 +16,18 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,6 +49,9 @@ class PetControllerTest {
     @MockBean
     private ErrorMapper mapper;
 
+    @MockBean
+    private JsonCache jsonCache;
+
     @SuppressWarnings("unused")
     @InjectMocks
     private PetController petController;
@@ -49,15 +60,18 @@ class PetControllerTest {
 
     @Test
     void getAllPets() throws Exception {
-        Mockito.when(petService.getAllPets()).thenReturn(Collections.emptyList());
+        Mockito.when(petService.getPets(0L, 100))
+                .thenReturn(new KeysetPage<>(Collections.emptyList(), null));
         mockMvc.perform(get("/pets")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$").isEmpty());
 
         PetDTO pet = createPetDTO();
-        Mockito.when(petService.getAllPets()).thenReturn(Collections.singletonList(pet));
+        Mockito.when(petService.getPets(0L, 100))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(pet), null));
         mockMvc.perform(get("/pets")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -66,6 +80,42 @@ class PetControllerTest {
                 .andExpect(jsonPath("$[0].name", is("A")));
     }
 
+    @Test
+    void getAllPetsPaged() throws Exception {
+        PetDTO pet = createPetDTO();
+        Mockito.when(petService.getPets(0L, 1))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(pet), 1L));
+        mockMvc.perform(get("/pets").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "1"))
+                .andExpect(jsonPath("$[0].id", is(1)));
+
+        Mockito.when(petService.getPets(1L, 1))
+                .thenReturn(new KeysetPage<>(Collections.emptyList(), null));
+        mockMvc.perform(get("/pets").param("after", "1").param("limit", "-5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void searchPets() throws Exception {
+        PetDTO pet = createPetDTO();
+        Mockito.when(petService.searchPets("A", 0L, 1))
+                .thenReturn(new KeysetPage<>(Collections.singletonList(pet), 1L));
+        mockMvc.perform(get("/pets/search").param("q", "A").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "1"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$[0].name", is("A")));
+
+        mockMvc.perform(get("/pets/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.q").exists());
+        mockMvc.perform(get("/pets/search").param("q", "%_"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getPetById() throws Exception {
         Long petId = 1L;
@@ -83,6 +133,37 @@ class PetControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getPetByIdConditional() throws Exception {
+        PetDTO pet = createPetDTO();
+        String tag = EntityTags.of(pet);
+        Mockito.when(petService.getPetTag(1L)).thenReturn(Optional.of(tag));
+        Mockito.when(petService.getPetById(1L)).thenReturn(Optional.of(pet));
+
+        mockMvc.perform(get("/pets/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, tag));
+        Mockito.verify(petService, Mockito.never()).getPetTag(1L);
+
+        mockMvc.perform(get("/pets/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag));
+        Mockito.verify(petService, Mockito.times(1)).getPetById(1L);
+    }
+
+    @Test
+    void getPetByIdFromJsonCache() throws Exception {
+        JsonBody body = new JsonBody("{\"id\":1,\"name\":\"A\"}".getBytes(), "\"t\"", Set.of(2L));
+        Mockito.when(jsonCache.isEnabled()).thenReturn(true);
+        Mockito.when(jsonCache.getPet(1L)).thenReturn(Optional.of(body));
+
+        mockMvc.perform(get("/pets/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"t\""))
+                .andExpect(jsonPath("$.name").value("A"));
+        Mockito.verifyNoInteractions(petService);
+    }
+
     @Test
     void createPet() throws Exception {
         Long petId = 1L;
@@ -115,11 +196,21 @@ class PetControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$").isMap());
 
+        Mockito.when(petService.upsertPet(Mockito.any()))
+                .thenReturn(new Upserted<>(createPetDTO(), true));
         mockMvc.perform(put("/pets/{id}", petId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{ \"id\": 1}"))
                 .andExpect(status().isCreated());
 
+        Mockito.when(petService.upsertPet(Mockito.any()))
+                .thenReturn(new Upserted<>(createPetDTO(), false));
+        mockMvc.perform(put("/pets/{id}", petId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"id\": 1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("A")));
+
         mockMvc.perform(put("/pets/{id}", 2)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{ \"id\": 1}"))
@@ -131,11 +222,11 @@ class PetControllerTest {
     void deletePet() throws Exception {
         Long petId = 1L;
         Long nxID =-1L;
-        Mockito.when(petService.existsById(petId)).thenReturn(true);
+        Mockito.when(petService.deletePet(petId)).thenReturn(true);
         mockMvc.perform(delete("/pets/{id}", petId))
                 .andExpect(status().isNoContent());
         mockMvc.perform(delete("/pets/{id}", nxID))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isNotFound());
     }
 
     private PetDTO createPetDTO() {
@@ -0,0 +1,62 @@
+package com.nixiedroid.petclinic.controller;
+
+import com.nixiedroid.petclinic.model.ClinicStats;
+import com.nixiedroid.petclinic.model.ExecutorStats;
+import com.nixiedroid.petclinic.service.ClinicStatsCounter;
+import com.nixiedroid.petclinic.service.DatabaseExecutor;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StatsController.class)
+class StatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ClinicStatsCounter statsCounter;
+
+    @MockBean
+    private DatabaseExecutor db;
+
+    @Test
+    void getStats() throws Exception {
+        TreeMap<String, Long> types = new TreeMap<>();
+        types.put("Dog", 2L);
+        TreeMap<String, Long> cities = new TreeMap<>();
+        cities.put("London", 1L);
+        TreeMap<Integer, Long> petCounts = new TreeMap<>();
+        petCounts.put(2, 1L);
+        Mockito.when(statsCounter.getStats()).thenReturn(new ClinicStats(1, 2, types, cities, petCounts));
+
+        mockMvc.perform(get("/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.owners", is(1)))
+                .andExpect(jsonPath("$.pets", is(2)))
+                .andExpect(jsonPath("$.petsByType.Dog", is(2)))
+                .andExpect(jsonPath("$.ownersByCity.London", is(1)))
+                .andExpect(jsonPath("$.ownersByPetCount.2", is(1)));
+    }
+
+    @Test
+    void getDatabaseExecutorStats() throws Exception {
+        Mockito.when(db.getStats()).thenReturn(new ExecutorStats(10, 2, 3, 100, 50, 1, 4, 1.5, 7.0, 2.5));
+
+        mockMvc.perform(get("/stats/db-executor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.threads", is(10)))
+                .andExpect(jsonPath("$.queued", is(3)))
+                .andExpect(jsonPath("$.rejected", is(4)))
+                .andExpect(jsonPath("$.avgWaitMillis", is(1.5)));
+    }
+}
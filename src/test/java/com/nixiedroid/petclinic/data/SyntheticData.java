@@ -0,0 +1,158 @@
+package com.nixiedroid.petclinic.data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates owners and pets distributed like the data of a real clinic, reproducibly from a seed.
+ * <br>Surnames, first names, cities and pet names follow Zipf distributions over lists of common values,
+ * with a fifth of the surnames made up so that they also have a long tail of rare values.
+ * Pet types are weighted, dogs and cats making up four fifths of the pets.
+ * <br>The number of pets of an owner follows a geometric distribution of the requested mean:
+ * many owners have no pet or one, a few have a dozen, {@value #MAX_PETS} at most.
+ * Pets are mostly young, birth dates are exponentially distributed before {@link #TODAY}.
+ */
+public final class SyntheticData {
+
+    /**
+     * An owner to insert, with its pets.
+     */
+    public record OwnerRow(long id, String firstName, String lastName, String address, String city,
+                           String telephone, List<PetRow> pets) {}
+
+    /**
+     * A pet to insert.
+     */
+    public record PetRow(long id, String name, LocalDate birthDate, String type, long ownerId) {}
+
+    static final int MAX_PETS = 30;
+    static final LocalDate TODAY = LocalDate.of(2025, 1, 1);
+
+    private static final Choice SURNAMES = Choice.zipf(1.0, "Smith", "Johnson", "Williams", "Brown", "Jones",
+            "Garcia", "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson",
+            "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White",
+            "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King",
+            "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores", "Green", "Adams", "Nelson", "Baker", "Hall",
+            "Rivera", "Campbell", "Mitchell", "Carter", "Roberts", "Gomez", "Phillips", "Evans", "Turner", "Diaz",
+            "Parker", "Cruz", "Edwards", "Collins", "Reyes", "Stewart", "Morris", "Morales", "Murphy", "Cook",
+            "Rogers", "Gutierrez", "Ortiz", "Morgan", "Cooper", "Peterson", "Bailey", "Reed", "Kelly", "Howard",
+            "Ramos", "Kim", "Cox", "Ward", "Richardson", "Watson", "Brooks", "Chavez", "Wood", "James", "Bennett",
+            "Gray", "Mendoza", "Ruiz", "Hughes", "Price", "Alvarez", "Castillo", "Sanders", "Patel", "Myers",
+            "Long", "Ross", "Foster", "Jimenez");
+    private static final String[] SYLLABLES = {"ka", "lo", "ver", "sen", "mi", "tor", "ba", "ren", "dal", "ko",
+            "vi", "nor", "sha", "pel", "gru", "an", "ber", "tis", "mon", "ral"};
+    private static final Choice FIRST_NAMES = Choice.zipf(0.8, "James", "Mary", "John", "Patricia", "Robert",
+            "Jennifer", "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan",
+            "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa",
+            "Anthony", "Betty", "Mark", "Margaret", "Donald", "Sandra", "Steven", "Ashley", "Paul", "Emily",
+            "Andrew", "Donna", "Joshua", "Michelle", "Kenneth", "Carol", "Kevin", "Amanda", "Brian", "Melissa",
+            "George", "Deborah", "Timothy", "Stephanie", "Ronald", "Rebecca");
+    private static final Choice CITIES = Choice.zipf(1.1, "Springfield", "Riverside", "Franklin", "Greenville",
+            "Bristol", "Clinton", "Fairview", "Salem", "Madison", "Georgetown", "Arlington", "Ashland", "Dover",
+            "Oxford", "Jackson", "Burlington", "Manchester", "Milton", "Newport", "Auburn", "Dayton", "Lexington",
+            "Milford", "Winchester", "Hudson", "Kingston", "Mount Vernon", "Clayton", "Lebanon", "Centerville",
+            "Anytown", "Othertown", "Marion", "Hamilton", "Cleveland", "Troy", "Lancaster", "Chester", "Monroe",
+            "Danville");
+    private static final Choice STREETS = Choice.zipf(0.5, "Main St", "Oak St", "Maple Ave", "Cedar Ln",
+            "Park Ave", "Pine St", "Elm St", "Washington St", "Lake Rd", "Hill St", "Church St", "High St",
+            "Walnut St", "Sunset Blvd", "River Rd", "Mill Rd", "Spring St", "Center St", "Forest Ave", "Bridge St");
+    private static final Choice PET_NAMES = Choice.zipf(0.9, "Max", "Bella", "Luna", "Charlie", "Lucy", "Cooper",
+            "Daisy", "Milo", "Buddy", "Rocky", "Bailey", "Sadie", "Molly", "Lola", "Coco", "Oliver", "Leo", "Tucker",
+            "Bear", "Duke", "Chloe", "Stella", "Zoe", "Jack", "Toby", "Lily", "Penny", "Ruby", "Rosie", "Sophie",
+            "Gracie", "Oscar", "Simba", "Nala", "Loki", "Jasper", "Winston", "Ginger", "Pepper", "Shadow", "Smokey",
+            "Tiger", "Mittens", "Whiskers", "Oreo", "Felix", "Kiki", "Polly", "Nemo", "Goldie", "Thumper", "Peanut",
+            "Biscuit", "Ziggy", "Rex", "Maxine", "Sir Whiskers", "Rose", "Bud", "Pickles");
+    private static final Choice PET_TYPES = Choice.weighted(
+            new String[]{"Dog", "Cat", "Bird", "Fish", "Rabbit", "Hamster", "Guinea Pig", "Turtle", "Lizard",
+                    "Snake", "Ferret", "Horse"},
+            new double[]{44, 35, 6, 4, 3, 2.5, 2, 1.2, 0.8, 0.6, 0.5, 0.4});
+
+    private final SplittableRandom random;
+    private final double stopPets;
+    private long nextOwnerId;
+    private long nextPetId;
+
+    /**
+     * Constructs a new {@link SyntheticData}.
+     *
+     * @param seed         the seed, the same seed generates the same rows
+     * @param petsPerOwner the mean number of pets of an owner
+     * @param firstOwnerId the identifier of the first generated owner
+     * @param firstPetId   the identifier of the first generated pet
+     */
+    public SyntheticData(long seed, double petsPerOwner, long firstOwnerId, long firstPetId) {
+        this.random = new SplittableRandom(seed);
+        this.stopPets = 1 / (1 + petsPerOwner);
+        this.nextOwnerId = firstOwnerId;
+        this.nextPetId = firstPetId;
+    }
+
+    /**
+     * Generates the next owner and its pets.
+     *
+     * @return an owner with consecutive identifiers
+     */
+    public OwnerRow nextOwner() {
+        long id = nextOwnerId++;
+        int count = 0;
+        while (count < MAX_PETS && random.nextDouble() >= stopPets) {
+            count++;
+        }
+        List<PetRow> pets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long ageDays = Math.min((long) (-Math.log(1 - random.nextDouble()) * 5 * 365), 25 * 365);
+            pets.add(new PetRow(nextPetId++, PET_NAMES.pick(random), TODAY.minusDays(ageDays),
+                    PET_TYPES.pick(random), id));
+        }
+        return new OwnerRow(id, FIRST_NAMES.pick(random), lastName(),
+                (1 + random.nextInt(9999)) + " " + STREETS.pick(random), CITIES.pick(random),
+                String.format("555-%04d", random.nextInt(10000)), pets);
+    }
+
+    private String lastName() {
+        if (random.nextInt(5) > 0) {
+            return SURNAMES.pick(random);
+        }
+        StringBuilder name = new StringBuilder();
+        for (int i = 2 + random.nextInt(2); i > 0; i--) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    /**
+     * Values picked with fixed probabilities.
+     */
+    private record Choice(String[] values, double[] cumulative) {
+
+        static Choice zipf(double exponent, String... values) {
+            double[] weights = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                weights[i] = 1 / Math.pow(i + 1, exponent);
+            }
+            return weighted(values, weights);
+        }
+
+        static Choice weighted(String[] values, double[] weights) {
+            double[] cumulative = new double[weights.length];
+            double sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < cumulative.length; i++) {
+                cumulative[i] /= sum;
+            }
+            return new Choice(values, cumulative);
+        }
+
+        String pick(SplittableRandom random) {
+            int i = Arrays.binarySearch(cumulative, random.nextDouble());
+            return values[Math.min(i < 0 ? -i - 1 : i, values.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.nixiedroid.petclinic.data;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts {@link SyntheticData} into the {@code site} schema.
+ * <br>Rows are written in chunks of {@code chunkSize} owners with their pets, one transaction per chunk:
+ * with {@code COPY ... FROM STDIN} on Postgres, and with batched inserts elsewhere.
+ * Identifiers continue after the existing rows, and the identifier sequences are moved past the
+ * inserted ones, so the application keeps creating rows afterwards.
+ * <br>As a listener it loads the data when the application has started, before the in-memory indexes
+ * and counters are built from the database on {@link org.springframework.boot.context.event.ApplicationReadyEvent}:
+ * pass it to {@link org.springframework.boot.builder.SpringApplicationBuilder#listeners}, or declare it as a bean
+ * of a test configuration.
+ */
+@Slf4j
+public class SyntheticDataLoader implements ApplicationListener<ApplicationStartedEvent> {
+
+    /**
+     * Number of rows written.
+     */
+    public record Loaded(long owners, long pets, Duration took) {}
+
+    private static final String INSERT_OWNER =
+            "INSERT INTO site.owners (id, first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PET =
+            "INSERT INTO site.pets (id, name, birth_date, type, owner_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String COPY_OWNERS =
+            "COPY site.owners (id, first_name, last_name, address, city, telephone) FROM STDIN (FORMAT csv)";
+    private static final String COPY_PETS =
+            "COPY site.pets (id, name, birth_date, type, owner_id) FROM STDIN (FORMAT csv)";
+    /**
+     * Increment of the identifier sequences, see schema.sql
+     */
+    private static final int ID_BLOCK = 50;
+
+    private final int owners;
+    private final double petsPerOwner;
+    private final long seed;
+    private final int chunkSize;
+
+    /**
+     * Constructs a new {@link SyntheticDataLoader}.
+     *
+     * @param owners       the number of owners to insert
+     * @param petsPerOwner the mean number of pets of an owner
+     * @param seed         the seed of the generated data
+     * @param chunkSize    the number of owners written per transaction
+     */
+    public SyntheticDataLoader(int owners, double petsPerOwner, long seed, int chunkSize) {
+        this.owners = owners;
+        this.petsPerOwner = petsPerOwner;
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        try {
+            load(event.getApplicationContext().getBean(DataSource.class));
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Could not load synthetic data", e);
+        }
+    }
+
+    /**
+     * Inserts the owners and their pets.
+     *
+     * @param dataSource the database to fill
+     * @return the number of rows written
+     */
+    public Loaded load(DataSource dataSource) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            return load(connection);
+        }
+    }
+
+    /**
+     * Inserts the owners and their pets, committing after every chunk.
+     *
+     * @param connection the connection to the database to fill
+     * @return the number of rows written
+     */
+    public Loaded load(Connection connection) throws SQLException, IOException {
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        SyntheticData data = new SyntheticData(seed, petsPerOwner,
+                maxId(connection, "site.owners") + 1, maxId(connection, "site.pets") + 1);
+        boolean copy = connection.isWrapperFor(BaseConnection.class);
+        long pets = 0;
+        try {
+            for (int from = 0; from < owners; from += chunkSize) {
+                List<SyntheticData.OwnerRow> chunk = new ArrayList<>(chunkSize);
+                for (int i = from; i < Math.min(from + chunkSize, owners); i++) {
+                    chunk.add(data.nextOwner());
+                }
+                pets += copy ? copy(connection, chunk) : insert(connection, chunk);
+                connection.commit();
+                if ((from / chunkSize + 1) % 100 == 0) {
+                    log.info("Loaded {} owners and {} pets", from + chunk.size(), pets);
+                }
+            }
+            restartSequence(connection, "site.owners_seq", maxId(connection, "site.owners"));
+            restartSequence(connection, "site.pets_seq", maxId(connection, "site.pets"));
+            connection.commit();
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        Loaded loaded = new Loaded(owners, pets, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Loaded {} owners and {} pets in {} ms", loaded.owners(), loaded.pets(), loaded.took().toMillis());
+        return loaded;
+    }
+
+    private static int insert(Connection connection, List<SyntheticData.OwnerRow> chunk) throws SQLException {
+        int pets = 0;
+        try (PreparedStatement owner = connection.prepareStatement(INSERT_OWNER);
+             PreparedStatement pet = connection.prepareStatement(INSERT_PET)) {
+            for (SyntheticData.OwnerRow row : chunk) {
+                owner.setLong(1, row.id());
+                owner.setString(2, row.firstName());
+                owner.setString(3, row.lastName());
+                owner.setString(4, row.address());
+                owner.setString(5, row.city());
+                owner.setString(6, row.telephone());
+                owner.addBatch();
+            }
+            owner.executeBatch();
+            for (SyntheticData.OwnerRow row : chunk) {
+                for (SyntheticData.PetRow p : row.pets()) {
+                    pet.setLong(1, p.id());
+                    pet.setString(2, p.name());
+                    pet.setDate(3, Date.valueOf(p.birthDate()));
+                    pet.setString(4, p.type());
+                    pet.setLong(5, p.ownerId());
+                    pet.addBatch();
+                    pets++;
+                }
+            }
+            pet.executeBatch();
+        }
+        return pets;
+    }
+
+    private static int copy(Connection connection, List<SyntheticData.OwnerRow> chunk) throws SQLException, IOException {
+        StringBuilder owners = new StringBuilder();
+        StringBuilder pets = new StringBuilder();
+        int count = 0;
+        for (SyntheticData.OwnerRow row : chunk) {
+            csv(owners, row.id(), row.firstName(), row.lastName(), row.address(), row.city(), row.telephone());
+            for (SyntheticData.PetRow p : row.pets()) {
+                csv(pets, p.id(), p.name(), p.birthDate(), p.type(), p.ownerId());
+                count++;
+            }
+        }
+        CopyManager copy = new CopyManager(connection.unwrap(BaseConnection.class));
+        copy.copyIn(COPY_OWNERS, new StringReader(owners.toString()));
+        copy.copyIn(COPY_PETS, new StringReader(pets.toString()));
+        return count;
+    }
+
+    private static void csv(StringBuilder out, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            if (values[i] != null) {
+                out.append('"').append(values[i].toString().replace("\"", "\"\"")).append('"');
+            }
+        }
+        out.append('\n');
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Restarts a sequence at the first identifier block after {@code maxId}.
+     */
+    private static void restartSequence(Connection connection, String sequence, long maxId) throws SQLException {
+        long next = (maxId + ID_BLOCK - 1) / ID_BLOCK * ID_BLOCK + 1;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.nixiedroid.petclinic.data;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fills a database with {@link SyntheticData}, from {@code --name=value} arguments:
+ * <br>{@code --url} the jdbc url, {@code --username} and {@code --password} its credentials,
+ * {@code --owners=1000000} the number of owners, {@code --pets-per-owner=1.5} their mean number of pets,
+ * {@code --seed=42}, {@code --chunk-size=5000} the owners written per transaction, and {@code --init-schema}
+ * to run schema.sql, or schema-postgresql.sql for a Postgres url, first, for an empty database.
+ * <br>{@code ./mvnw -Pdata test-compile exec:exec -Ddata.args="--url=jdbc:postgresql://localhost:5432/coffees --username=coffees --password=1234"}
+ */
+public class SyntheticDataMain {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg : arg.substring(0, eq), eq < 0 ? "" : arg.substring(eq + 1));
+        }
+        if (!options.containsKey("--url")) {
+            throw new IllegalArgumentException("--url is required");
+        }
+        SyntheticDataLoader loader = new SyntheticDataLoader(
+                Integer.parseInt(options.getOrDefault("--owners", "1000000")),
+                Double.parseDouble(options.getOrDefault("--pets-per-owner", "1.5")),
+                Long.parseLong(options.getOrDefault("--seed", "42")),
+                Integer.parseInt(options.getOrDefault("--chunk-size", "5000")));
+        try (Connection connection = DriverManager.getConnection(options.get("--url"),
+                options.get("--username"), options.get("--password"))) {
+            if (options.containsKey("--init-schema")) {
+                String schema = options.get("--url").startsWith("jdbc:postgresql:")
+                        ? "schema-postgresql.sql" : "schema.sql";
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource(schema));
+            }
+            SyntheticDataLoader.Loaded loaded = loader.load(connection);
+            System.out.printf("Loaded %d owners and %d pets in %d ms%n",
+                    loaded.owners(), loaded.pets(), loaded.took().toMillis());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.nixiedroid.petclinic.data;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the distributions of the generated data and loads it into the embedded database.
+ */
+@JdbcTest
+@DirtiesContext
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SyntheticDataTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void sameSeedSameRows() {
+        SyntheticData a = new SyntheticData(7, 1.5, 1, 1);
+        SyntheticData b = new SyntheticData(7, 1.5, 1, 1);
+        List<SyntheticData.OwnerRow> owners = Stream.generate(a::nextOwner).limit(100).toList();
+
+        assertEquals(owners, Stream.generate(b::nextOwner).limit(100).toList());
+        assertEquals(100, owners.get(99).id());
+        assertEquals(owners.get(99).id(), owners.get(99).pets().stream()
+                .mapToLong(SyntheticData.PetRow::ownerId).max().orElse(100));
+    }
+
+    @Test
+    void skewedDistributions() {
+        SyntheticData data = new SyntheticData(42, 1.5, 1, 1);
+        int owners = 20_000;
+        int pets = 0;
+        int withoutPets = 0;
+        int mostPets = 0;
+        Map<String, Integer> lastNames = new HashMap<>();
+        Map<String, Integer> cities = new HashMap<>();
+        Map<String, Integer> types = new HashMap<>();
+        for (int i = 0; i < owners; i++) {
+            SyntheticData.OwnerRow owner = data.nextOwner();
+            pets += owner.pets().size();
+            withoutPets += owner.pets().isEmpty() ? 1 : 0;
+            mostPets = Math.max(mostPets, owner.pets().size());
+            lastNames.merge(owner.lastName(), 1, Integer::sum);
+            cities.merge(owner.city(), 1, Integer::sum);
+            owner.pets().forEach(p -> types.merge(p.type(), 1, Integer::sum));
+        }
+
+        assertEquals(1.5, (double) pets / owners, 0.1);
+        assertTrue(withoutPets > owners / 3, "owners without pets " + withoutPets);
+        assertTrue(mostPets >= 10 && mostPets <= SyntheticData.MAX_PETS, "most pets " + mostPets);
+        assertTrue(lastNames.size() > 1000, "distinct last names " + lastNames.size());
+        assertTrue(lastNames.get("Smith") > 20 * lastNames.get("Jimenez"));
+        assertTrue(cities.get("Springfield") > 10 * cities.get("Danville"));
+        assertEquals(12, types.size());
+        assertTrue(types.get("Dog") + types.get("Cat") > pets * 3 / 4);
+    }
+
+    @Test
+    void loadIntoSchema() throws Exception {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Long ownersBefore = jdbc.queryForObject("SELECT COUNT(*) FROM site.owners", Long.class);
+        Long petsBefore = jdbc.queryForObject("SELECT COUNT(*) FROM site.pets", Long.class);
+
+        SyntheticDataLoader.Loaded loaded = new SyntheticDataLoader(2000, 1.5, 42, 300).load(dataSource);
+
+        assertEquals(2000, loaded.owners());
+        assertEquals(ownersBefore + 2000, jdbc.queryForObject("SELECT COUNT(*) FROM site.owners", Long.class));
+        assertEquals(petsBefore + loaded.pets(), jdbc.queryForObject("SELECT COUNT(*) FROM site.pets", Long.class));
+        assertEquals(0, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM site.pets p LEFT JOIN site.owners o ON o.id = p.owner_id WHERE o.id IS NULL",
+                Long.class));
+        assertTrue(jdbc.queryForObject("SELECT nextval('site.owners_seq')", Long.class)
+                > jdbc.queryForObject("SELECT MAX(id) FROM site.owners", Long.class));
+        assertTrue(jdbc.queryForObject("SELECT nextval('site.pets_seq')", Long.class)
+                > jdbc.queryForObject("SELECT MAX(id) FROM site.pets", Long.class));
+    }
+}
@@ -0,0 +1,134 @@
+package com.nixiedroid.petclinic.event;
+
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.model.JsonBody;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.OwnerPlain;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.PetPlain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DtoCacheEvictorTest {
+
+    private Cache owners;
+    private Cache pets;
+    private Cache ownerJson;
+    private Cache petJson;
+    private DtoCacheEvictor evictor;
+
+    @BeforeEach
+    public void setUp() {
+        CaffeineCacheManager cacheManager = CacheConfig.indexedCacheManager("", List.of(CacheConfig.OWNERS,
+                CacheConfig.PETS, CacheConfig.OWNER_JSON, CacheConfig.PET_JSON));
+        owners = cacheManager.getCache(CacheConfig.OWNERS);
+        pets = cacheManager.getCache(CacheConfig.PETS);
+        ownerJson = cacheManager.getCache(CacheConfig.OWNER_JSON);
+        petJson = cacheManager.getCache(CacheConfig.PET_JSON);
+        evictor = new DtoCacheEvictor(cacheManager);
+
+        owners.put(1L, owner(1L, 10L));
+        owners.put(2L, owner(2L, 20L));
+        owners.put(3L, owner(3L));
+        pets.put(10L, pet(10L, 1L));
+        pets.put(11L, pet(11L, 1L));
+        pets.put(20L, pet(20L, 2L));
+        ownerJson.put(1L, json(10L));
+        ownerJson.put(2L, json(20L));
+        petJson.put(10L, json(1L));
+        petJson.put(20L, json(2L));
+    }
+
+    @Test
+    public void testOwnerChanged_EvictsOwnerAndItsPets() {
+        evictor.onOwnerChanged(new OwnerChanged(1L, null, null, null, true));
+
+        assertNull(owners.get(1L));
+        assertNull(pets.get(10L));
+        assertNull(pets.get(11L));
+        assertNotNull(owners.get(2L));
+        assertNotNull(pets.get(20L));
+    }
+
+    @Test
+    public void testPetChanged_EvictsPetOldAndNewOwner() {
+        // pet 20 moved from owner 2 to owner 3
+        evictor.onPetChanged(new PetChanged(20L, 3L, null, "P", "T", false));
+
+        assertNull(pets.get(20L));
+        assertNull(owners.get(2L));
+        assertNull(owners.get(3L));
+        assertNotNull(owners.get(1L));
+        assertNotNull(pets.get(10L));
+    }
+
+    @Test
+    public void testOwnerChanged_EvictsJson() {
+        evictor.onOwnerChanged(new OwnerChanged(1L, "B", null, List.of(), false));
+
+        assertNull(ownerJson.get(1L));
+        assertNull(petJson.get(10L));
+        assertNotNull(ownerJson.get(2L));
+        assertNotNull(petJson.get(20L));
+    }
+
+    @Test
+    public void testPetChanged_EvictsJson() {
+        evictor.onPetChanged(new PetChanged(20L, 1L, null, "P", "T", false));
+
+        assertNull(petJson.get(20L));
+        assertNull(ownerJson.get(1L));
+        assertNull(ownerJson.get(2L));
+        assertNotNull(petJson.get(10L));
+    }
+
+    @Test
+    public void testPetDeleted_EvictsListingOwner() {
+        evictor.onPetChanged(new PetChanged(10L, null, null, null, null, true));
+
+        assertNull(pets.get(10L));
+        assertNull(owners.get(1L));
+        assertNotNull(owners.get(2L));
+        assertNotNull(pets.get(11L));
+    }
+
+    @Test
+    public void testReplacedEntry_IndexedByItsNewPets() {
+        owners.put(1L, owner(1L, 11L));
+
+        evictor.onPetChanged(new PetChanged(10L, null, null, null, null, true));
+        assertNotNull(owners.get(1L));
+
+        evictor.onPetChanged(new PetChanged(11L, null, null, null, null, true));
+        assertNull(owners.get(1L));
+    }
+
+    private static OwnerDTO owner(Long id, Long... petIds) {
+        return OwnerDTO.builder()
+                .id(id)
+                .firstName("A")
+                .lastName("B")
+                .pets(List.of(petIds).stream().map(p -> new PetPlain(p, "P", null, "T", null)).toList())
+                .build();
+    }
+
+    private static JsonBody json(Long... related) {
+        return new JsonBody(new byte[0], "\"t\"", Set.of(related));
+    }
+
+    private static PetDTO pet(Long id, Long ownerId) {
+        return PetDTO.builder()
+                .id(id)
+                .name("P")
+                .type("T")
+                .owner(OwnerPlain.builder().id(ownerId).build())
+                .build();
+    }
+}
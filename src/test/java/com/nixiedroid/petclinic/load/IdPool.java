@@ -0,0 +1,46 @@
+package com.nixiedroid.petclinic.load;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Identifiers of the existing owners or pets, from which requests pick their targets.
+ * <br>Created resources are added and deleted ones removed, so the pool follows the data as the load runs.
+ */
+final class IdPool {
+
+    private final List<Long> ids = new ArrayList<>();
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    synchronized void add(Long id) {
+        if (positions.putIfAbsent(id, ids.size()) == null) {
+            ids.add(id);
+        }
+    }
+
+    synchronized void remove(Long id) {
+        Integer position = positions.remove(id);
+        if (position == null) {
+            return;
+        }
+        Long last = ids.remove(ids.size() - 1);
+        if (position < ids.size()) {
+            ids.set(position, last);
+            positions.put(last, position);
+        }
+    }
+
+    /**
+     * @return a random identifier of the pool, or 0 if it is empty
+     */
+    synchronized long random() {
+        return ids.isEmpty() ? 0 : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+}
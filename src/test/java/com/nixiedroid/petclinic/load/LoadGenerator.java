@@ -0,0 +1,243 @@
+package com.nixiedroid.petclinic.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.nixiedroid.petclinic.data.SyntheticData;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Replays the requests of a {@link PostmanCollection} against a running instance and measures them.
+ * <br>The instance is filled beforehand, see {@link #seed()}.
+ * {@link LoadOptions#concurrency()} virtual threads send the requests of the collection in turn,
+ * back to back or at {@link LoadOptions#rate()} requests per second, during the warm-up and the measured duration.
+ * <br>The identifiers in the collection are those of the data its author had, so they are replaced:
+ * numeric path segments and {@code id} fields by identifiers of existing owners and pets, except the
+ * {@code id} of a created resource, which is removed. Created resources are added to the candidates
+ * and deleted ones are removed, so the mix keeps hitting existing data.
+ * <br>With a rate, the latency is measured from the time the request was due rather than sent,
+ * so a slow instance is not hidden by requests that were waiting for a free thread.
+ */
+@Slf4j
+public class LoadGenerator {
+
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final int PAGE = 1000;
+
+    private final URI base;
+    private final LoadOptions options;
+    private final HttpClient client;
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<String, IdPool> pools = Map.of("owners", new IdPool(), "pets", new IdPool());
+
+    /**
+     * Constructs a new {@link LoadGenerator}.
+     *
+     * @param base    the base url of the instance, as in {@code http://localhost:8086}
+     * @param options the load settings
+     */
+    public LoadGenerator(URI base, LoadOptions options) {
+        this.base = base;
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Runs the requests of the collection against the existing data and measures them.
+     *
+     * @param collection the requests to send
+     * @return the measurements of the requests sent after the warm-up
+     */
+    public LoadReport run(PostmanCollection collection) throws IOException, InterruptedException {
+        loadIds("owners");
+        loadIds("pets");
+        log.info("Running {} requests with {} owners and {} pets", collection.requests().size(),
+                pools.get("owners").size(), pools.get("pets").size());
+
+        Map<String, LoadReport.Samples> samples = new LinkedHashMap<>();
+        List<LoadReport.Samples> byRequest = new ArrayList<>();
+        for (PostmanCollection.Request request : collection.requests()) {
+            byRequest.add(samples.computeIfAbsent(request.label(), LoadReport.Samples::new));
+        }
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmUp().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        long interval = options.rate() > 0 ? 1_000_000_000L / options.rate() : 0;
+        AtomicLong nextSlot = new AtomicLong(start);
+        AtomicLong turn = new AtomicLong();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < options.concurrency(); i++) {
+                running.add(workers.submit(() -> {
+                    while (true) {
+                        long due = interval > 0 ? nextSlot.getAndAdd(interval) : System.nanoTime();
+                        if (due >= end) {
+                            return null;
+                        }
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                        }
+                        int index = (int) (turn.getAndIncrement() % byRequest.size());
+                        int status = send(collection.requests().get(index));
+                        if (due >= measureFrom) {
+                            byRequest.get(index).add(System.nanoTime() - due, status);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : running) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load worker failed", e.getCause());
+        }
+        return LoadReport.of(options, samples.values());
+    }
+
+    /**
+     * Sends a request of the collection with its identifiers replaced.
+     *
+     * @return the response status, or -1 if no response was received
+     */
+    private int send(PostmanCollection.Request template) {
+        String[] segments = template.path().split("/", -1);
+        String resource = segments.length > 1 ? segments[1].replaceFirst("\\?.*", "") : "";
+        IdPool pool = pools.get(resource);
+        Long id = null;
+        if (pool != null && segments.length > 2 && NUMBER.matcher(segments[2]).matches()) {
+            id = pool.random();
+            segments[2] = id.toString();
+        }
+        String body = template.body() == null ? null : rewrite(template.body(), id);
+        HttpRequest.Builder request = HttpRequest.newBuilder(base.resolve(String.join("/", segments)))
+                .timeout(Duration.ofSeconds(30))
+                .method(template.method(), body == null
+                        ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            if (pool != null) {
+                if (status == 201) {
+                    pool.add(id != null ? id : json.readTree(response.body()).path("id").asLong());
+                } else if (status == 204 && "DELETE".equals(template.method()) && id != null) {
+                    pool.remove(id);
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            log.debug("{} failed", template.label(), e);
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private String rewrite(String body, Long id) {
+        try {
+            JsonNode node = json.readTree(body);
+            if (node instanceof ObjectNode object) {
+                if (id != null) {
+                    object.put("id", id);
+                } else {
+                    object.remove("id");
+                }
+                rewriteReferences(object);
+            }
+            return json.writeValueAsString(node);
+        } catch (IOException e) {
+            return body;
+        }
+    }
+
+    private void rewriteReferences(ObjectNode object) {
+        if (object.get("owner") instanceof ObjectNode owner && owner.has("id")) {
+            owner.put("id", pools.get("owners").random());
+        }
+        if (object.get("pets") instanceof ArrayNode pets) {
+            for (JsonNode pet : pets) {
+                if (pet instanceof ObjectNode plain && plain.has("id")) {
+                    plain.put("id", pools.get("pets").random());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates {@link LoadOptions#owners()} owners through {@code POST /owners/_bulk}, generated by {@link SyntheticData}.
+     * <br>Used against a running instance; the embedded instance is filled directly by a
+     * {@link com.nixiedroid.petclinic.data.SyntheticDataLoader}.
+     */
+    public void seed() throws IOException, InterruptedException {
+        SyntheticData data = new SyntheticData(options.seed(), options.petsPerOwner(), 1, 1);
+        for (int from = 0; from < options.owners(); from += PAGE) {
+            ArrayNode owners = json.createArrayNode();
+            for (int i = from; i < Math.min(from + PAGE, options.owners()); i++) {
+                SyntheticData.OwnerRow row = data.nextOwner();
+                ObjectNode owner = owners.addObject()
+                        .put("firstName", row.firstName())
+                        .put("lastName", row.lastName())
+                        .put("address", row.address())
+                        .put("city", row.city())
+                        .put("telephone", row.telephone());
+                ArrayNode pets = owner.putArray("pets");
+                for (SyntheticData.PetRow pet : row.pets()) {
+                    pets.addObject()
+                            .put("name", pet.name())
+                            .put("birthDate", pet.birthDate().toString())
+                            .put("type", pet.type());
+                }
+            }
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/owners/_bulk"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(owners)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new IOException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+        }
+    }
+
+    private void loadIds(String resource) throws IOException, InterruptedException {
+        IdPool pool = pools.get(resource);
+        String after = "0";
+        while (after != null) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                    base.resolve("/" + resource + "?limit=" + PAGE + "&after=" + after)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Listing " + resource + " failed with " + response.statusCode());
+            }
+            for (JsonNode item : json.readTree(response.body())) {
+                pool.add(item.path("id").asLong());
+            }
+            after = response.headers().firstValue("X-Next-Cursor").orElse(null);
+        }
+    }
+}
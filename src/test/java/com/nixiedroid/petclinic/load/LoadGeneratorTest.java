@@ -0,0 +1,74 @@
+package com.nixiedroid.petclinic.load;
+
+import com.nixiedroid.petclinic.data.SyntheticDataLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays the Postman collection of the repository briefly against the application.
+ */
+@DirtiesContext
+@ActiveProfiles("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadGeneratorTest {
+
+    @TestConfiguration
+    static class Data {
+
+        @Bean
+        SyntheticDataLoader syntheticDataLoader() {
+            return new SyntheticDataLoader(300, 1.5, 42, 100);
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void readCollection() throws Exception {
+        PostmanCollection collection = PostmanCollection.read(Path.of("notes/PetClinic.postman_collection.json"));
+
+        assertEquals(List.of("GET /pets", "GET /pets/{id}", "POST /pets", "PUT /pets/{id}", "DELETE /pets/{id}",
+                        "GET /owners", "GET /owners/{id}", "POST /owners", "PUT /owners/{id}", "DELETE /owners/{id}"),
+                collection.requests().stream().map(PostmanCollection.Request::label).toList());
+        assertEquals("/pets/10", collection.requests().get(3).path());
+        assertTrue(collection.requests().get(3).body().contains("\"owner\""));
+        assertNull(collection.requests().get(0).body());
+    }
+
+    @Test
+    void runCollection() throws Exception {
+        LoadOptions options = LoadOptions.parse("--concurrency=4", "--rate=50", "--warm-up=PT0.5S",
+                "--duration=PT2S", "--owners=100", "--pets-per-owner=2", "--report=target/load-report-test.json");
+
+        LoadGenerator generator = new LoadGenerator(URI.create("http://localhost:" + port), options);
+        generator.seed();
+        LoadReport report = generator.run(PostmanCollection.read(options.collection()));
+
+        assertEquals(10, report.requests().size());
+        long count = 0;
+        for (LoadReport.Line line : report.requests()) {
+            assertTrue(line.count() > 0, line.request());
+            assertEquals(0, line.errors(), line.request());
+            if (line.request().startsWith("GET") && !line.request().endsWith("{id}")
+                    || line.request().startsWith("POST")) {
+                assertEquals(0, line.clientErrors(), line.request());
+            }
+            count += line.count();
+        }
+        assertEquals(count, report.total().count());
+        assertTrue(report.total().p99() >= report.total().p50());
+        report.write(options.report());
+    }
+}
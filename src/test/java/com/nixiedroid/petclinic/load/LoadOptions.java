@@ -0,0 +1,79 @@
+package com.nixiedroid.petclinic.load;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of a load run, read from {@code --name=value} arguments.
+ *
+ * @param concurrency  the number of requests in flight at most
+ * @param rate         the number of requests started per second, 0 to send them back to back
+ * @param duration     how long requests are measured
+ * @param warmUp       how long requests are sent before measuring starts
+ * @param owners       the number of owners created before the run
+ * @param petsPerOwner the mean number of pets of a created owner
+ * @param seed         the seed of the created data
+ * @param collection   the Postman collection describing the request mix
+ * @param report       the file the json report is written to
+ * @param target       the base url of a running instance, null to start an embedded one on H2
+ * @param appArgs      the remaining arguments, passed to the embedded instance
+ */
+public record LoadOptions(
+        int concurrency,
+        int rate,
+        Duration duration,
+        Duration warmUp,
+        int owners,
+        double petsPerOwner,
+        long seed,
+        Path collection,
+        Path report,
+        URI target,
+        List<String> appArgs
+) {
+
+    /**
+     * Reads the settings, using the defaults below for missing ones.
+     * <br>{@code --concurrency=16 --rate=0 --duration=PT30S --warm-up=PT5S --owners=100000 --pets-per-owner=1.5 --seed=42
+     * --collection=notes/PetClinic.postman_collection.json --report=target/load-report.json --target=}
+     *
+     * @param args the command line arguments
+     * @return the settings
+     */
+    public static LoadOptions parse(String... args) {
+        int concurrency = 16;
+        int rate = 0;
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmUp = Duration.ofSeconds(5);
+        int owners = 100_000;
+        double petsPerOwner = 1.5;
+        long seed = 42;
+        Path collection = Path.of("notes/PetClinic.postman_collection.json");
+        Path report = Path.of("target/load-report.json");
+        URI target = null;
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? "" : arg.substring(eq + 1);
+            switch (name) {
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--rate" -> rate = Integer.parseInt(value);
+                case "--duration" -> duration = Duration.parse(value);
+                case "--warm-up" -> warmUp = Duration.parse(value);
+                case "--owners" -> owners = Integer.parseInt(value);
+                case "--pets-per-owner" -> petsPerOwner = Double.parseDouble(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--collection" -> collection = Path.of(value);
+                case "--report" -> report = Path.of(value);
+                case "--target" -> target = value.isEmpty() ? null : URI.create(value);
+                default -> appArgs.add(arg);
+            }
+        }
+        return new LoadOptions(concurrency, rate, duration, warmUp, owners, petsPerOwner, seed,
+                collection, report, target, List.copyOf(appArgs));
+    }
+}
@@ -0,0 +1,144 @@
+package com.nixiedroid.petclinic.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Measurements of a load run, per request of the collection and in total.
+ * <br>Printed as a table, and written as json so that runs of different builds can be compared.
+ *
+ * @param options  the settings of the run
+ * @param requests the measurements per request, in collection order
+ * @param total    the measurements of all requests
+ */
+public record LoadReport(LoadOptions options, List<Line> requests, Line total) {
+
+    /**
+     * Measurements of one request.
+     *
+     * @param request      the request, as in {@code GET /pets/{id}}
+     * @param count        the number of requests sent
+     * @param throughput   the requests per second
+     * @param p50          the median latency, in milliseconds
+     * @param p95          the 95th percentile latency, in milliseconds
+     * @param p99          the 99th percentile latency, in milliseconds
+     * @param max          the maximum latency, in milliseconds
+     * @param clientErrors the share of 4xx responses, in percent
+     * @param errors       the share of 5xx responses and failed connections, in percent
+     */
+    public record Line(String request, long count, double throughput, double p50, double p95, double p99,
+                       double max, double clientErrors, double errors) {}
+
+    /**
+     * Latencies and statuses recorded for one request.
+     */
+    static final class Samples {
+
+        private final String request;
+        private long[] latencies = new long[1024];
+        private int count;
+        private int clientErrors;
+        private int errors;
+
+        Samples(String request) {
+            this.request = request;
+        }
+
+        synchronized void add(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (status >= 400 && status < 500) {
+                clientErrors++;
+            } else if (status < 0 || status >= 500) {
+                errors++;
+            }
+        }
+
+        private synchronized void addAll(Samples other) {
+            for (int i = 0; i < other.count; i++) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = other.latencies[i];
+            }
+            clientErrors += other.clientErrors;
+            errors += other.errors;
+        }
+
+        private synchronized Line toLine(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new Line(request, count, count / seconds,
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100),
+                    share(clientErrors), share(errors));
+        }
+
+        private double share(int part) {
+            return count == 0 ? 0 : 100.0 * part / count;
+        }
+
+        private static double percentile(long[] sorted, double percent) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percent / 100 * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+
+    static LoadReport of(LoadOptions options, Collection<Samples> samples) {
+        double seconds = options.duration().toNanos() / 1e9;
+        Samples all = new Samples("total");
+        List<Line> lines = new ArrayList<>();
+        for (Samples request : samples) {
+            lines.add(request.toLine(seconds));
+            all.addAll(request);
+        }
+        return new LoadReport(options, List.copyOf(lines), all.toLine(seconds));
+    }
+
+    /**
+     * Prints the report as a table.
+     *
+     * @param out the stream to print to
+     */
+    public void print(PrintStream out) {
+        String format = "%-24s %8s %9s %9s %9s %9s %9s %7s %7s%n";
+        out.printf(format, "request", "count", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "4xx %", "err %");
+        for (Line line : requests) {
+            print(out, line);
+        }
+        print(out, total);
+    }
+
+    private static void print(PrintStream out, Line line) {
+        out.printf("%-24s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %7.2f %7.2f%n", line.request(), line.count(),
+                line.throughput(), line.p50(), line.p95(), line.p99(), line.max(), line.clientErrors(), line.errors());
+    }
+
+    /**
+     * Writes the report as json.
+     *
+     * @param file the file to write, its directory is created if missing
+     */
+    public void write(Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), this);
+    }
+}
@@ -0,0 +1,48 @@
+package com.nixiedroid.petclinic.load;
+
+import com.nixiedroid.petclinic.PetClinicApplication;
+import com.nixiedroid.petclinic.data.SyntheticDataLoader;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the Postman collection against the application and reports the measurements, see {@link LoadOptions}.
+ * <br>Without {@code --target} the application is started in this process on a random port, with the
+ * {@code load} profile and the in-memory H2 database filled by a {@link SyntheticDataLoader}; arguments that are not load settings, such as
+ * {@code --spring.threads.virtual.enabled=true}, are passed to it. A running instance is filled
+ * through its api, see {@link LoadGenerator#seed()}.
+ * <br>{@code ./mvnw -Pload test-compile exec:exec -Dload.args="--concurrency=32 --duration=PT1M"}
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        PostmanCollection collection = PostmanCollection.read(options.collection());
+        if (options.target() != null) {
+            LoadGenerator generator = new LoadGenerator(options.target(), options);
+            generator.seed();
+            report(generator.run(collection), options);
+            return;
+        }
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0", "--spring.profiles.active=load", "--spring.jmx.enabled=false"));
+        appArgs.addAll(options.appArgs());
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PetClinicApplication.class)
+                .listeners(new SyntheticDataLoader(options.owners(), options.petsPerOwner(), options.seed(), 5000))
+                .run(appArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            report(new LoadGenerator(URI.create("http://localhost:" + port), options).run(collection), options);
+        }
+    }
+
+    private static void report(LoadReport report, LoadOptions options) throws Exception {
+        report.print(System.out);
+        report.write(options.report());
+        System.out.println("Report written to " + options.report().toAbsolutePath());
+    }
+}
@@ -0,0 +1,69 @@
+package com.nixiedroid.petclinic.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Requests of a Postman collection, in collection order.
+ * <br>Folders are flattened. Only the method, the path of the url and the raw body are kept:
+ * the requests are sent to the instance under test whatever host and port the collection names.
+ *
+ * @param requests the requests of the collection
+ */
+public record PostmanCollection(List<Request> requests) {
+
+    private static final Pattern SCHEME_AND_HOST = Pattern.compile("^([a-zA-Z]+://)?[^/]*");
+    private static final Pattern NUMBER_SEGMENT = Pattern.compile("/\\d+(?=/|\\?|$)");
+
+    /**
+     * A request of the collection.
+     *
+     * @param method the http method
+     * @param path   the path and query of the url, starting with {@code /}
+     * @param body   the raw body, null if the request has none
+     */
+    public record Request(String method, String path, String body) {
+
+        /**
+         * @return the method and path with numeric segments replaced by {@code {id}}, as in {@code GET /pets/{id}}
+         */
+        public String label() {
+            return method + " " + NUMBER_SEGMENT.matcher(path).replaceAll("/{id}");
+        }
+    }
+
+    /**
+     * Reads a collection exported in the Postman v2 format.
+     *
+     * @param file the collection file
+     * @return the requests of the collection
+     * @throws IOException if the file cannot be read or is not json
+     */
+    public static PostmanCollection read(Path file) throws IOException {
+        List<Request> requests = new ArrayList<>();
+        collect(new ObjectMapper().readTree(file.toFile()).path("item"), requests);
+        return new PostmanCollection(List.copyOf(requests));
+    }
+
+    private static void collect(JsonNode items, List<Request> requests) {
+        for (JsonNode item : items) {
+            if (item.has("item")) {
+                collect(item.get("item"), requests);
+                continue;
+            }
+            JsonNode request = item.path("request");
+            JsonNode url = request.path("url");
+            String raw = url.isTextual() ? url.asText() : url.path("raw").asText();
+            String path = SCHEME_AND_HOST.matcher(raw).replaceFirst("");
+            String body = request.path("body").path("raw").asText("").strip();
+            requests.add(new Request(request.path("method").asText("GET"),
+                    path.isEmpty() ? "/" : path, body.isEmpty() ? null : body));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.nixiedroid.petclinic.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PetDTOTest {
+
+    @Test
+    public void testCreateFromFlatRow() {
+        LocalDate birthDate = LocalDate.now();
+        PetDTO pet = new PetDTO(1L, "A", birthDate, "B", 3L,
+                2L, "C", "D", "E", "F", "G", 4L);
+
+        assertEquals(1L, pet.id());
+        assertEquals("A", pet.name());
+        assertEquals(birthDate, pet.birthDate());
+        assertEquals("B", pet.type());
+        assertEquals(3L, pet.version());
+        assertEquals(new OwnerPlain(2L, "C", "D", "E", "F", "G", 4L), pet.owner());
+    }
+
+    @Test
+    public void testCreateFromFlatRow_NoOwner() {
+        PetDTO pet = new PetDTO(1L, "A", null, "B", 0L,
+                null, null, null, null, null, null, null);
+
+        assertNull(pet.owner());
+    }
+}
@@ -0,0 +1,170 @@
+package com.nixiedroid.petclinic.repository;
+
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetUpsertRow;
+import com.nixiedroid.petclinic.model.Upserted;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the native insert-or-update statements against the embedded database.
+ */
+@DataJpaTest
+class UpsertRepositoryTest {
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private Owner owner;
+    private Pet pet;
+
+    @BeforeEach
+    public void setUp() {
+        owner = em.persist(Owner.builder()
+                .firstName("F")
+                .lastName("L")
+                .build());
+        pet = em.persist(Pet.builder()
+                .name("P")
+                .type("T")
+                .owner(owner)
+                .build());
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void upsertPet_Existing() {
+        Upserted<PetUpsertRow> saved = petRepository.upsert(pet.getId(), Pet.builder()
+                .name("Q")
+                .type("U")
+                .birthDate(LocalDate.of(2020, 1, 1))
+                .owner(owner)
+                .build());
+        em.clear();
+
+        assertFalse(saved.created());
+        assertEquals(pet.getId(), saved.value().id());
+        assertEquals(owner.getId(), saved.value().previousOwnerId());
+        Pet stored = em.find(Pet.class, pet.getId());
+        assertEquals("Q", stored.getName());
+        assertEquals(LocalDate.of(2020, 1, 1), stored.getBirthDate());
+    }
+
+    @Test
+    void upsertPet_Missing() {
+        Long missing = pet.getId() + 1000;
+        Upserted<PetUpsertRow> saved = petRepository.upsert(missing, Pet.builder()
+                .name("Q")
+                .type("U")
+                .owner(owner)
+                .build());
+        em.clear();
+
+        assertTrue(saved.created());
+        assertNotEquals(missing, saved.value().id());
+        assertNull(saved.value().previousOwnerId());
+        assertNull(em.find(Pet.class, missing));
+        Pet stored = em.find(Pet.class, saved.value().id());
+        assertEquals("Q", stored.getName());
+        assertNull(stored.getBirthDate());
+        assertEquals(owner.getId(), stored.getOwner().getId());
+    }
+
+    @Test
+    void upsertPet_MissingWithNextSequenceValue() {
+        Long next = ((Number) em.getEntityManager().createNativeQuery(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'PETS_SEQ'")
+                .getSingleResult()).longValue();
+        Upserted<PetUpsertRow> saved = petRepository.upsert(next, Pet.builder()
+                .name("Q")
+                .type("U")
+                .owner(owner)
+                .build());
+
+        assertTrue(saved.created());
+        assertEquals(next, saved.value().id());
+    }
+
+    @Test
+    void upsertPet_MovedToAnotherOwner() {
+        Owner other = em.persistAndFlush(Owner.builder()
+                .firstName("C")
+                .lastName("D")
+                .build());
+        Upserted<PetUpsertRow> saved = petRepository.upsert(pet.getId(), Pet.builder()
+                .name("P")
+                .type("T")
+                .owner(other)
+                .build());
+        em.clear();
+
+        assertFalse(saved.created());
+        assertEquals(owner.getId(), saved.value().previousOwnerId());
+        assertEquals(other.getId(), em.find(Pet.class, pet.getId()).getOwner().getId());
+    }
+
+    @Test
+    void upsertOwner_Existing() {
+        Upserted<Long> saved = ownerRepository.upsert(owner.getId(), Owner.builder()
+                .firstName("G")
+                .lastName("M")
+                .city("C")
+                .build());
+        em.clear();
+
+        assertFalse(saved.created());
+        assertEquals(owner.getId(), saved.value());
+        Owner stored = em.find(Owner.class, owner.getId());
+        assertEquals("G", stored.getFirstName());
+        assertEquals("C", stored.getCity());
+        assertEquals(1, stored.getPets().size());
+    }
+
+    @Test
+    void upsertOwner_Missing() {
+        Long missing = owner.getId() + 1000;
+        Upserted<Long> saved = ownerRepository.upsert(missing, Owner.builder()
+                .firstName("G")
+                .lastName("M")
+                .build());
+        em.clear();
+
+        assertTrue(saved.created());
+        assertNotEquals(missing, saved.value());
+        assertNull(em.find(Owner.class, missing));
+        assertEquals("G", em.find(Owner.class, saved.value()).getFirstName());
+    }
+
+    @Test
+    void deleteByOwnerIdExcept() {
+        Pet other = em.persist(Pet.builder()
+                .name("O")
+                .type("T")
+                .owner(em.find(Owner.class, owner.getId()))
+                .build());
+        em.flush();
+
+        assertEquals(1, petRepository.deleteByOwnerIdExcept(owner.getId(), List.of(pet.getId())));
+        em.clear();
+
+        assertEquals(List.of(pet.getId()),
+                petRepository.findByOwnerIdOrderById(owner.getId()).stream().map(Pet::getId).toList());
+        assertNull(em.find(Pet.class, other.getId()));
+    }
+}
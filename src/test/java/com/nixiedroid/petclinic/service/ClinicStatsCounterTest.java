@@ -0,0 +1,130 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.event.OwnerChanged;
+import com.nixiedroid.petclinic.event.PetChanged;
+import com.nixiedroid.petclinic.model.ClinicStats;
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetStatsRow;
+import com.nixiedroid.petclinic.repository.PetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Checks that the counters follow owner and pet events and agree with the {@code GROUP BY} queries.
+ */
+@DataJpaTest
+@Import(ClinicStatsCounter.class)
+class ClinicStatsCounterTest {
+
+    @Autowired
+    private ClinicStatsCounter statsCounter;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @SpyBean
+    private PetRepository petRepository;
+
+    private Owner london;
+    private Owner paris;
+    private Pet rex;
+    private ClinicStats before;
+
+    @BeforeEach
+    public void setUp() {
+        before = statsCounter.count();
+        london = em.persist(Owner.builder().firstName("A").lastName("A").city("London").build());
+        paris = em.persist(Owner.builder().firstName("B").lastName("B").city("Paris").build());
+        em.persist(Owner.builder().firstName("C").lastName("C").build());
+        rex = em.persist(Pet.builder().name("Rex").type("Dog").owner(london).build());
+        em.persist(Pet.builder().name("Tom").type("Cat").owner(london).build());
+        em.persist(Pet.builder().name("Max").type("Dog").owner(paris).build());
+        em.flush();
+        em.clear();
+        statsCounter.load();
+    }
+
+    @Test
+    public void testLoad_MatchesGroupBy() {
+        ClinicStats stats = statsCounter.snapshot();
+
+        assertEquals(before.owners() + 3, stats.owners());
+        assertEquals(before.pets() + 3, stats.pets());
+        assertEquals(before.petsByType().getOrDefault("Dog", 0L) + 2, stats.petsByType().get("Dog"));
+        assertEquals(before.ownersByCity().getOrDefault("Paris", 0L) + 1, stats.ownersByCity().get("Paris"));
+        assertEquals(before.ownersByPetCount().getOrDefault(2, 0L) + 1, stats.ownersByPetCount().get(2));
+        assertEquals(statsCounter.count(), stats);
+        assertEquals(stats, statsCounter.getStats());
+    }
+
+    @Test
+    public void testEvents_FollowWrites() {
+        Pet bird = em.persist(Pet.builder().name("Kesha").type("Bird").owner(em.find(Owner.class, paris.getId())).build());
+        em.flush();
+        statsCounter.onPetChanged(new PetChanged(bird.getId(), paris.getId(), null, "Kesha", "Bird", false));
+        assertEquals(statsCounter.count(), statsCounter.snapshot());
+
+        em.getEntityManager().createQuery("update Pet p set p.type = 'Wolf' where p.id = :id")
+                .setParameter("id", rex.getId()).executeUpdate();
+        statsCounter.onPetChanged(new PetChanged(rex.getId(), london.getId(), null, "Rex", "Wolf", false));
+        assertEquals(statsCounter.count(), statsCounter.snapshot());
+
+        em.getEntityManager().createQuery("delete from Pet p where p.owner.id = :id and p.id <> :keep")
+                .setParameter("id", london.getId()).setParameter("keep", rex.getId()).executeUpdate();
+        em.getEntityManager().createQuery("update Owner o set o.city = 'Paris' where o.id = :id")
+                .setParameter("id", london.getId()).executeUpdate();
+        statsCounter.onOwnerChanged(new OwnerChanged(london.getId(), "A", "Paris", List.of(rex.getId()), false));
+        assertEquals(statsCounter.count(), statsCounter.snapshot());
+
+        em.getEntityManager().createQuery("delete from Pet p where p.owner.id = :id")
+                .setParameter("id", paris.getId()).executeUpdate();
+        em.getEntityManager().createQuery("delete from Owner o where o.id = :id")
+                .setParameter("id", paris.getId()).executeUpdate();
+        statsCounter.onOwnerChanged(new OwnerChanged(paris.getId(), null, null, null, true));
+        ClinicStats stats = statsCounter.snapshot();
+        assertEquals(statsCounter.count(), stats);
+        assertEquals(before.owners() + 2, stats.owners());
+        assertEquals(before.pets() + 1, stats.pets());
+    }
+
+    @Test
+    public void testReconcile_ReloadsAfterDrift() {
+        em.getEntityManager().createQuery("delete from Pet p where p.id = :id")
+                .setParameter("id", rex.getId()).executeUpdate();
+        assertNotEquals(statsCounter.count(), statsCounter.snapshot());
+
+        statsCounter.reconcile();
+
+        assertEquals(statsCounter.count(), statsCounter.snapshot());
+        assertEquals(before.pets() + 2, statsCounter.snapshot().pets());
+    }
+
+    @Test
+    public void testLoad_ReplaysChangesAppliedMeanwhile() throws Exception {
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> statsCounter.onPetChanged(
+                    new PetChanged(rex.getId(), london.getId(), null, "Rex", "Wolf", false))).get(5, TimeUnit.SECONDS);
+            return em.getEntityManager().createQuery(
+                    "select new com.nixiedroid.petclinic.model.PetStatsRow(p.id, p.owner.id, p.type) from Pet p",
+                    PetStatsRow.class).getResultStream();
+        }).when(petRepository).streamStatsRows();
+
+        statsCounter.load();
+
+        assertEquals(before.petsByType().getOrDefault("Wolf", 0L) + 1, statsCounter.snapshot().petsByType().get("Wolf"));
+        assertEquals(before.petsByType().getOrDefault("Dog", 0L) + 1, statsCounter.snapshot().petsByType().get("Dog"));
+    }
+}
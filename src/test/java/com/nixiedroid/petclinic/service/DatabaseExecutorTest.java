@@ -0,0 +1,73 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.model.ExecutorStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseExecutorTest {
+
+    private final DatabaseExecutor db = new DatabaseExecutor(1, 1);
+
+    @AfterEach
+    public void shutDown() throws Exception {
+        db.shutdown();
+    }
+
+    @Test
+    public void testSupply_CompletesWithResultOrException() throws Exception {
+        assertEquals("A", db.supply(() -> "A").get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Object> failing = db.supply(() -> {
+            throw new IllegalStateException("B");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+
+        ExecutorStats stats = db.getStats();
+        assertEquals(1, stats.threads());
+        assertEquals(1, stats.completed());
+        assertEquals(1, stats.failed());
+        assertEquals(0, stats.rejected());
+    }
+
+    @Test
+    public void testSupply_RejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = db.supply(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = db.supply(() -> "queued");
+
+        CompletableFuture<String> rejected = db.supply(() -> "rejected");
+
+        assertTrue(rejected.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        ExecutorStats stats = db.getStats();
+        assertEquals(1, stats.active());
+        assertEquals(1, stats.queued());
+        assertEquals(1, stats.rejected());
+
+        release.countDown();
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(2, db.getStats().completed());
+        assertTrue(db.getStats().maxWaitMillis() > 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetUpsertRow;
+import com.nixiedroid.petclinic.model.Upserted;
+import com.nixiedroid.petclinic.repository.OwnerRepository;
+import com.nixiedroid.petclinic.repository.PetRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs native writes against a warm second-level cache, each in a committed transaction.
+ */
+@DataJpaTest
+@Import(EntityCacheEvictor.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityCacheEvictorTest {
+
+    @Autowired
+    private EntityCacheEvictor evictor;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private Cache cache;
+    private Long first;
+    private Long second;
+    private Long firstPet;
+    private Long secondPet;
+
+    @BeforeEach
+    public void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        cache = em.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        cache.evictAllRegions();
+        tx.executeWithoutResult(s -> {
+            Owner a = Owner.builder().firstName("A").lastName("A").build();
+            Owner b = Owner.builder().firstName("B").lastName("B").build();
+            em.persist(a);
+            em.persist(b);
+            Pet p = Pet.builder().name("P").type("T").owner(a).build();
+            Pet q = Pet.builder().name("Q").type("T").owner(b).build();
+            em.persist(p);
+            em.persist(q);
+            first = a.getId();
+            second = b.getId();
+            firstPet = p.getId();
+            secondPet = q.getId();
+        });
+        tx.executeWithoutResult(s -> {
+            em.find(Owner.class, first).getPets().size();
+            em.find(Owner.class, second).getPets().size();
+        });
+        assertTrue(cache.containsCollection(EntityCacheEvictor.OWNER_PETS, first));
+        assertTrue(cache.containsCollection(EntityCacheEvictor.OWNER_PETS, second));
+        assertTrue(cache.containsEntity(Pet.class, firstPet));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tx.executeWithoutResult(s -> {
+            ownerRepository.deleteRowById(first);
+            ownerRepository.deleteRowById(second);
+        });
+    }
+
+    @Test
+    void petUpserted_EvictsPetListsOfBothOwners() {
+        tx.executeWithoutResult(s -> {
+            Upserted<PetUpsertRow> saved = petRepository.upsert(firstPet, Pet.builder()
+                    .name("P")
+                    .type("T")
+                    .owner(em.getReference(Owner.class, second))
+                    .build());
+            evictor.petUpserted(firstPet, second, saved.value().previousOwnerId());
+        });
+
+        assertFalse(cache.containsEntity(Pet.class, firstPet));
+        assertFalse(cache.containsCollection(EntityCacheEvictor.OWNER_PETS, first));
+        assertFalse(cache.containsCollection(EntityCacheEvictor.OWNER_PETS, second));
+        assertTrue(cache.containsEntity(Pet.class, secondPet));
+        tx.executeWithoutResult(s -> {
+            assertTrue(em.find(Owner.class, first).getPets().isEmpty());
+            assertEquals(List.of(firstPet, secondPet),
+                    em.find(Owner.class, second).getPets().stream().map(Pet::getId).sorted().toList());
+        });
+    }
+
+    @Test
+    void petUpserted_EvictsAgainAfterCommit() {
+        tx.executeWithoutResult(s -> {
+            petRepository.upsert(firstPet, Pet.builder()
+                    .name("R")
+                    .type("T")
+                    .owner(em.getReference(Owner.class, first))
+                    .build());
+            evictor.petUpserted(firstPet, first, first);
+            // another transaction caches the committed state while this one is still open
+            TransactionTemplate other = new TransactionTemplate(transactionManager);
+            other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            other.executeWithoutResult(t -> em.find(Owner.class, first).getPets().size());
+            assertTrue(cache.containsCollection(EntityCacheEvictor.OWNER_PETS, first));
+        });
+
+        assertFalse(cache.containsCollection(EntityCacheEvictor.OWNER_PETS, first));
+        assertFalse(cache.containsEntity(Pet.class, firstPet));
+    }
+
+    @Test
+    void ownerDeleting_EvictsItsPets() {
+        tx.executeWithoutResult(s -> {
+            evictor.ownerDeleting(first);
+            ownerRepository.deleteRowById(first);
+        });
+
+        assertFalse(cache.containsEntity(Pet.class, firstPet));
+        assertTrue(cache.containsEntity(Pet.class, secondPet));
+        tx.executeWithoutResult(s -> assertNull(em.find(Pet.class, firstPet)));
+    }
+
+    @Test
+    void ownerDeleting_PetListNotCached_EvictsAllPets() {
+        cache.evictCollectionData(EntityCacheEvictor.OWNER_PETS, first);
+        tx.executeWithoutResult(s -> {
+            evictor.ownerDeleting(first);
+            ownerRepository.deleteRowById(first);
+        });
+
+        assertFalse(cache.containsEntity(Pet.class, firstPet));
+        assertFalse(cache.containsEntity(Pet.class, secondPet));
+    }
+}
@@ -0,0 +1,98 @@
+package com.nixiedroid.petclinic.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureJson
+@Import(ExportService.class)
+class ExportServiceTest {
+
+    private static final int OWNERS = 5;
+    private static final int PETS_PER_OWNER = 3;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < OWNERS; i++) {
+            Owner owner = Owner.builder()
+                    .firstName("F" + i)
+                    .lastName("L" + i)
+                    .build();
+            em.persist(owner);
+            for (int j = 0; j < PETS_PER_OWNER; j++) {
+                em.persist(Pet.builder()
+                        .name("P" + i + "_" + j)
+                        .type("T")
+                        .owner(owner)
+                        .build());
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void testExportOwners() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportOwners(out);
+
+        List<OwnerDTO> owners = new ArrayList<>();
+        for (String line : lines(out)) {
+            owners.add(objectMapper.readValue(line, OwnerDTO.class));
+        }
+        assertTrue(owners.size() >= OWNERS);
+        assertEquals(owners.size(), owners.stream().map(OwnerDTO::id).distinct().count());
+        OwnerDTO last = owners.get(owners.size() - 1);
+        assertEquals("F" + (OWNERS - 1), last.firstName());
+        assertEquals(PETS_PER_OWNER, last.pets().size());
+    }
+
+    @Test
+    public void testExportPets() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportPets(out);
+
+        List<PetDTO> pets = new ArrayList<>();
+        for (String line : lines(out)) {
+            pets.add(objectMapper.readValue(line, PetDTO.class));
+        }
+        assertTrue(pets.size() >= OWNERS * PETS_PER_OWNER);
+        PetDTO last = pets.get(pets.size() - 1);
+        assertEquals("P" + (OWNERS - 1) + "_" + (PETS_PER_OWNER - 1), last.name());
+        assertEquals("L" + (OWNERS - 1), last.owner().lastName());
+    }
+
+    private static List<String> lines(ByteArrayOutputStream out) {
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        return body.lines().toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.nixiedroid.petclinic.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.model.JsonBody;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.OwnerPlain;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.PetPlain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JsonCacheTest {
+
+    @Mock
+    private OwnerService ownerService;
+
+    @Mock
+    private PetService petService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private JsonCache jsonCache;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.OWNER_JSON, CacheConfig.PET_JSON);
+        jsonCache = new JsonCache(ownerService, petService, cacheManager, objectMapper, true);
+    }
+
+    @AfterEach
+    public void shutDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testGetOwner_SerializedOnce() throws Exception {
+        OwnerDTO owner = OwnerDTO.builder()
+                .id(1L)
+                .firstName("A")
+                .lastName("B")
+                .pets(List.of(new PetPlain(2L, "P", LocalDate.of(2020, 1, 1), "T", 0L)))
+                .version(3L)
+                .build();
+        when(ownerService.getOwnerById(1L)).thenReturn(Optional.of(owner));
+
+        JsonBody first = jsonCache.getOwner(1L).orElseThrow();
+        JsonBody second = jsonCache.getOwner(1L).orElseThrow();
+
+        assertSame(first, second);
+        assertArrayEquals(objectMapper.writeValueAsBytes(owner), first.json());
+        assertEquals(EntityTags.of(owner), first.tag());
+        assertEquals(Set.of(2L), first.related());
+        verify(ownerService, times(1)).getOwnerById(1L);
+    }
+
+    @Test
+    public void testGetOwner_NotExists() {
+        when(ownerService.getOwnerById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(jsonCache.getOwner(1L).isEmpty());
+        assertTrue(jsonCache.getOwner(1L).isEmpty());
+        verify(ownerService, times(2)).getOwnerById(1L);
+    }
+
+    @Test
+    public void testGetPet_SerializedOnce() throws Exception {
+        PetDTO pet = PetDTO.builder()
+                .id(1L)
+                .name("P")
+                .type("T")
+                .owner(OwnerPlain.builder().id(2L).firstName("A").lastName("B").version(0L).build())
+                .version(1L)
+                .build();
+        when(petService.getPetById(1L)).thenReturn(Optional.of(pet));
+
+        JsonBody body = jsonCache.getPet(1L).orElseThrow();
+        jsonCache.getPet(1L);
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(pet), body.json());
+        assertFalse(new String(body.json()).contains("version"));
+        assertEquals(EntityTags.of(pet), body.tag());
+        assertEquals(Set.of(2L), body.related());
+        verify(petService, times(1)).getPetById(1L);
+    }
+}
@@ -0,0 +1,156 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.event.OwnerChanged;
+import com.nixiedroid.petclinic.event.PetChanged;
+import com.nixiedroid.petclinic.model.BulkItemResult;
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.PetPlain;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "petclinic.bulk.chunk-size=50",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import(OwnerBulkService.class)
+@RecordApplicationEvents
+class OwnerBulkServiceTest {
+
+    @Autowired
+    private OwnerBulkService bulkService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    public void testCreateOwners() {
+        List<OwnerDTO> owners = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            owners.add(OwnerDTO.builder()
+                    .firstName("F" + i)
+                    .lastName("L" + i)
+                    .pets(List.of(new PetPlain(null, "P" + i, null, "T", null)))
+                    .build());
+        }
+
+        List<BulkItemResult> results = bulkService.createOwners(owners);
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < 5; i++) {
+            BulkItemResult result = results.get(i);
+            assertEquals(i, result.index());
+            assertEquals(201, result.status());
+            assertNull(result.errors());
+            Owner owner = em.find(Owner.class, result.id());
+            assertEquals("F" + i, owner.getFirstName());
+            assertEquals(1, owner.getPets().size());
+            assertEquals("P" + i, owner.getPets().get(0).getName());
+        }
+    }
+
+    @Test
+    public void testCreateOwners_PublishesChanges() {
+        List<OwnerDTO> owners = List.of(
+                OwnerDTO.builder().firstName("A").lastName("B").city("C")
+                        .pets(List.of(new PetPlain(null, "P", null, "T", null))).build(),
+                OwnerDTO.builder().firstName("").lastName("B").build());
+
+        List<BulkItemResult> results = bulkService.createOwners(owners);
+
+        Long ownerId = results.get(0).id();
+        List<OwnerChanged> ownerEvents = events.stream(OwnerChanged.class).toList();
+        assertEquals(1, ownerEvents.size());
+        assertEquals(ownerId, ownerEvents.get(0).ownerId());
+        assertEquals("B", ownerEvents.get(0).lastName());
+        assertEquals("C", ownerEvents.get(0).city());
+        List<PetChanged> petEvents = events.stream(PetChanged.class).toList();
+        assertEquals(1, petEvents.size());
+        assertEquals(ownerEvents.get(0).petIds(), List.of(petEvents.get(0).petId()));
+        assertEquals(ownerId, petEvents.get(0).ownerId());
+        assertEquals("P", petEvents.get(0).name());
+    }
+
+    @Test
+    public void testCreateOwners_RejectsInvalidItems() {
+        List<OwnerDTO> owners = List.of(
+                OwnerDTO.builder().firstName("A").lastName("B").build(),
+                OwnerDTO.builder().firstName("").lastName("B").build(),
+                OwnerDTO.builder().id(1L).firstName("A").lastName("B").build(),
+                OwnerDTO.builder().firstName("A").lastName("B")
+                        .pets(List.of(new PetPlain(null, null, null, null, null))).build());
+
+        List<BulkItemResult> results = bulkService.createOwners(owners);
+
+        assertEquals(201, results.get(0).status());
+        assertNotNull(results.get(0).id());
+        assertEquals(400, results.get(1).status());
+        assertTrue(results.get(1).errors().containsKey("firstName"));
+        assertEquals(400, results.get(2).status());
+        assertEquals("Owner is already exists", results.get(2).errors().get("id"));
+        assertEquals(400, results.get(3).status());
+        assertTrue(results.get(3).errors().containsKey("pets[0].name"));
+        assertTrue(results.get(3).errors().containsKey("pets[0].type"));
+    }
+
+    @Test
+    public void testCreateOwners_BatchesInserts() {
+        List<OwnerDTO> owners = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            owners.add(OwnerDTO.builder()
+                    .firstName("F" + i)
+                    .lastName("L" + i)
+                    .pets(List.of(new PetPlain(null, "P" + i, null, "T", null)))
+                    .build());
+        }
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BulkItemResult> results = bulkService.createOwners(owners);
+
+        results.forEach(r -> assertEquals(201, r.status()));
+        // two chunks, each one owner and one pet insert batch, plus a few sequence calls
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCreateOwners_LooksUpExistingIdsPerChunk() {
+        List<OwnerDTO> owners = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            owners.add(OwnerDTO.builder().id(100_000L + i).firstName("F" + i).lastName("L" + i).build());
+        }
+        owners.add(OwnerDTO.builder().id(1L).firstName("A").lastName("B").build());
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BulkItemResult> results = bulkService.createOwners(owners);
+
+        results.subList(0, 120).forEach(r -> assertEquals(201, r.status()));
+        assertEquals(400, results.get(120).status());
+        assertTrue(results.get(120).errors().containsKey("id"));
+        assertEquals(3, statistics.getQueryStatistics("select o.id from Owner o where o.id in :ids").getExecutionCount());
+    }
+}
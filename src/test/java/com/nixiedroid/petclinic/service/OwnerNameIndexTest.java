@@ -0,0 +1,100 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.event.OwnerChanged;
+import com.nixiedroid.petclinic.model.OwnerName;
+import com.nixiedroid.petclinic.repository.OwnerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OwnerNameIndexTest {
+
+    @Mock
+    private OwnerRepository ownerRepository;
+
+    private OwnerNameIndex index;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        index = new OwnerNameIndex(ownerRepository, true);
+    }
+
+    @AfterEach
+    public void shutDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testBuild_SearchByPrefixIgnoringCase() {
+        when(ownerRepository.streamNames()).thenReturn(Stream.of(
+                new OwnerName(3L, "Smith"),
+                new OwnerName(1L, "smirnov"),
+                new OwnerName(2L, "Smith"),
+                new OwnerName(4L, "Snow")));
+        assertFalse(index.isReady());
+
+        index.build();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L, 2L, 3L), index.search("SMI", 10));
+        assertEquals(List.of(2L, 3L), index.search("smith", 10));
+        assertEquals(List.of(1L, 2L), index.search("Smi", 2));
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.search("", 10));
+        assertTrue(index.search("Smz", 10).isEmpty());
+    }
+
+    @Test
+    public void testBuild_Disabled() {
+        index = new OwnerNameIndex(ownerRepository, false);
+
+        index.build();
+
+        assertFalse(index.isReady());
+        verifyNoInteractions(ownerRepository);
+    }
+
+    @Test
+    public void testOnOwnerChanged_RenameAndDelete() {
+        index.onOwnerChanged(new OwnerChanged(1L, "Smith", null, List.of(), false));
+        assertEquals(List.of(1L), index.search("smi", 10));
+
+        index.onOwnerChanged(new OwnerChanged(1L, "Jones", null, List.of(), false));
+        assertTrue(index.search("smi", 10).isEmpty());
+        assertEquals(List.of(1L), index.search("jo", 10));
+
+        index.onOwnerChanged(new OwnerChanged(1L, null, null, null, true));
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    @Test
+    public void testBuild_KeepsChangesMadeWhileBuilding() {
+        index.put(1L, "Jones");
+        index.remove(2L);
+        when(ownerRepository.streamNames()).thenReturn(Stream.of(
+                new OwnerName(1L, "Smith"),
+                new OwnerName(2L, "Smith"),
+                new OwnerName(3L, "Smith")));
+
+        index.build();
+
+        assertEquals(List.of(3L), index.search("smi", 10));
+        assertEquals(List.of(1L), index.search("jo", 10));
+    }
+
+    @Test
+    public void testLikePattern_EscapesWildcards() {
+        assertEquals("smi%", OwnerNameIndex.likePattern("Smi"));
+        assertEquals("a\\%b\\_c\\\\%", OwnerNameIndex.likePattern("A%b_c\\"));
+    }
+}
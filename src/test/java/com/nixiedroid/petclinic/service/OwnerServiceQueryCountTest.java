@@ -0,0 +1,166 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.model.KeysetPage;
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.OwnerDTO;
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetPlain;
+import com.nixiedroid.petclinic.repository.OwnerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the fetch plan of the owner read paths against N+1 regressions.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({OwnerService.class, OwnerNameIndex.class, CacheConfig.class, EntityCacheEvictor.class})
+class OwnerServiceQueryCountTest {
+
+    private static final int OWNERS = 10;
+    private static final int PETS_PER_OWNER = 3;
+
+    @Autowired
+    private OwnerService ownerService;
+
+    @Autowired
+    private OwnerNameIndex nameIndex;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < OWNERS; i++) {
+            Owner owner = Owner.builder()
+                    .firstName("F" + i)
+                    .lastName("L" + i)
+                    .build();
+            em.persist(owner);
+            for (int j = 0; j < PETS_PER_OWNER; j++) {
+                em.persist(Pet.builder()
+                        .name("P" + i + "_" + j)
+                        .type("T")
+                        .owner(owner)
+                        .build());
+            }
+        }
+        em.flush();
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testGetAllOwners_SingleQuery() {
+        List<OwnerDTO> owners = ownerService.getAllOwners();
+
+        assertTrue(owners.size() >= OWNERS);
+        assertEquals(PETS_PER_OWNER, owners.get(owners.size() - 1).pets().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetOwners_TwoQueriesPerPage() {
+        KeysetPage<OwnerDTO> page = ownerService.getOwners(0L, OWNERS);
+
+        assertEquals(OWNERS, page.items().size());
+        page.items().forEach(o -> assertNotNull(o.pets()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testGetOwnerById_SingleQuery() {
+        Long id = ownerService.getOwners(0L, OWNERS).items().get(OWNERS - 1).id();
+        em.clear();
+        statistics.clear();
+
+        Optional<OwnerDTO> owner = ownerService.getOwnerById(id);
+
+        assertTrue(owner.isPresent());
+        assertEquals(PETS_PER_OWNER, owner.get().pets().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testSearchOwners_SingleQueryFromIndex() {
+        nameIndex.build();
+        statistics.clear();
+
+        List<OwnerDTO> owners = ownerService.searchOwners("l1", OWNERS);
+
+        assertEquals(1, owners.size());
+        assertEquals("L1", owners.get(0).lastName());
+        assertEquals(PETS_PER_OWNER, owners.get(0).pets().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testFindIdsByLastNameKeyLike_PrefixAndLimit() {
+        assertEquals(3, ownerRepository.findIdsByLastNameKeyLike(OwnerNameIndex.likePattern("L"), Limit.of(3)).size());
+        assertEquals(1, ownerRepository.findIdsByLastNameKeyLike(OwnerNameIndex.likePattern("l5"), Limit.of(3)).size());
+        assertTrue(ownerRepository.findIdsByLastNameKeyLike(OwnerNameIndex.likePattern("L_"), Limit.of(3)).isEmpty());
+    }
+
+    @Test
+    public void testSaveOwner_StatementCountIndependentOfPetCount() {
+        assertEquals(statementsToSave(persistOwner(1)), statementsToSave(persistOwner(50)));
+    }
+
+    private OwnerDTO persistOwner(int pets) {
+        Owner owner = Owner.builder()
+                .firstName("F")
+                .lastName("L")
+                .build();
+        em.persist(owner);
+        List<PetPlain> plains = new ArrayList<>();
+        for (int i = 0; i < pets; i++) {
+            Pet pet = Pet.builder()
+                    .name("P" + i)
+                    .type("T")
+                    .owner(owner)
+                    .build();
+            em.persist(pet);
+            plains.add(new PetPlain(pet.getId(), pet.getName(), null, pet.getType(), pet.getVersion()));
+        }
+        em.flush();
+        em.clear();
+        return OwnerDTO.builder()
+                .id(owner.getId())
+                .firstName("G")
+                .lastName("L")
+                .pets(plains)
+                .build();
+    }
+
+    private long statementsToSave(OwnerDTO dto) {
+        statistics.clear();
+        OwnerDTO saved = ownerService.saveOwner(dto);
+        em.flush();
+        em.clear();
+        assertEquals(dto.pets().size(), saved.pets().size());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -1,17 +1,26 @@
 package com.nixiedroid.petclinic.service;
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.event.OwnerChanged;
+import com.nixiedroid.petclinic.model.KeysetPage;
 import com.nixiedroid.petclinic.model.Owner;
 import com.nixiedroid.petclinic.model.OwnerDTO;
 import com.nixiedroid.petclinic.model.Pet;
 import com.nixiedroid.petclinic.model.PetPlain;
+import com.nixiedroid.petclinic.model.Upserted;
+import com.nixiedroid.petclinic.model.VersionRow;
 import com.nixiedroid.petclinic.repository.OwnerRepository;
 import com.nixiedroid.petclinic.repository.PetRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.util.*;
 
@@ -27,6 +36,18 @@ class OwnerServiceTest {
     @Mock
     private PetRepository petRepository;
 
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private OwnerNameIndex nameIndex;
+
+    @Mock
+    private EntityCacheEvictor entityCache;
+
     @InjectMocks
     private OwnerService ownerService;
 
@@ -73,6 +94,38 @@ class OwnerServiceTest {
         assertEquals("D", result.get(1).firstName());
     }
 
+    @Test
+    public void testGetOwners() {
+        Owner owner1 = Owner.builder().id(1L).firstName("A").lastName("B").build();
+        Owner owner2 = Owner.builder().id(2L).firstName("D").lastName("B").build();
+        Owner owner3 = Owner.builder().id(3L).firstName("E").lastName("B").build();
+
+        when(ownerRepository.findIdsAfter(0L, Limit.of(3))).thenReturn(List.of(1L, 2L, 3L));
+        when(ownerRepository.findIdsAfter(2L, Limit.of(3))).thenReturn(List.of(3L));
+        when(ownerRepository.findByIdInOrderByIdAsc(List.of(1L, 2L))).thenReturn(List.of(owner1, owner2));
+        when(ownerRepository.findByIdInOrderByIdAsc(List.of(3L))).thenReturn(List.of(owner3));
+
+        KeysetPage<OwnerDTO> first = ownerService.getOwners(0L, 2);
+        KeysetPage<OwnerDTO> last = ownerService.getOwners(2L, 2);
+
+        assertEquals(2, first.items().size());
+        assertEquals("D", first.items().get(1).firstName());
+        assertEquals(2L, first.next());
+        assertEquals(1, last.items().size());
+        assertNull(last.next());
+    }
+
+    @Test
+    public void testGetOwners_Empty() {
+        when(ownerRepository.findIdsAfter(5L, Limit.of(3))).thenReturn(List.of());
+
+        KeysetPage<OwnerDTO> page = ownerService.getOwners(5L, 2);
+
+        assertTrue(page.items().isEmpty());
+        assertNull(page.next());
+        verify(ownerRepository, never()).findByIdInOrderByIdAsc(any());
+    }
+
     @Test
     public void testGetOwnerById_Exists() {
         Owner owner =  Owner.builder()
@@ -101,6 +154,81 @@ class OwnerServiceTest {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    public void testGetOwnerTag_FromVersions() {
+        OwnerDTO owner = OwnerDTO.builder()
+                .id(1L)
+                .version(3L)
+                .pets(List.of(new PetPlain(5L, "P", null, "T", 1L), new PetPlain(2L, "P", null, "T", 0L)))
+                .build();
+        when(cacheManager.getCache(CacheConfig.OWNERS)).thenReturn(new ConcurrentMapCache(CacheConfig.OWNERS));
+        when(ownerRepository.findVersionsById(1L)).thenReturn(List.of(
+                new VersionRow(1L, 3L, 2L, 0L),
+                new VersionRow(1L, 3L, 5L, 1L)));
+
+        Optional<String> result = ownerService.getOwnerTag(1L);
+
+        assertEquals(Optional.of(EntityTags.of(owner)), result);
+        verify(ownerRepository, never()).findDistinctById(any());
+    }
+
+    @Test
+    public void testGetOwnerTag_FromCache() {
+        OwnerDTO owner = OwnerDTO.builder().id(1L).version(3L).pets(List.of()).build();
+        ConcurrentMapCache cache = new ConcurrentMapCache(CacheConfig.OWNERS);
+        cache.put(1L, owner);
+        when(cacheManager.getCache(CacheConfig.OWNERS)).thenReturn(cache);
+
+        Optional<String> result = ownerService.getOwnerTag(1L);
+
+        assertEquals(Optional.of(EntityTags.of(owner)), result);
+        verifyNoInteractions(ownerRepository);
+    }
+
+    @Test
+    public void testGetOwnerTag_NotExists() {
+        when(ownerRepository.findVersionsById(1L)).thenReturn(List.of());
+
+        assertTrue(ownerService.getOwnerTag(1L).isEmpty());
+    }
+
+    @Test
+    public void testGetOwnerTag_ChangesWithPetVersion() {
+        when(ownerRepository.findVersionsById(1L)).thenReturn(List.of(new VersionRow(1L, 3L, 2L, 0L)));
+        Optional<String> before = ownerService.getOwnerTag(1L);
+        when(ownerRepository.findVersionsById(1L)).thenReturn(List.of(new VersionRow(1L, 3L, 2L, 1L)));
+
+        assertNotEquals(before, ownerService.getOwnerTag(1L));
+    }
+
+    @Test
+    public void testSearchOwners_FromIndex() {
+        Owner owner1 = Owner.builder().id(1L).lastName("Smith").pets(new ArrayList<>()).build();
+        Owner owner2 = Owner.builder().id(2L).lastName("smirnov").pets(new ArrayList<>()).build();
+        when(nameIndex.isReady()).thenReturn(true);
+        when(nameIndex.search("Smi", 10)).thenReturn(List.of(2L, 1L));
+        when(ownerRepository.findByIdInOrderByIdAsc(any())).thenReturn(List.of(owner1, owner2));
+
+        List<OwnerDTO> result = ownerService.searchOwners("Smi", 10);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(OwnerDTO::id).toList());
+        verify(ownerRepository, never()).findIdsByLastNameKeyLike(any(), any());
+    }
+
+    @Test
+    public void testSearchOwners_FallbackToDatabase() {
+        Owner owner = Owner.builder().id(1L).lastName("Smith").pets(new ArrayList<>()).build();
+        when(nameIndex.isReady()).thenReturn(false);
+        when(ownerRepository.findIdsByLastNameKeyLike("smi%", Limit.of(10))).thenReturn(List.of(1L));
+        when(ownerRepository.findByIdInOrderByIdAsc(any())).thenReturn(List.of(owner));
+
+        List<OwnerDTO> result = ownerService.searchOwners("Smi", 10);
+
+        assertEquals(1, result.size());
+        assertEquals("Smith", result.get(0).lastName());
+        verify(nameIndex, never()).search(any(), anyInt());
+    }
+
     @Test
     public void testSaveOwner_CreateNew() {
         OwnerDTO ownerDTO = OwnerDTO.builder()
@@ -151,7 +279,7 @@ class OwnerServiceTest {
                 .telephone("88005553535")
                 .build();
 
-        when(ownerRepository.findDistinctById(1L)).thenReturn(Optional.of(existingOwner));
+        when(ownerRepository.findById(1L)).thenReturn(Optional.of(existingOwner));
         when(ownerRepository.save(any(Owner.class))).thenReturn(existingOwner);
 
         OwnerDTO updatedOwnerDTO = ownerService.saveOwner(ownerDTO);
@@ -160,18 +288,81 @@ class OwnerServiceTest {
         assertEquals("A", updatedOwnerDTO.firstName());
     }
 
+    @Test
+    public void testUpsertOwner_Updated() {
+        OwnerDTO ownerDTO = OwnerDTO.builder()
+                .id(1L)
+                .firstName("A")
+                .lastName("B")
+                .pets(List.of(new PetPlain(2L, "P", null, "T", null)))
+                .build();
+
+        when(ownerRepository.upsert(eq(1L), any(Owner.class))).thenReturn(new Upserted<>(1L, false));
+        when(petRepository.findByOwnerIdOrderById(1L)).thenReturn(List.of(Pet.builder().id(2L).name("P").build()));
+
+        Upserted<OwnerDTO> saved = ownerService.upsertOwner(ownerDTO);
+
+        assertFalse(saved.created());
+        assertEquals(1L, saved.value().id());
+        assertEquals("A", saved.value().firstName());
+        assertEquals(1, saved.value().pets().size());
+        verify(petRepository).deleteByOwnerIdExcept(1L, List.of(2L));
+        verify(ownerRepository, never()).findById(any());
+        verify(entityCache).ownerUpserted(1L);
+        verify(events).publishEvent(new OwnerChanged(1L, "B", null, List.of(2L), false));
+    }
+
+    @Test
+    public void testUpsertOwner_UpdatedWithoutPets() {
+        OwnerDTO ownerDTO = OwnerDTO.builder()
+                .id(1L)
+                .firstName("A")
+                .lastName("B")
+                .build();
+
+        when(ownerRepository.upsert(eq(1L), any(Owner.class))).thenReturn(new Upserted<>(1L, false));
+
+        ownerService.upsertOwner(ownerDTO);
+
+        verify(petRepository).deleteByOwnerId(1L);
+    }
+
+    @Test
+    public void testUpsertOwner_Created() {
+        OwnerDTO ownerDTO = OwnerDTO.builder()
+                .id(1L)
+                .firstName("A")
+                .lastName("B")
+                .pets(List.of(new PetPlain(2L, "P", null, "T", null)))
+                .build();
+
+        when(ownerRepository.upsert(eq(1L), any(Owner.class))).thenReturn(new Upserted<>(51L, true));
+
+        Upserted<OwnerDTO> saved = ownerService.upsertOwner(ownerDTO);
+
+        assertTrue(saved.created());
+        assertEquals(51L, saved.value().id());
+        assertTrue(saved.value().pets().isEmpty());
+        verifyNoInteractions(petRepository);
+    }
+
     @Test
     public void testDeleteOwner_Exists() {
-        doNothing().when(ownerRepository).deleteById(1L);
+        when(ownerRepository.deleteRowById(1L)).thenReturn(1);
 
-        assertDoesNotThrow(() -> ownerService.deleteOwner(1L));
+        assertTrue(ownerService.deleteOwner(1L));
+        InOrder order = inOrder(entityCache, ownerRepository);
+        order.verify(entityCache).ownerDeleting(1L);
+        order.verify(ownerRepository).deleteRowById(1L);
+        verify(events).publishEvent(new OwnerChanged(1L, null, null, null, true));
     }
 
     @Test
     public void testDeleteOwner_NotExists() {
-        doThrow(EmptyResultDataAccessException.class).when(ownerRepository).deleteById(1L);
+        when(ownerRepository.deleteRowById(1L)).thenReturn(0);
 
-        assertThrows(EmptyResultDataAccessException.class, () -> ownerService.deleteOwner(1L));
+        assertFalse(ownerService.deleteOwner(1L));
+        verifyNoInteractions(events);
     }
 
 
@@ -190,7 +381,7 @@ class OwnerServiceTest {
 
         when(petRepository.findDistinctById(anyLong())).thenReturn(Optional.empty());
 
-        OwnerDTO ownerDTO = ownerService.toDto(owner);
+        OwnerDTO ownerDTO = OwnerDTO.create(owner);
 
         assertEquals(owner.getId(), ownerDTO.id());
         assertEquals(owner.getFirstName(), ownerDTO.firstName());
@@ -211,10 +402,10 @@ class OwnerServiceTest {
                 .address("AA")
                 .city("BB")
                 .telephone("88005553535")
-                .pets(Collections.singletonList(new PetPlain(1L, "A", null, "B")))
+                .pets(Collections.singletonList(new PetPlain(1L, "A", null, "B", null)))
                 .build();
 
-        when(petRepository.findDistinctById(anyLong())).thenReturn(Optional.of(new Pet()));
+        when(petRepository.loadAllById(anyCollection())).thenReturn(List.of(Pet.builder().id(1L).build()));
 
         ownerService.fillEntity(owner, ownerDTO);
 
@@ -226,4 +417,41 @@ class OwnerServiceTest {
         assertEquals(ownerDTO.pets().size(), owner.getPets().size());
     }
 
+    @Test
+    public void testFillEntity_ResolvesPetsWithSingleLookup() {
+        Owner owner = new Owner();
+        OwnerDTO ownerDTO = OwnerDTO.builder()
+                .firstName("AAA")
+                .lastName("B")
+                .pets(List.of(
+                        new PetPlain(3L, "A", null, "B", null),
+                        new PetPlain(1L, "A", null, "B", null),
+                        new PetPlain(2L, "A", null, "B", null),
+                        new PetPlain(null, "A", null, "B", null)))
+                .build();
+
+        when(petRepository.loadAllById(anyCollection())).thenReturn(List.of(
+                Pet.builder().id(1L).build(),
+                Pet.builder().id(3L).build()));
+
+        ownerService.fillEntity(owner, ownerDTO);
+
+        verify(petRepository, times(1)).loadAllById(anyCollection());
+        verify(petRepository, never()).findDistinctById(any());
+        assertEquals(List.of(3L, 1L), owner.getPets().stream().map(Pet::getId).toList());
+    }
+
+    @Test
+    public void testFillEntity_NullPets() {
+        Owner owner = new Owner();
+        OwnerDTO ownerDTO = OwnerDTO.builder()
+                .firstName("AAA")
+                .lastName("B")
+                .build();
+
+        ownerService.fillEntity(owner, ownerDTO);
+
+        assertTrue(owner.getPets().isEmpty());
+        verifyNoInteractions(petRepository);
+    }
 }
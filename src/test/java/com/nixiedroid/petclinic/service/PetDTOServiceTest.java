@@ -1,5 +1,6 @@
 package com.nixiedroid.petclinic.service;
 
+import com.nixiedroid.petclinic.model.Owner;
 import com.nixiedroid.petclinic.model.OwnerPlain;
 import com.nixiedroid.petclinic.model.PetDTO;
 import com.nixiedroid.petclinic.repository.OwnerRepository;
@@ -12,6 +13,8 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
@@ -38,7 +41,7 @@ class PetDTOServiceTest {
 
     @Test
     public void testValidation_ValidPetDTO() {
-        when(ownerRepository.existsById(1L)).thenReturn(true);
+        when(ownerRepository.findById(1L)).thenReturn(Optional.of(new Owner()));
         PetDTO validPetDTO = PetDTO.builder()
                 .id(1L)
                 .name("B")
@@ -72,7 +75,7 @@ class PetDTOServiceTest {
 
     @Test
     public void testValidation_NonExistentOwner() {
-        when(ownerRepository.existsById(1L)).thenReturn(false);
+        when(ownerRepository.findById(1L)).thenReturn(Optional.empty());
         PetDTO petDTO = PetDTO.builder()
                 .id(1L)
                 .name("B")
@@ -92,7 +95,7 @@ class PetDTOServiceTest {
 
     @Test
     public void testValidation_NullPetName() {
-        when(ownerRepository.existsById(1L)).thenReturn(true);
+        when(ownerRepository.findById(1L)).thenReturn(Optional.of(new Owner()));
         PetDTO petDTO = PetDTO.builder()
                 .id(1L)
                 .name(null)
@@ -112,7 +115,7 @@ class PetDTOServiceTest {
 
     @Test
     public void testValidation_EmptyPetName() {
-        when(ownerRepository.existsById(1L)).thenReturn(true);
+        when(ownerRepository.findById(1L)).thenReturn(Optional.of(new Owner()));
         PetDTO petDTO = PetDTO.builder()
                 .id(1L)
                 .name("")
@@ -0,0 +1,139 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.config.PrimaryReads;
+import com.nixiedroid.petclinic.model.KeysetPage;
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.repository.PetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares pet search through the {@link PetSearchIndex} with the equivalent {@code LIKE} query.
+ * <br>Both must return the same pages, names split by punctuation included.
+ * The average time each takes to answer the first page is logged by a test tagged {@code load},
+ * which runs with the {@code load} Maven profile only.
+ */
+@Slf4j
+@DataJpaTest
+@Import({PetService.class, PetSearchIndex.class, PrimaryReads.class, CacheConfig.class, EntityCacheEvictor.class})
+class PetSearchBenchmarkTest {
+
+    /**
+     * Pets compared by the unit suite
+     */
+    private static final int PETS = 500;
+    /**
+     * Pets searched by the timing test
+     */
+    private static final int LOAD_PETS = 5000;
+    private static final int PAGE = 50;
+    private static final int ROUNDS = 50;
+    private static final String[] NAMES = {"Max", "Bella", "Maxine", "Rex", "Lucy", "Sir", "Whiskers", "Rose", "Buddy", "Luna",
+            "Mr.Whiskers", "O'Malley"};
+    private static final String[] TYPES = {"Dog", "Cat", "Hamster", "Parrot", "Guinea Pig", "Guinea-Pig", "Dogo"};
+    private static final List<String> QUERIES = List.of("max", "dog", "lu ca", "sir whisk", "rose bud dog", "guinea",
+            "zebra", "whisk", "mr.w", "pig", "guinea-pig", "malley", "m");
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private PetSearchIndex searchIndex;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private int pets;
+
+    @BeforeEach
+    public void setUp(TestInfo test) {
+        pets = test.getTags().contains("load") ? LOAD_PETS : PETS;
+        Random random = new Random(42);
+        Owner owner = Owner.builder().firstName("F").lastName("L").build();
+        em.persist(owner);
+        for (int i = 0; i < pets; i++) {
+            em.persist(Pet.builder()
+                    .name(NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)])
+                    .type(TYPES[random.nextInt(TYPES.length)])
+                    .owner(owner)
+                    .build());
+        }
+        em.flush();
+        em.clear();
+        searchIndex.build();
+    }
+
+    @Test
+    public void testIndexMatchesLike() {
+        for (String query : QUERIES) {
+            List<Long> ids = pageThroughIndex(query);
+            assertEquals(pageThroughLike(query), ids, query);
+            if (!query.equals("zebra")) {
+                assertFalse(ids.isEmpty(), query);
+            }
+        }
+    }
+
+    @Test
+    @Tag("load")
+    public void testFirstPageTimes() {
+        for (String query : QUERIES) {
+            List<String> terms = PetSearchIndex.tokenize(query);
+            long start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                petService.searchPets(query, 0L, PAGE);
+            }
+            long index = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                petRepository.findDtosMatching(terms, 0L, PAGE + 1);
+            }
+            long like = System.nanoTime() - start;
+            log.info("First page of '{}' over {} pets: index {} us, like {} us",
+                    query, pets, index / ROUNDS / 1000, like / ROUNDS / 1000);
+        }
+    }
+
+    private List<Long> pageThroughIndex(String query) {
+        List<Long> ids = new ArrayList<>();
+        Long after = 0L;
+        while (after != null) {
+            KeysetPage<PetDTO> page = petService.searchPets(query, after, PAGE);
+            page.items().forEach(p -> ids.add(p.id()));
+            after = page.next();
+        }
+        return ids;
+    }
+
+    private List<Long> pageThroughLike(String query) {
+        List<String> terms = PetSearchIndex.tokenize(query);
+        List<Long> ids = new ArrayList<>();
+        Long after = 0L;
+        while (after != null) {
+            KeysetPage<PetDTO> page = KeysetPage.of(petRepository.findDtosMatching(terms, after, PAGE + 1),
+                    PAGE, PetDTO::id);
+            page.items().forEach(p -> ids.add(p.id()));
+            after = page.next();
+        }
+        return ids;
+    }
+}
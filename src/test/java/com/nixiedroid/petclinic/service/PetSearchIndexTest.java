@@ -0,0 +1,118 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.event.PetChanged;
+import com.nixiedroid.petclinic.model.PetTerms;
+import com.nixiedroid.petclinic.repository.PetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PetSearchIndexTest {
+
+    @Mock
+    private PetRepository petRepository;
+
+    private PetSearchIndex index;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        index = new PetSearchIndex(petRepository, true);
+        when(petRepository.streamTerms()).thenReturn(Stream.of(
+                new PetTerms(1L, "Max", "Dog"),
+                new PetTerms(2L, "Maxi the Brave", "Cat"),
+                new PetTerms(3L, "Rex", "dog"),
+                new PetTerms(4L, "Bella-Max", "Hamster"),
+                new PetTerms(5L, "Doge", "Bird")));
+        index.build();
+    }
+
+    @AfterEach
+    public void shutDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testSearch_PrefixOfAnyWord() {
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L, 2L, 4L), index.search(List.of("max"), 0L, 10));
+        assertEquals(List.of(1L, 3L, 5L), index.search(List.of("dog"), 0L, 10));
+        assertEquals(List.of(2L), index.search(List.of("brave"), 0L, 10));
+        assertTrue(index.search(List.of("axi"), 0L, 10).isEmpty());
+    }
+
+    @Test
+    public void testSearch_EveryTermMustMatch() {
+        assertEquals(List.of(1L), index.search(List.of("max", "dog"), 0L, 10));
+        assertEquals(List.of(1L), index.search(List.of("d", "ma"), 0L, 10));
+        assertTrue(index.search(List.of("rex", "cat"), 0L, 10).isEmpty());
+    }
+
+    @Test
+    public void testSearch_KeysetPages() {
+        assertEquals(List.of(1L, 2L), index.search(List.of("m"), 0L, 2));
+        assertEquals(List.of(4L), index.search(List.of("m"), 2L, 2));
+        assertTrue(index.search(List.of("m"), 4L, 2).isEmpty());
+    }
+
+    @Test
+    public void testOnPetChanged_RenameAndDelete() {
+        index.onPetChanged(new PetChanged(3L, 1L, null, "Maximus", "Dog", false));
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.search(List.of("max"), 0L, 10));
+        assertTrue(index.search(List.of("rex"), 0L, 10).isEmpty());
+
+        index.onPetChanged(new PetChanged(1L, null, null, null, null, true));
+        assertEquals(List.of(3L, 5L), index.search(List.of("dog"), 0L, 10));
+    }
+
+    @Test
+    public void testOnPetChanged_DropsUnusedTokens() {
+        int before = index.tokenCount();
+        index.onPetChanged(new PetChanged(3L, 1L, null, "Zed", "Dog", false));
+        assertEquals(before, index.tokenCount());
+        index.onPetChanged(new PetChanged(3L, null, null, null, null, true));
+        assertEquals(before - 1, index.tokenCount());
+        assertTrue(index.search(List.of("zed"), 0L, 10).isEmpty());
+        assertTrue(index.search(List.of("z"), 0L, 10).isEmpty());
+    }
+
+    @Test
+    public void testSearch_ShortTermsFollowRenames() {
+        assertEquals(List.of(3L), index.search(List.of("r"), 0L, 10));
+        assertEquals(List.of(3L), index.search(List.of("re"), 0L, 10));
+        index.onPetChanged(new PetChanged(3L, 1L, null, "Max", "Rat", false));
+        assertEquals(List.of(3L), index.search(List.of("r"), 0L, 10));
+        assertTrue(index.search(List.of("re"), 0L, 10).isEmpty());
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.search(List.of("m"), 0L, 10));
+        assertEquals(List.of(2L), index.search(List.of("t"), 0L, 10));
+    }
+
+    @Test
+    public void testBuild_Disabled() {
+        PetRepository repository = mock(PetRepository.class);
+        PetSearchIndex disabled = new PetSearchIndex(repository, false);
+
+        disabled.build();
+
+        assertFalse(disabled.isReady());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("bella", "max", "dog"), PetSearchIndex.tokenize("Bella-Max", "DOG", null));
+        assertEquals(List.of("max"), PetSearchIndex.tokenize("  max%, MAX_ "));
+        assertTrue(PetSearchIndex.tokenize("%_ ").isEmpty());
+        assertEquals(List.of("mr", "whiskers", "guinea", "pig"), PetSearchIndex.tokenize("Mr.Whiskers", "Guinea-Pig"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.nixiedroid.petclinic.service;
+
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.config.PrimaryReads;
+import com.nixiedroid.petclinic.model.KeysetPage;
+import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.Pet;
+import com.nixiedroid.petclinic.model.PetDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the projection based pet read paths against per-owner queries.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({PetService.class, PetSearchIndex.class, PrimaryReads.class, CacheConfig.class, EntityCacheEvictor.class})
+class PetServiceQueryCountTest {
+
+    private static final int OWNERS = 10;
+
+    @Autowired
+    private PetService petService;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private Statistics statistics;
+
+    private Long lastPetId;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < OWNERS; i++) {
+            Owner owner = Owner.builder()
+                    .firstName("F" + i)
+                    .lastName("L" + i)
+                    .build();
+            em.persist(owner);
+            lastPetId = em.persistAndGetId(Pet.builder()
+                    .name("P" + i)
+                    .type("T")
+                    .owner(owner)
+                    .build(), Long.class);
+        }
+        em.flush();
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testGetAllPets_SingleQuery() {
+        List<PetDTO> pets = petService.getAllPets();
+
+        assertTrue(pets.size() >= OWNERS);
+        pets.forEach(p -> assertNotNull(p.owner()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testGetPets_SingleQuery() {
+        KeysetPage<PetDTO> page = petService.getPets(0L, OWNERS);
+
+        assertEquals(OWNERS, page.items().size());
+        page.items().forEach(p -> assertNotNull(p.owner().lastName()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testGetPetById_SingleQuery() {
+        Optional<PetDTO> pet = petService.getPetById(lastPetId);
+
+        assertTrue(pet.isPresent());
+        assertEquals("L" + (OWNERS - 1), pet.get().owner().lastName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
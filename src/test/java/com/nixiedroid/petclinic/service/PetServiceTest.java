@@ -1,9 +1,16 @@
 package com.nixiedroid.petclinic.service;
 
+import com.nixiedroid.petclinic.config.CacheConfig;
+import com.nixiedroid.petclinic.config.PrimaryReads;
+import com.nixiedroid.petclinic.event.PetChanged;
+import com.nixiedroid.petclinic.model.KeysetPage;
 import com.nixiedroid.petclinic.model.OwnerPlain;
 import com.nixiedroid.petclinic.model.Pet;
 import com.nixiedroid.petclinic.model.PetDTO;
+import com.nixiedroid.petclinic.model.PetUpsertRow;
 import com.nixiedroid.petclinic.model.Owner;
+import com.nixiedroid.petclinic.model.Upserted;
+import com.nixiedroid.petclinic.model.VersionRow;
 import com.nixiedroid.petclinic.repository.OwnerRepository;
 import com.nixiedroid.petclinic.repository.PetRepository;
 import org.junit.jupiter.api.AfterEach;
@@ -12,12 +19,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +41,21 @@ class PetServiceTest {
     @Mock
     private OwnerRepository ownerRepository;
 
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private PetSearchIndex searchIndex;
+
+    @Mock
+    private PrimaryReads primaryReads;
+
+    @Mock
+    private EntityCacheEvictor entityCache;
+
     @InjectMocks
     private PetService petService;
 
@@ -47,24 +73,24 @@ class PetServiceTest {
 
     @Test
     public void testGetAllPets() {
-        Pet pet1 = Pet.builder()
+        PetDTO pet1 = PetDTO.builder()
                 .id(1L)
                 .name("A")
                 .birthDate(LocalDate.now())
                 .type("B")
-                .owner(new Owner())
+                .owner(OwnerPlain.builder().id(1L).build())
                 .build();
 
-        Pet pet2 = Pet.builder()
+        PetDTO pet2 = PetDTO.builder()
                 .id(2L)
                 .name("D")
                 .birthDate(LocalDate.now())
                 .type("B")
-                .owner(new Owner())
+                .owner(OwnerPlain.builder().id(1L).build())
                 .build();
 
-        List<Pet> pets = Arrays.asList(pet1, pet2);
-        when(petRepository.findAll()).thenReturn(pets);
+        List<PetDTO> pets = Arrays.asList(pet1, pet2);
+        when(petRepository.findAllDtos()).thenReturn(pets);
 
         List<PetDTO> result = petService.getAllPets();
 
@@ -73,16 +99,99 @@ class PetServiceTest {
         assertEquals("D", result.get(1).name());
     }
 
+    @Test
+    public void testGetPets() {
+        PetDTO pet1 = PetDTO.builder().id(1L).name("A").type("B").build();
+        PetDTO pet2 = PetDTO.builder().id(2L).name("D").type("B").build();
+
+        when(petRepository.findDtosAfter(0L, Limit.of(2))).thenReturn(List.of(pet1, pet2));
+        when(petRepository.findDtosAfter(0L, Limit.of(3))).thenReturn(List.of(pet1, pet2));
+
+        KeysetPage<PetDTO> partial = petService.getPets(0L, 1);
+        KeysetPage<PetDTO> full = petService.getPets(0L, 2);
+
+        assertEquals(1, partial.items().size());
+        assertEquals("A", partial.items().get(0).name());
+        assertEquals(1L, partial.next());
+        assertEquals(2, full.items().size());
+        assertNull(full.next());
+    }
+
+    @Test
+    public void testSearchPets_FromIndex() {
+        PetDTO pet1 = PetDTO.builder().id(1L).name("Max").build();
+        PetDTO pet2 = PetDTO.builder().id(2L).name("Maxi").build();
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(List.of("max"), 0L, 2)).thenReturn(List.of(1L, 2L));
+        when(petRepository.findDtosByIdIn(List.of(1L, 2L))).thenReturn(List.of(pet1, pet2));
+
+        KeysetPage<PetDTO> page = petService.searchPets("MAX", 0L, 1);
+
+        assertEquals(List.of(pet1), page.items());
+        assertEquals(1L, page.next());
+        verify(petRepository, never()).findDtosMatching(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testSearchPets_DropsStaleIds() {
+        PetDTO pet = PetDTO.builder().id(2L).name("Max").build();
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(List.of("max"), 0L, 11)).thenReturn(List.of(1L, 2L), List.of(2L));
+        when(petRepository.findDtosByIdIn(List.of(1L, 2L))).thenReturn(List.of(pet));
+        when(petRepository.findDtosByIdIn(List.of(2L))).thenReturn(List.of(pet));
+
+        KeysetPage<PetDTO> page = petService.searchPets("max", 0L, 10);
+
+        assertEquals(List.of(pet), page.items());
+        assertNull(page.next());
+        verify(searchIndex).remove(1L);
+        verify(searchIndex, never()).remove(2L);
+    }
+
+    @Test
+    public void testSearchPets_KeepsPetsMissingFromReplica() {
+        PetDTO pet1 = PetDTO.builder().id(1L).name("Max").build();
+        PetDTO pet2 = PetDTO.builder().id(2L).name("Max").build();
+        when(primaryReads.isReplicated()).thenReturn(true);
+        when(primaryReads.read(any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(0).get());
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(List.of("max"), 0L, 11)).thenReturn(List.of(1L, 2L));
+        when(petRepository.findDtosByIdIn(List.of(1L, 2L))).thenReturn(List.of(pet2), List.of(pet1, pet2));
+
+        KeysetPage<PetDTO> page = petService.searchPets("max", 0L, 10);
+
+        assertEquals(List.of(pet1, pet2), page.items());
+        verify(searchIndex, never()).remove(any());
+    }
+
+    @Test
+    public void testSearchPets_FallbackToLike() {
+        PetDTO pet = PetDTO.builder().id(1L).name("Max").type("Dog").build();
+        when(searchIndex.isReady()).thenReturn(false);
+        when(petRepository.findDtosMatching(List.of("max", "dog"), 0L, 11)).thenReturn(List.of(pet));
+
+        KeysetPage<PetDTO> page = petService.searchPets("Max dog", 0L, 10);
+
+        assertEquals(List.of(pet), page.items());
+        verify(searchIndex, never()).search(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testSearchPets_NoTerms() {
+        assertTrue(petService.searchPets(" %", 0L, 10).items().isEmpty());
+        verifyNoInteractions(petRepository, searchIndex);
+    }
+
     @Test
     public void testGetPetById_Exists() {
-        Pet pet = Pet.builder()
+        PetDTO pet = PetDTO.builder()
                 .id(1L)
                 .name("A")
                 .birthDate(LocalDate.now())
                 .type("B")
-                .owner(new Owner())
+                .owner(OwnerPlain.builder().id(1L).build())
                 .build();
-        when(petRepository.findById(1L)).thenReturn(Optional.of(pet));
+        when(petRepository.findDtoById(1L)).thenReturn(Optional.of(pet));
 
         Optional<PetDTO> result = petService.getPetById(1L);
 
@@ -92,13 +201,49 @@ class PetServiceTest {
 
     @Test
     public void testGetPetById_NotExists() {
-        when(petRepository.findById(1L)).thenReturn(Optional.empty());
+        when(petRepository.findDtoById(1L)).thenReturn(Optional.empty());
 
         Optional<PetDTO> result = petService.getPetById(1L);
 
         assertFalse(result.isPresent());
     }
 
+    @Test
+    public void testGetPetTag_FromVersions() {
+        PetDTO pet = PetDTO.builder()
+                .id(1L)
+                .version(2L)
+                .owner(OwnerPlain.builder().id(3L).version(4L).build())
+                .build();
+        when(cacheManager.getCache(CacheConfig.PETS)).thenReturn(new ConcurrentMapCache(CacheConfig.PETS));
+        when(petRepository.findVersionsById(1L)).thenReturn(Optional.of(new VersionRow(1L, 2L, 3L, 4L)));
+
+        Optional<String> result = petService.getPetTag(1L);
+
+        assertEquals(Optional.of(EntityTags.of(pet)), result);
+        verify(petRepository, never()).findDtoById(any());
+    }
+
+    @Test
+    public void testGetPetTag_FromCache() {
+        PetDTO pet = PetDTO.builder().id(1L).version(2L).build();
+        ConcurrentMapCache cache = new ConcurrentMapCache(CacheConfig.PETS);
+        cache.put(1L, pet);
+        when(cacheManager.getCache(CacheConfig.PETS)).thenReturn(cache);
+
+        Optional<String> result = petService.getPetTag(1L);
+
+        assertEquals(Optional.of(EntityTags.of(pet)), result);
+        verifyNoInteractions(petRepository);
+    }
+
+    @Test
+    public void testGetPetTag_NotExists() {
+        when(petRepository.findVersionsById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(petService.getPetTag(1L).isEmpty());
+    }
+
     @Test
     public void testSavePet_CreateNew() {
         PetDTO petDTO = PetDTO.builder()
@@ -120,7 +265,7 @@ class PetServiceTest {
                 .type("B")
                 .owner(new Owner())
                 .build();
-        when(ownerRepository.findDistinctById(1L)).thenReturn(Optional.of(new Owner()));
+        when(ownerRepository.findById(1L)).thenReturn(Optional.of(new Owner()));
         when(petRepository.save(any(Pet.class))).thenReturn(savedPet);
 
         PetDTO savedPetDTO = petService.savePet(petDTO);
@@ -152,7 +297,7 @@ class PetServiceTest {
                 .build();
 
         when(petRepository.findDistinctById(1L)).thenReturn(Optional.of(existingPet));
-        when(ownerRepository.findDistinctById(1L)).thenReturn(Optional.of(new Owner()));
+        when(ownerRepository.findById(1L)).thenReturn(Optional.of(new Owner()));
         when(petRepository.save(any(Pet.class))).thenReturn(existingPet);
 
         PetDTO updatedPetDTO = petService.savePet(petDTO);
@@ -161,17 +306,64 @@ class PetServiceTest {
         assertEquals("AA", updatedPetDTO.name());
     }
 
+    @Test
+    public void testUpsertPet() {
+        PetDTO petDTO = PetDTO.builder()
+                .id(7L)
+                .name("A")
+                .type("B")
+                .owner(OwnerPlain.builder().id(1L).build())
+                .build();
+        Owner owner = Owner.builder().id(1L).firstName("F").build();
+
+        when(ownerRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(petRepository.upsert(eq(7L), any(Pet.class))).thenReturn(new Upserted<>(new PetUpsertRow(51L, null), true));
+
+        Upserted<PetDTO> saved = petService.upsertPet(petDTO);
+
+        assertTrue(saved.created());
+        assertEquals(51L, saved.value().id());
+        assertEquals("A", saved.value().name());
+        assertEquals("F", saved.value().owner().firstName());
+        verify(petRepository, never()).findById(any());
+        verify(petRepository, never()).save(any());
+        verify(entityCache).petUpserted(51L, 1L, null);
+        verify(events).publishEvent(new PetChanged(51L, 1L, null, "A", "B", false));
+    }
+
+    @Test
+    public void testUpsertPet_MovedToAnotherOwner() {
+        PetDTO petDTO = PetDTO.builder()
+                .id(7L)
+                .name("A")
+                .type("B")
+                .owner(OwnerPlain.builder().id(1L).build())
+                .build();
+        Owner owner = Owner.builder().id(1L).firstName("F").build();
+
+        when(ownerRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(petRepository.upsert(eq(7L), any(Pet.class))).thenReturn(new Upserted<>(new PetUpsertRow(7L, 2L), false));
+
+        Upserted<PetDTO> saved = petService.upsertPet(petDTO);
+
+        assertFalse(saved.created());
+        verify(entityCache).petUpserted(7L, 1L, 2L);
+        verify(events).publishEvent(new PetChanged(7L, 1L, 2L, "A", "B", false));
+    }
+
     @Test
     public void testDeletePet_Exists() {
-        doNothing().when(petRepository).deleteById(1L);
+        when(petRepository.deleteRowById(1L)).thenReturn(1);
 
-        assertDoesNotThrow(() -> petService.deletePet(1L));
+        assertTrue(petService.deletePet(1L));
+        verify(events).publishEvent(new PetChanged(1L, null, null, null, null, true));
     }
 
     @Test
     public void testDeletePet_NotExists() {
-        doThrow(EmptyResultDataAccessException.class).when(petRepository).deleteById(1L);
+        when(petRepository.deleteRowById(1L)).thenReturn(0);
 
-        assertThrows(EmptyResultDataAccessException.class, () -> petService.deletePet(1L));
+        assertFalse(petService.deletePet(1L));
+        verifyNoInteractions(events);
     }
 }
@@ -0,0 +1,66 @@
+package com.nixiedroid.petclinic.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records the SQL statements executed through the proxied {@link javax.sql.DataSource}, see {@link SqlRecorderConfig}.
+ * <br>Statements are recorded on every thread, including the database executor of the asynchronous endpoints,
+ * while {@link #record(Action)} runs.
+ */
+public class SqlRecorder implements QueryExecutionListener {
+
+    /**
+     * Work whose statements are recorded, such as a {@code MockMvc} request.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private final List<SqlRecording.Statement> statements = new ArrayList<>();
+    private volatile boolean recording;
+
+    /**
+     * Runs the action and returns the statements it executed.
+     *
+     * @param action the work to record
+     * @return the recorded statements, in execution order
+     */
+    public SqlRecording record(Action action) throws Exception {
+        synchronized (statements) {
+            statements.clear();
+        }
+        recording = true;
+        try {
+            action.run();
+        } finally {
+            recording = false;
+        }
+        synchronized (statements) {
+            return new SqlRecording(List.copyOf(statements));
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!recording) {
+            return;
+        }
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        int batchSize = execInfo.isBatch() ? Math.max(execInfo.getBatchSize(), queryInfoList.size()) : 1;
+        synchronized (statements) {
+            statements.add(new SqlRecording.Statement(sql, batchSize, execInfo.getElapsedTime(),
+                    Thread.currentThread().getName(), execInfo.isSuccess()));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.nixiedroid.petclinic.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application {@link DataSource} in a proxy reporting every statement to a {@link SqlRecorder}.
+ * <br>Import it in a Spring Boot test and inject the {@link SqlRecorder}:
+ * <pre>{@code
+ * recorder.record(() -> mockMvc.perform(get("/owners")).andExpect(status().isOk()))
+ *         .assertAtMost(2)
+ *         .assertNoneSlowerThan(Duration.ofMillis(100));
+ * }</pre>
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlRecorderConfig {
+
+    @Bean
+    SqlRecorder sqlRecorder() {
+        return new SqlRecorder();
+    }
+
+    @Bean
+    static BeanPostProcessor sqlRecordingDataSource(ObjectProvider<SqlRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(recorder.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
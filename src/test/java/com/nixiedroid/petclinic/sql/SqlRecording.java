@@ -0,0 +1,88 @@
+package com.nixiedroid.petclinic.sql;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Statements recorded by a {@link SqlRecorder}, with assertions on their number and duration.
+ * <br>A failed assertion lists every recorded statement, and statements executed more than once,
+ * the usual sign of an N+1 fetch.
+ *
+ * @param statements the statements, in execution order
+ */
+public record SqlRecording(List<Statement> statements) {
+
+    /**
+     * An executed statement; a JDBC batch counts as one statement.
+     *
+     * @param sql           the statement, or the statements of the batch separated by {@code ;}
+     * @param batchSize     the number of parameter sets or statements of a batch, 1 otherwise
+     * @param elapsedMillis the execution time
+     * @param thread        the thread that executed it
+     * @param success       false if it failed
+     */
+    public record Statement(String sql, int batchSize, long elapsedMillis, String thread, boolean success) {}
+
+    /**
+     * @return the number of statements executed
+     */
+    public int count() {
+        return statements.size();
+    }
+
+    /**
+     * Fails unless at most {@code max} statements were executed.
+     *
+     * @param max the statement budget
+     * @return this recording, to chain assertions
+     */
+    public SqlRecording assertAtMost(int max) {
+        if (statements.size() > max) {
+            fail("Expected at most " + max + " statements but " + statements.size() + " were executed\n" + this);
+        }
+        return this;
+    }
+
+    /**
+     * Fails if a statement took longer than {@code limit}.
+     *
+     * @param limit the time budget of a single statement
+     * @return this recording, to chain assertions
+     */
+    public SqlRecording assertNoneSlowerThan(Duration limit) {
+        List<Statement> slow = statements.stream().filter(s -> s.elapsedMillis() > limit.toMillis()).toList();
+        if (!slow.isEmpty()) {
+            StringBuilder message = new StringBuilder("Expected no statement slower than " + limit.toMillis()
+                    + " ms but " + slow.size() + " were\n");
+            slow.forEach(s -> append(message, s));
+            fail(message.append(this).toString());
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("Executed " + statements.size() + " statements:\n");
+        for (int i = 0; i < statements.size(); i++) {
+            out.append(String.format("%3d ", i + 1));
+            append(out, statements.get(i));
+        }
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statements.forEach(s -> repeated.merge(s.sql(), 1, Integer::sum));
+        repeated.values().removeIf(times -> times < 2);
+        if (!repeated.isEmpty()) {
+            out.append("Repeated statements:\n");
+            repeated.forEach((sql, times) -> out.append(String.format("%3dx %s%n", times, sql)));
+        }
+        return out.toString();
+    }
+
+    private static void append(StringBuilder out, Statement s) {
+        out.append(String.format("%5d ms [%s]%s%s %s%n", s.elapsedMillis(), s.thread(),
+                s.batchSize() > 1 ? " batch of " + s.batchSize() : "", s.success() ? "" : " failed", s.sql()));
+    }
+}